@@ -0,0 +1,251 @@
+package benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.AiActionParam;
+import model.MapImageCache;
+import model.Room;
+import model.RoomGraph;
+import model.RoomGraphImpl;
+import model.WorldModel;
+import model.WorldModelImpl;
+import model.WorldTopology;
+import model.WorldTopologyImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import simulation.WorldGeneratorImpl;
+
+/**
+ * JMH benchmarks of the hot paths of WorldModelImpl, the baseline every performance change
+ * is measured against.
+ * Worlds are made by WorldGeneratorImpl in the same format as GravityFalls.txt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldModelBenchmark {
+
+  private static final int MAX_ITEM_CARRIED = 3;
+
+  /**
+   * A world config and a model loaded from it.
+   */
+  @State(Scope.Thread)
+  public static class WorldState {
+
+    @Param({"25", "400", "3600"})
+    public int roomNumber;
+
+    String config;
+    WorldTopology topology;
+    WorldModel world;
+    int roomIdx;
+
+    /**
+     * Generate the config and load the model.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+      config = new WorldGeneratorImpl(roomNumber, roomNumber, 50, 42).generate();
+      topology = new WorldTopologyImpl(new StringReader(config));
+      world = WorldModelImpl.fromTopology(topology);
+    }
+
+    int nextRoom() {
+      roomIdx = roomIdx + 1 == roomNumber ? 0 : roomIdx + 1;
+      return roomIdx;
+    }
+  }
+
+  /**
+   * A game of AI players only, restarted whenever it is over.
+   */
+  @State(Scope.Thread)
+  public static class AiGameState extends WorldState {
+
+    /**
+     * Start the game, after the world is loaded.
+     */
+    @Setup(Level.Trial)
+    public void setUpGame() {
+      restart();
+    }
+
+    void restart() {
+      world.reinitializeWithCurrentConfig();
+      world.setPlayers(playerNames(), playerRooms(roomNumber), List.of(true, true, true), 42);
+      world.setMaxTurn(Integer.MAX_VALUE);
+      world.setMaxItemCarried(MAX_ITEM_CARRIED);
+    }
+  }
+
+  /**
+   * A game of human players only, who look around every turn,
+   * so a turn is mostly the pet wandering and the target character moving.
+   */
+  @State(Scope.Thread)
+  public static class HumanGameState extends WorldState {
+
+    /**
+     * Start the game, after the world is loaded.
+     */
+    @Setup(Level.Trial)
+    public void setUpGame() {
+      world.setPlayers(playerNames(), playerRooms(roomNumber), List.of(false, false, false));
+      world.setMaxTurn(Integer.MAX_VALUE);
+      world.setMaxItemCarried(MAX_ITEM_CARRIED);
+    }
+  }
+
+  /**
+   * A model and a temporary file to write its map to.
+   */
+  @State(Scope.Thread)
+  public static class MapState extends WorldState {
+
+    @Param({"10"})
+    public int scale;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    File imageFile;
+    MapImageCache cache;
+
+    /**
+     * Create the temporary file.
+     */
+    @Setup(Level.Trial)
+    public void setUpImageFile() {
+      cache = new MapImageCache(1, parallelism);
+      try {
+        imageFile = File.createTempFile("world-bench", ".png");
+      } catch (IOException ioe) {
+        throw new UncheckedIOException(ioe);
+      }
+    }
+
+    /**
+     * Delete the temporary file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      imageFile.delete();
+    }
+  }
+
+  /**
+   * Read, validate and build the adjacency of a config never seen before.
+   */
+  @Benchmark
+  public WorldTopology parseTopology(WorldState state) {
+    return new WorldTopologyImpl(new StringReader(state.config));
+  }
+
+  /**
+   * Reload a config through the model, the topology comes from the cache after the first time.
+   */
+  @Benchmark
+  public WorldModel reinitializeWithNewConfig(WorldState state) {
+    state.world.reinitializeWithNewConfig(new StringReader(state.config));
+    return state.world;
+  }
+
+  /**
+   * Build the adjacency of rooms, which was initAdjacentRoomTable before topologies existed.
+   */
+  @Benchmark
+  public RoomGraph buildRoomGraph(WorldState state) {
+    List<Room> rooms = new ArrayList<>(state.roomNumber);
+    for (int i = 0; i < state.roomNumber; ++i) {
+      rooms.add(state.topology.getRoom(i));
+    }
+    return new RoomGraphImpl(rooms, 1);
+  }
+
+  /**
+   * List the neighbors of rooms in turn.
+   */
+  @Benchmark
+  public List<Integer> getRoomNeighbors(WorldState state) {
+    return state.world.getRoomNeighbors(state.nextRoom());
+  }
+
+  /**
+   * Describe rooms in turn.
+   */
+  @Benchmark
+  public String printRoomInfo(WorldState state) {
+    return state.world.printRoomInfo(state.nextRoom());
+  }
+
+  /**
+   * One full AI turn, ending with the target character moving and the pet wandering.
+   */
+  @Benchmark
+  public void aiPlayerDoAction(AiGameState state, Blackhole blackhole) {
+    if (state.world.isGameOver()) {
+      state.restart();
+    }
+    AiActionParam ap = state.world.aiPlayerDoAction();
+    blackhole.consume(ap);
+    blackhole.consume(state.world.getLastTurnMsg());
+  }
+
+  /**
+   * One human turn of looking around, which is dominated by the pet's depth-first wander.
+   */
+  @Benchmark
+  public int petWanderDfs(HumanGameState state) {
+    state.world.curHumanPlayerDisplayNeighborRooms();
+    return state.world.getTargetCharacterRoomIdx();
+  }
+
+  /**
+   * Draw the map and write it as a png. The shared cache is cleared first, so the map is drawn
+   * every time, on every core whatever the parallelism.
+   */
+  @Benchmark
+  public File outputMapImage(MapState state) {
+    MapImageCache.getInstance().clear();
+    state.world.outputMapImage(state.imageFile.getPath(), state.scale);
+    return state.imageFile;
+  }
+
+  /**
+   * Draw the whole map in memory, in bands on the given number of threads.
+   */
+  @Benchmark
+  public BufferedImage renderMapImage(MapState state) {
+    state.cache.clear();
+    return state.cache.getImage(state.topology, state.scale);
+  }
+
+  private static List<String> playerNames() {
+    return List.of("Dipper", "Mabel", "Soos");
+  }
+
+  private static List<Integer> playerRooms(int roomNumber) {
+    return List.of(0, roomNumber / 2, roomNumber - 1);
+  }
+}
@@ -0,0 +1,79 @@
+package controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+import model.AiActionParam;
+import model.PlayerActionType;
+import model.PlayerType;
+import model.WorldModel;
+import view.WorldView;
+
+/**
+ * Command for starting a turn in auto-play mode.
+ * Every AI turn in a row is played against the model at once, and the view is updated
+ * only when they are all done: the players moved are put in their last rooms,
+ * and the messages of all the turns are shown together.
+ * The command then starts the next human turn as TurnStartCommand does,
+ * or shows the game result if the game is over.
+ */
+public class AutoPlayCommand implements WorldCommand {
+
+  /**
+   * Execute command.
+   *
+   * @param world model for executing
+   * @param view  view for display
+   * @param param is ignored here
+   * @throws IllegalArgumentException model or view is null
+   */
+  @Override
+  public void execute(WorldModel world, WorldView view, Object param)
+          throws IllegalArgumentException, IllegalStateException {
+    if (world == null) {
+      throw new IllegalArgumentException("model is null");
+    }
+    if (view == null) {
+      throw new IllegalArgumentException("view is null");
+    }
+    if (world.isGameOver() || world.getCurPlayerType() != PlayerType.AI) {
+      new TurnStartCommand().execute(world, view, null);
+      return;
+    }
+
+    view.setViewLock(true, true);
+    //last room of every player moved, in player order
+    Map<Integer, Integer> movedPlayers = new TreeMap<>();
+    StringBuilder turnMsgs = new StringBuilder();
+    int turnNum = 0;
+    while (!world.isGameOver() && world.getCurPlayerType() == PlayerType.AI) {
+      int playerIdx = world.getCurPlayerIdx();
+      AiActionParam ap = world.aiPlayerDoAction();
+      if (ap.getActionType() == PlayerActionType.MOVE) {
+        movedPlayers.put(playerIdx, ap.getActionParameter());
+      }
+      turnMsgs.append(world.getLastTurnMsg());
+      ++turnNum;
+    }
+
+    for (Map.Entry<Integer, Integer> entry : movedPlayers.entrySet()) {
+      view.movePlayerTo(entry.getKey(), entry.getValue());
+    }
+    String summary = String.format(CommandPromptType.AUTO_PLAY_SUMMARY.toString(), turnNum)
+            + turnMsgs;
+    view.resetAllInfo();
+    if (world.isGameOver()) {
+      view.showTurnResult(summary);
+      view.showGameResult(world.getGameResultMsg());
+    } else {
+      view.moveTargetCharacterTo(world.getTargetCharacterRoomIdx());
+      view.setViewLock(false, false);
+      view.showTurnInfo(summary + world.getCurTurnInfo());
+      view.showPrompt(CommandPromptType.PLAYER_ACTION.toString());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AutoPlayCommand";
+  }
+}
@@ -18,6 +18,7 @@ public enum CommandPromptType {
   TURN_INFO("Current turn is %d\n"
           + "Current player is %s, order is %d\n"
           + "%s carries %d items, is in %d-indexed room %s\n"),
+  AUTO_PLAY_SUMMARY("%d AI turns played:\n"),
   GAME_ENDS("Game ends.\n"),
   GAME_OVER("Game Over.\n"),
   PICK_ITEM_INDEX("Enter the index of the item the player will pick:\n"),
@@ -1,8 +1,6 @@
 package controller;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import model.WorldModel;
@@ -13,6 +11,9 @@ import view.WorldView;
  */
 public class StartGameCommand implements WorldCommand {
 
+  //4096 * 4096 pixels take 64MB as a whole image
+  private static final long MAX_WHOLE_MAP_PIXELS = 4096L * 4096L;
+
   /**
    * Execute command.
    * This should be called after necessary information is set, or exceptions may be thrown.
@@ -39,15 +40,13 @@ public class StartGameCommand implements WorldCommand {
             || world.getMaxItemNumCarried() == 0) {
       throw new IllegalStateException("game information isn't complete");
     }
-    try {
-      Files.createDirectories(Paths.get("runtime_res"));
-    } catch (IOException ioe) {
-      view.showWarning(ioe.getMessage());
-      return;
-    }
-    final String filePath = "runtime_res/map.png";
     final int scaleMapRatio = 40;
-    world.outputMapImage(filePath, 40);
+    //a map too big to draw as a whole is drawn by the view tile by tile
+    long mapPixels = (long) scaleMapRatio * (world.getWidth() + 1)
+            * scaleMapRatio * (world.getHeight() + 1);
+    boolean tiled = mapPixels > MAX_WHOLE_MAP_PIXELS;
+    //the map goes to the view in memory instead of through a png file
+    BufferedImage map = tiled ? null : world.renderMapImage(scaleMapRatio);
     view.resetAllData();
 
     List<int[]> roomBounds = new ArrayList<>();
@@ -64,7 +63,12 @@ public class StartGameCommand implements WorldCommand {
     for (int i = 0; i < world.getPlayerNumber(); ++i) {
       playerIconPaths.add(String.format("runtime_res/character/%03d.png", (i + 1)));
     }
-    view.initMap(filePath, roomBounds, playerIconPaths, "runtime_res/character/boss.png");
+    if (tiled) {
+      view.initTiledMap(scaleMapRatio, roomBounds, playerIconPaths,
+              "runtime_res/character/boss.png");
+    } else {
+      view.initMap(map, roomBounds, playerIconPaths, "runtime_res/character/boss.png");
+    }
     view.showPrompt(CommandPromptType.START_GAME_PROMPT.toString());
     view.setViewLock(false, true);
   }
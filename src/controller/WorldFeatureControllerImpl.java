@@ -1,28 +1,61 @@
 package controller;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import model.WorldModel;
+import view.EdtWorldView;
 import view.WorldView;
 
 /**
  * The feature controller's concrete class.
  * The class stores reference to the model and the view, edit model and determine
  * what the view should display via commands.
+ * By default commands are executed on the thread calling executeCommand, which is the
+ * Swing event dispatch thread for the GUI, so the GUI waits for every command to finish.
+ * Asynchronously, commands are executed one after another on a single thread of their own,
+ * the only thread changing the model, and the view is updated on the event dispatch thread
+ * in the order the commands update it, so drawing big maps or long AI chains
+ * doesn't freeze the GUI. The view then only reads copies of the model taken by the commands,
+ * and takes no input from when a command is submitted until every command is done,
+ * see EdtWorldView.
  */
 public class WorldFeatureControllerImpl implements WorldFeatureController {
   private final WorldModel model;
+  //null when commands are executed on the calling thread
+  private final ExecutorService executor;
   private WorldView view;
+  //the view updated on the event dispatch thread, null when commands are executed on the
+  //calling thread
+  private EdtWorldView edtView;
 
   /**
-   * Constructor of WorldFeatureControllerImpl.
+   * Constructor of WorldFeatureControllerImpl, commands are executed on the calling thread.
    *
    * @param model world model, mutable version with full functions
    * @throws IllegalArgumentException model is null
    */
   public WorldFeatureControllerImpl(WorldModel model) throws IllegalArgumentException {
+    this(model, false);
+  }
+
+  /**
+   * Constructor of WorldFeatureControllerImpl.
+   *
+   * @param model        world model, mutable version with full functions
+   * @param asynchronous whether commands are executed on a thread of their own
+   * @throws IllegalArgumentException model is null
+   */
+  public WorldFeatureControllerImpl(WorldModel model, boolean asynchronous)
+          throws IllegalArgumentException {
     if (model == null) {
       throw new IllegalArgumentException("model is null");
     }
     this.model = model;
+    this.executor = asynchronous ? Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "world-commands");
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
   }
 
   @Override
@@ -30,9 +63,15 @@ public class WorldFeatureControllerImpl implements WorldFeatureController {
     if (v == null) {
       throw new IllegalArgumentException("view is null");
     }
-    view = v;
-    view.setFeatures(this);
-    view.setViewModel(model);
+    v.setFeatures(this);
+    if (executor == null) {
+      v.setViewModel(model);
+      view = v;
+    } else {
+      edtView = new EdtWorldView(v);
+      edtView.setViewModel(model);
+      view = edtView;
+    }
   }
 
   @Override
@@ -43,6 +82,19 @@ public class WorldFeatureControllerImpl implements WorldFeatureController {
     if (view == null) {
       throw new IllegalStateException("view not set");
     }
-    cmd.execute(model, view, param);
+    if (executor == null) {
+      cmd.execute(model, view, param);
+    } else {
+      //an error is thrown on the command thread, as it would be on the event dispatch thread
+      EdtWorldView v = edtView;
+      v.commandSubmitted();
+      executor.execute(() -> {
+        try {
+          cmd.execute(model, v, param);
+        } finally {
+          v.commandDone();
+        }
+      });
+    }
   }
 }
@@ -1,9 +1,14 @@
 package driver;
 
+import controller.StartGameCommand;
 import controller.WorldFeatureController;
 import controller.WorldFeatureControllerImpl;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+import model.JournaledWorldModel;
 import model.WorldModel;
 import model.WorldModelImpl;
 import view.WorldView;
@@ -17,7 +22,9 @@ public class Driver {
   /**
    * Entry function for testing the game.
    *
-   * @param args first is config file path, second is max turn
+   * @param args first is config file path, second is max turn, then optionally
+   *             'async' executes commands off the Swing thread, and 'journal=path'
+   *             records the game in a journal, recovering the game recorded in it
    */
   public static void main(String[] args) {
 
@@ -43,15 +50,44 @@ public class Driver {
       System.out.println(maxTurn);
       return;
     }
+    boolean asynchronous = false;
+    String journalPath = null;
+    for (int i = 2; i < args.length; ++i) {
+      if ("async".equals(args[i])) {
+        asynchronous = true;
+      } else if (args[i].startsWith("journal=")) {
+        journalPath = args[i].substring("journal=".length());
+      } else {
+        System.out.println("unknown option!");
+        System.out.println(args[i]);
+        return;
+      }
+    }
     try {
       FileReader fileReader = new FileReader(args[0]);
       WorldModel model = new WorldModelImpl(fileReader);
-      model.setMaxTurn(maxTurn);
-      WorldFeatureController fc = new WorldFeatureControllerImpl(model);
+      if (journalPath != null) {
+        JournaledWorldModel journaled = JournaledWorldModel.recover(model, Paths.get(journalPath));
+        //quitting exits the application, so the journal is synced and closed on the way out
+        Runtime.getRuntime().addShutdownHook(new Thread(journaled::close));
+        model = journaled;
+      }
+      //a recovered game going on keeps its own max turn
+      boolean recovered = model.getPlayerNumber() > 0 && model.getMaxItemNumCarried() > 0
+              && !model.isGameOver();
+      if (!recovered) {
+        model.setMaxTurn(maxTurn);
+      }
+      WorldFeatureController fc = new WorldFeatureControllerImpl(model, asynchronous);
       WorldView view = new WorldViewImpl("World");
       fc.setView(view);
-    } catch (IOException | IllegalStateException ise) {
-      System.out.println(ise.getMessage());
+      if (recovered) {
+        //the recovered game is put on the map, to go on from the turn it was in
+        SwingUtilities.invokeLater(() -> fc.executeCommand(new StartGameCommand(), null));
+      }
+    } catch (IOException | UncheckedIOException | IllegalStateException
+             | IllegalArgumentException ex) {
+      System.out.println(ex.getMessage());
     }
   }
   //  public static void main(String[] args) {
@@ -0,0 +1,98 @@
+package driver;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import model.WorldModel;
+import model.WorldModelImpl;
+import simulation.GameSimulator;
+import simulation.GameSimulatorImpl;
+import simulation.GameSummary;
+
+/**
+ * Driver for playing games without the GUI.
+ * Only the summary of every game is printed.
+ */
+public class SimulationDriver {
+
+  /**
+   * Entry function for headless games.
+   * Each player is given as name:room for an AI player,
+   * or name:room:actions for a scripted human player, where actions are separated by commas,
+   * e.g. Dipper:3:MOVE,4,PICKUP_ITEM,2,LOOK_AROUND
+   *
+   * @param args config file path, max turn, max item carried, number of games, then players
+   */
+  public static void main(String[] args) {
+    if (args == null || args.length < 5) {
+      System.out.println("usage: <config path> <max turn> <max item carried> <game number> "
+              + "<player> [player...]");
+      return;
+    }
+    int maxTurn;
+    int maxItemCarried;
+    int gameNumber;
+    try {
+      maxTurn = Integer.parseInt(args[1]);
+      maxItemCarried = Integer.parseInt(args[2]);
+      gameNumber = Integer.parseInt(args[3]);
+    } catch (NumberFormatException nfe) {
+      System.out.println("max turn, max item carried and game number should be integers!");
+      return;
+    }
+
+    List<String> names = new ArrayList<>();
+    List<Integer> rooms = new ArrayList<>();
+    List<Boolean> isAi = new ArrayList<>();
+    List<String> scripts = new ArrayList<>();
+    if (!parsePlayers(args, 4, names, rooms, isAi, scripts)) {
+      return;
+    }
+
+    try (FileReader reader = new FileReader(args[0])) {
+      WorldModel model = new WorldModelImpl(reader);
+      GameSimulator simulator = new GameSimulatorImpl(model, names, rooms, isAi, scripts,
+              maxTurn, maxItemCarried);
+      for (int i = 0; i < gameNumber; ++i) {
+        GameSummary summary = simulator.runGame();
+        System.out.print(summary);
+      }
+    } catch (IOException | IllegalStateException | IllegalArgumentException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+
+  /**
+   * Parse players given as name:room or name:room:actions in the arguments.
+   * A message is printed for the first invalid player.
+   *
+   * @param args    arguments of the driver
+   * @param begin   index of the first player in the arguments
+   * @param names   list to put names of the players in
+   * @param rooms   list to put rooms of the players in
+   * @param isAi    list to put whether the players are AIs in
+   * @param scripts list to put actions of the players in, null for AI players
+   * @return true if all players are valid, false if not
+   */
+  static boolean parsePlayers(String[] args, int begin, List<String> names, List<Integer> rooms,
+                              List<Boolean> isAi, List<String> scripts) {
+    for (int i = begin; i < args.length; ++i) {
+      String[] split = args[i].split(":", 3);
+      if (split.length < 2) {
+        System.out.println(String.format("player %s should be name:room[:actions]", args[i]));
+        return false;
+      }
+      names.add(split[0]);
+      try {
+        rooms.add(Integer.parseInt(split[1]));
+      } catch (NumberFormatException nfe) {
+        System.out.println(String.format("room of player %s should be an integer", split[0]));
+        return false;
+      }
+      isAi.add(split.length == 2);
+      scripts.add(split.length == 2 ? null : split[2].replace(',', ' '));
+    }
+    return true;
+  }
+}
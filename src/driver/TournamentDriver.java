@@ -0,0 +1,71 @@
+package driver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import simulation.TournamentResult;
+import simulation.TournamentRunner;
+import simulation.TournamentRunnerImpl;
+
+/**
+ * Driver for playing tournaments of many headless games on all cores.
+ * Statistics are printed for every config.
+ */
+public class TournamentDriver {
+
+  /**
+   * Entry function for tournaments.
+   * Players are given in the same form as SimulationDriver.
+   *
+   * @param args thread number, game number, master seed, max turn, max item carried,
+   *             config file paths separated by commas, then players
+   */
+  public static void main(String[] args) {
+    if (args == null || args.length < 7) {
+      System.out.println("usage: <thread number> <game number> <seed> <max turn> "
+              + "<max item carried> <config path>[,config path...] <player> [player...]");
+      return;
+    }
+    int threadNumber;
+    int gameNumber;
+    long seed;
+    int maxTurn;
+    int maxItemCarried;
+    try {
+      threadNumber = Integer.parseInt(args[0]);
+      gameNumber = Integer.parseInt(args[1]);
+      seed = Long.parseLong(args[2]);
+      maxTurn = Integer.parseInt(args[3]);
+      maxItemCarried = Integer.parseInt(args[4]);
+    } catch (NumberFormatException nfe) {
+      System.out.println("thread number, game number, seed, max turn and max item carried "
+              + "should be integers!");
+      return;
+    }
+
+    List<String> names = new ArrayList<>();
+    List<Integer> rooms = new ArrayList<>();
+    List<Boolean> isAi = new ArrayList<>();
+    List<String> scripts = new ArrayList<>();
+    if (!SimulationDriver.parsePlayers(args, 6, names, rooms, isAi, scripts)) {
+      return;
+    }
+
+    try {
+      TournamentRunner runner = new TournamentRunnerImpl(threadNumber, names, rooms, isAi,
+              scripts, maxTurn, maxItemCarried);
+      for (String configPath : args[5].split(",")) {
+        String config = Files.readString(Paths.get(configPath));
+        long begin = System.nanoTime();
+        TournamentResult result = runner.run(config, gameNumber, seed);
+        long elapsed = System.nanoTime() - begin;
+        System.out.println(String.format("Config %s, %.1f ms:", configPath, elapsed / 1e6));
+        System.out.print(result);
+      }
+    } catch (IOException | IllegalStateException | IllegalArgumentException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+}
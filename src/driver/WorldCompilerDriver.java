@@ -0,0 +1,37 @@
+package driver;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import model.WorldTopology;
+import model.WorldTopologyCompiler;
+import model.WorldTopologyImpl;
+
+/**
+ * Driver for compiling a world config into a binary file,
+ * which loads much faster than the text for very large worlds.
+ */
+public class WorldCompilerDriver {
+
+  /**
+   * Entry function for compiling.
+   *
+   * @param args config file path, then path of the binary file
+   */
+  public static void main(String[] args) {
+    if (args == null || args.length < 2) {
+      System.out.println("usage: <config path> <compiled world path>");
+      return;
+    }
+    try (FileReader reader = new FileReader(args[0])) {
+      WorldTopology topology = new WorldTopologyImpl(reader);
+      WorldTopologyCompiler.getInstance().compile(topology, Paths.get(args[1]));
+      System.out.println(String.format("World %s with %d rooms and %d items is compiled to %s.",
+              topology.getName(), topology.getRoomNumber(), topology.getItemNumber(), args[1]));
+    } catch (IOException | UncheckedIOException | IllegalStateException
+             | IllegalArgumentException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package driver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import simulation.WorldGenerator;
+import simulation.WorldGeneratorImpl;
+
+/**
+ * Driver for generating world configs of any size for scale testing.
+ */
+public class WorldGeneratorDriver {
+
+  /**
+   * Entry function for generating.
+   *
+   * @param args config path, room number, item number, target health, seed,
+   *             and optionally the ratio of rooms sharing a wall with the next room
+   */
+  public static void main(String[] args) {
+    if (args == null || args.length < 5) {
+      System.out.println("usage: <config path> <room number> <item number> <target health> "
+              + "<seed> [wall ratio]");
+      return;
+    }
+    WorldGenerator generator;
+    try {
+      int roomNumber = Integer.parseInt(args[1]);
+      int itemNumber = Integer.parseInt(args[2]);
+      int targetHealth = Integer.parseInt(args[3]);
+      long seed = Long.parseLong(args[4]);
+      double wallRatio = args.length > 5 ? Double.parseDouble(args[5])
+              : WorldGeneratorImpl.DEFAULT_WALL_RATIO;
+      generator = new WorldGeneratorImpl(roomNumber, itemNumber, targetHealth, wallRatio, seed);
+    } catch (IllegalArgumentException ex) {
+      System.out.println(ex.getMessage());
+      return;
+    }
+    try (Writer writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      generator.generate(writer);
+      System.out.println(String.format("World with %s rooms and %s items is written to %s.",
+              args[1], args[2], args[0]));
+    } catch (IOException | UncheckedIOException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+}
@@ -1,5 +1,9 @@
 package helper;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
 /**
  * Helps handle serialization of some classes.
  */
@@ -69,4 +73,225 @@ public class Parser {
     }
     return ret;
   }
+
+  /**
+   * Reads a text line by line and token by token, straight from a char buffer.
+   * The whole readable is read once into the buffer, and no regex, line string
+   * or token array is created while reading; only names are turned into strings.
+   * Tokens are separated by whitespace, and lines end with \n, \r or \r\n.
+   */
+  public static class Tokenizer {
+
+    private final char[] buffer;
+    private final int length;
+    private int lineNumber;
+    private int pos;
+    private int lineEnd;
+    private int nextLineStart;
+
+    /**
+     * Constructor.
+     * The readable is read to its end, and the tokenizer is placed before the first line.
+     *
+     * @param readable the text to be read
+     * @throws IllegalArgumentException readable is null
+     * @throws IllegalStateException    reading fails
+     */
+    public Tokenizer(Readable readable) throws IllegalArgumentException, IllegalStateException {
+      if (readable == null) {
+        throw new IllegalArgumentException("readable invalid");
+      }
+      char[] buf = new char[8192];
+      int len = 0;
+      try {
+        while (true) {
+          if (len == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+          }
+          int read = readable.read(CharBuffer.wrap(buf, len, buf.length - len));
+          if (read < 0) {
+            break;
+          }
+          len += read;
+        }
+      } catch (IOException ioe) {
+        throw new IllegalStateException(ioe.getMessage());
+      }
+      this.buffer = buf;
+      this.length = len;
+      this.lineNumber = 0;
+      this.pos = 0;
+      this.lineEnd = 0;
+      this.nextLineStart = 0;
+    }
+
+    /**
+     * Get the whole text that is read, without copying it.
+     *
+     * @return a read-only view of the text
+     */
+    public CharSequence getText() {
+      return CharBuffer.wrap(buffer, 0, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Move to the beginning of the next line.
+     *
+     * @return true if there is a next line, false if the end of the text is reached
+     */
+    public boolean nextLine() {
+      if (nextLineStart >= length) {
+        pos = length;
+        lineEnd = length;
+        return false;
+      }
+      lineNumber++;
+      pos = nextLineStart;
+      int end = pos;
+      while (end < length && buffer[end] != '\n' && buffer[end] != '\r') {
+        end++;
+      }
+      lineEnd = end;
+      if (end < length && buffer[end] == '\r' && end + 1 < length && buffer[end + 1] == '\n') {
+        end++;
+      }
+      nextLineStart = end + 1;
+      return true;
+    }
+
+    /**
+     * Get the number of the current line, counting from one.
+     *
+     * @return the number of the current line, zero before the first line
+     */
+    public int getLineNumber() {
+      return lineNumber;
+    }
+
+    /**
+     * Count the tokens left in the current line without moving.
+     *
+     * @return the number of tokens left
+     */
+    public int countTokens() {
+      int count = 0;
+      int i = pos;
+      while (true) {
+        while (i < lineEnd && isSpace(buffer[i])) {
+          i++;
+        }
+        if (i == lineEnd) {
+          return count;
+        }
+        count++;
+        while (i < lineEnd && !isSpace(buffer[i])) {
+          i++;
+        }
+      }
+    }
+
+    /**
+     * Whether there is any token left in the current line.
+     *
+     * @return true if there is a token left, false if not
+     */
+    public boolean hasNextToken() {
+      skipSpace();
+      return pos < lineEnd;
+    }
+
+    /**
+     * Read the next token of the current line as an int.
+     *
+     * @return the int
+     * @throws IllegalArgumentException no token is left, or the token isn't an int
+     */
+    public int nextInt() throws IllegalArgumentException {
+      skipSpace();
+      if (pos == lineEnd) {
+        throw new IllegalArgumentException(String.format("line %d needs more elements",
+                lineNumber));
+      }
+      int begin = pos;
+      boolean negative = false;
+      if (buffer[pos] == '-' || buffer[pos] == '+') {
+        negative = buffer[pos] == '-';
+        pos++;
+      }
+      long value = 0;
+      int digitBegin = pos;
+      while (pos < lineEnd && !isSpace(buffer[pos])) {
+        char c = buffer[pos];
+        if (c < '0' || c > '9') {
+          throw invalidInt(begin);
+        }
+        value = value * 10 + (c - '0');
+        if (value > (long) Integer.MAX_VALUE + 1) {
+          throw invalidInt(begin);
+        }
+        pos++;
+      }
+      if (pos == digitBegin) {
+        throw invalidInt(begin);
+      }
+      value = negative ? -value : value;
+      if (value > Integer.MAX_VALUE) {
+        throw invalidInt(begin);
+      }
+      return (int) value;
+    }
+
+    /**
+     * Read the tokens left in the current line as one string, separated by one space each,
+     * which is the same as concatStringWithSpace over the split line.
+     *
+     * @return the string, empty if no token is left
+     */
+    public String restOfLine() {
+      skipSpace();
+      int end = lineEnd;
+      while (end > pos && isSpace(buffer[end - 1])) {
+        end--;
+      }
+      boolean singleSpaced = true;
+      for (int i = pos; i < end - 1 && singleSpaced; ++i) {
+        singleSpaced = !isSpace(buffer[i]) || (buffer[i] == ' ' && !isSpace(buffer[i + 1]));
+      }
+      String ret;
+      if (singleSpaced) {
+        ret = new String(buffer, pos, end - pos);
+      } else {
+        StringBuilder sb = new StringBuilder(end - pos);
+        for (int i = pos; i < end; ++i) {
+          if (!isSpace(buffer[i])) {
+            sb.append(buffer[i]);
+          } else if (!isSpace(buffer[i - 1])) {
+            sb.append(' ');
+          }
+        }
+        ret = sb.toString();
+      }
+      pos = lineEnd;
+      return ret;
+    }
+
+    private IllegalArgumentException invalidInt(int begin) {
+      int end = begin;
+      while (end < lineEnd && !isSpace(buffer[end])) {
+        end++;
+      }
+      return new IllegalArgumentException(String.format("str %s in line %d is invalid!",
+              new String(buffer, begin, end - begin), lineNumber));
+    }
+
+    private void skipSpace() {
+      while (pos < lineEnd && isSpace(buffer[pos])) {
+        pos++;
+      }
+    }
+
+    private static boolean isSpace(char c) {
+      return c <= ' ';
+    }
+  }
 }
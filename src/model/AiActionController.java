@@ -25,6 +25,20 @@ public interface AiActionController {
   int getRandomNumber(Collection<Integer> resultSet)
           throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Get a random number among candidates[from] to candidates[to - 1],
+   * each as likely as the others, in constant time.
+   *
+   * @param candidates array holding the candidates
+   * @param from       index of the first candidate
+   * @param to         index after the last candidate
+   * @return a random candidate
+   * @throws IllegalArgumentException candidates is null, or the range is empty or out of bounds
+   * @throws IllegalStateException    the instance doesn't use random
+   */
+  int getRandomNumber(int[] candidates, int from, int to)
+          throws IllegalArgumentException, IllegalStateException;
+
   /**
    * Get a random integer between the min integer(inclusive)
    * and the max integer(exclusive).
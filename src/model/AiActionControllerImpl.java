@@ -1,19 +1,39 @@
 package model;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Controller for AI actions.
+ * The state of a controller made from pre-defined actions, from a seed, or to act at random
+ * can be saved, so a game saved and restored goes on as it would have.
  */
 public class AiActionControllerImpl implements AiActionController {
 
+  //kinds of controllers, as saved
+  private static final byte RANDOM = 0;
+  private static final byte SEEDED = 1;
+  private static final byte PREDEFINED = 2;
+  //drawing from a generator given to it, which can't be saved
+  private static final byte GENERATOR = 3;
+  //a SplittableRandom made from a seed adds this to the seed for every int it draws
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
   private final List<AiActionParam> predefinedActionList;
   private int curPredefinedListIdx;
   private final Random random;
+  private final SplittableRandom splittableRandom;
   private final boolean usePredefinedAction;
+  private final byte kind;
+  private final long seed;
+  //ints drawn from the seeded generator
+  private long drawNumber;
 
   /**
    * Constructor.
@@ -24,10 +44,13 @@ public class AiActionControllerImpl implements AiActionController {
    */
   public AiActionControllerImpl(String... expectedAction) throws IllegalArgumentException {
     curPredefinedListIdx = -1;
+    seed = 0;
 
     if (expectedAction != null && expectedAction.length > 0) {
       usePredefinedAction = true;
+      kind = PREDEFINED;
       random = null;
+      splittableRandom = null;
       predefinedActionList = new ArrayList<>();
       for (int i = 0; i < expectedAction.length; ) {
         if (expectedAction[i].isEmpty()) {
@@ -50,9 +73,83 @@ public class AiActionControllerImpl implements AiActionController {
       }
     } else {
       usePredefinedAction = false;
+      kind = RANDOM;
       predefinedActionList = null;
       random = new Random();
+      splittableRandom = null;
+    }
+  }
+
+  /**
+   * Constructor for random actions drawn from a SplittableRandom of the given seed,
+   * which unlike a generator given to the controller, can be saved.
+   *
+   * @param seed seed of the generator, see deriveSeed
+   */
+  public AiActionControllerImpl(long seed) {
+    this(seed, 0);
+  }
+
+  private AiActionControllerImpl(long seed, long drawNumber) {
+    curPredefinedListIdx = -1;
+    usePredefinedAction = false;
+    kind = SEEDED;
+    predefinedActionList = null;
+    random = null;
+    this.seed = seed;
+    this.drawNumber = drawNumber;
+    //the same generator as one made from the seed after drawing drawNumber ints
+    splittableRandom = new SplittableRandom(seed + drawNumber * GOLDEN_GAMMA);
+  }
+
+  private AiActionControllerImpl(List<AiActionParam> predefinedActionList,
+                                 int curPredefinedListIdx) {
+    usePredefinedAction = true;
+    kind = PREDEFINED;
+    random = null;
+    splittableRandom = null;
+    seed = 0;
+    this.predefinedActionList = predefinedActionList;
+    this.curPredefinedListIdx = curPredefinedListIdx;
+  }
+
+  /**
+   * Constructor for random actions drawn from a SplittableRandom.
+   * Unlike java.util.Random, a SplittableRandom has no atomic state,
+   * so AI players on parallel threads don't contend with each other.
+   * The generator should only be used by this controller.
+   *
+   * @param splittableRandom the random generator
+   * @throws IllegalArgumentException splittableRandom is null
+   */
+  public AiActionControllerImpl(SplittableRandom splittableRandom)
+          throws IllegalArgumentException {
+    if (splittableRandom == null) {
+      throw new IllegalArgumentException("random generator is null");
     }
+    curPredefinedListIdx = -1;
+    usePredefinedAction = false;
+    kind = GENERATOR;
+    predefinedActionList = null;
+    random = null;
+    seed = 0;
+    this.splittableRandom = splittableRandom;
+  }
+
+  /**
+   * Derive the seed of a random stream from a master seed.
+   * Streams with different indexes are well apart even for consecutive master seeds.
+   *
+   * @param seed   master seed
+   * @param stream index of the stream
+   * @return seed of the stream
+   */
+  public static long deriveSeed(long seed, int stream) {
+    //SplitMix64 finalizer over the golden-ratio sequence
+    long z = seed + (stream + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
   }
 
   /**
@@ -73,14 +170,13 @@ public class AiActionControllerImpl implements AiActionController {
   @Override
   public PlayerActionType getRandomAction() {
     PlayerActionType at = null;
-    if (random != null) {
-      while (true) {
-        int r = random.nextInt(PlayerActionType.getLength());
-        at = PlayerActionType.values()[r];
-        if (at != PlayerActionType.ATTACK) {
-          break;
-        }
+    if (usesRandom()) {
+      //draw among the other actions, skipping ATTACK
+      int r = nextInt(PlayerActionType.getLength() - 1);
+      if (r >= PlayerActionType.ATTACK.ordinal()) {
+        r++;
       }
+      at = PlayerActionType.values()[r];
     }
     return at;
   }
@@ -91,10 +187,10 @@ public class AiActionControllerImpl implements AiActionController {
     if (resultSet == null || resultSet.size() == 0) {
       throw new IllegalArgumentException("invalid result set!");
     }
-    if (random == null) {
+    if (!usesRandom()) {
       throw new IllegalStateException("This AI controller doesn't use random!");
     }
-    var rand = random.nextInt(resultSet.size());
+    var rand = nextInt(resultSet.size());
     int ret = resultSet.iterator().next();
     for (var v : resultSet) {
       if (rand == 0) {
@@ -106,15 +202,52 @@ public class AiActionControllerImpl implements AiActionController {
     return ret;
   }
 
+  @Override
+  public int getRandomNumber(int[] candidates, int from, int to)
+          throws IllegalArgumentException, IllegalStateException {
+    if (candidates == null || from < 0 || to > candidates.length || from >= to) {
+      throw new IllegalArgumentException("invalid candidates!");
+    }
+    if (!usesRandom()) {
+      throw new IllegalStateException("This AI controller doesn't use random!");
+    }
+    return candidates[from + nextInt(to - from)];
+  }
+
   @Override
   public int getRandomNumberBetween(int min, int max) throws IllegalArgumentException {
     if (max <= min) {
       throw new IllegalArgumentException("invalid max!");
     }
-    if (random == null) {
+    if (!usesRandom()) {
       throw new IllegalStateException("This AI controller doesn't use random!");
     }
-    return min + random.nextInt(max - min);
+    return min + nextInt(max - min);
+  }
+
+  private boolean usesRandom() {
+    return random != null || splittableRandom != null;
+  }
+
+  private int nextInt(int bound) {
+    if (kind != SEEDED) {
+      return splittableRandom != null ? splittableRandom.nextInt(bound) : random.nextInt(bound);
+    }
+    //drawn as SplittableRandom.nextInt(bound) does, counting the ints drawn for saving
+    int r = nextSeededInt();
+    int m = bound - 1;
+    if ((bound & m) == 0) {
+      return r & m;
+    }
+    for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextSeededInt() >>> 1) {
+      //an int of the last, incomplete range of bound is drawn again
+    }
+    return r;
+  }
+
+  private int nextSeededInt() {
+    ++drawNumber;
+    return splittableRandom.nextInt();
   }
 
   /**
@@ -134,4 +267,101 @@ public class AiActionControllerImpl implements AiActionController {
     }
     return null;
   }
+
+  /**
+   * Whether the same state of the controller always gives the same actions,
+   * which is true for pre-defined and seeded actions.
+   *
+   * @return true if the actions are reproducible, false if not
+   */
+  boolean isReproducible() {
+    return kind == SEEDED || kind == PREDEFINED;
+  }
+
+  /**
+   * Get the controller of an AI player whose state can be saved.
+   *
+   * @param player the player
+   * @return the controller, null if the player isn't an AI player, or its controller
+   *         can't be saved
+   */
+  static AiActionControllerImpl savableControllerOf(Player player) {
+    if (!(player instanceof PlayerAiImpl)) {
+      return null;
+    }
+    AiActionController controller = ((PlayerAiImpl) player).getActionController();
+    if (controller instanceof ReplayAiActionController) {
+      controller = ((ReplayAiActionController) controller).getFallback();
+    }
+    return controller instanceof AiActionControllerImpl
+            && ((AiActionControllerImpl) controller).kind != GENERATOR
+            ? (AiActionControllerImpl) controller : null;
+  }
+
+  /**
+   * Save the state of the controller: its kind, then the seed and the number of ints drawn
+   * for a seeded controller, or the pre-defined actions and the index of the last one taken.
+   *
+   * @param out where the state is written
+   * @throws IOException writing fails
+   */
+  void saveState(DataOutputStream out) throws IOException {
+    out.writeByte(kind);
+    if (kind == SEEDED) {
+      out.writeLong(seed);
+      out.writeLong(drawNumber);
+    } else if (kind == PREDEFINED) {
+      out.writeInt(predefinedActionList.size());
+      for (AiActionParam action : predefinedActionList) {
+        out.writeInt(action.getActionType().ordinal());
+        out.writeInt(action.getActionParameter());
+      }
+      out.writeInt(curPredefinedListIdx);
+    }
+  }
+
+  /**
+   * Restore a controller saved by saveState.
+   *
+   * @param buffer where the state is read
+   * @return the controller
+   * @throws IllegalArgumentException the state is invalid
+   */
+  static AiActionControllerImpl loadState(ByteBuffer buffer) throws IllegalArgumentException {
+    byte savedKind = buffer.get();
+    switch (savedKind) {
+      case RANDOM:
+        return new AiActionControllerImpl();
+      case SEEDED: {
+        long savedSeed = buffer.getLong();
+        long savedDrawNumber = buffer.getLong();
+        if (savedDrawNumber < 0) {
+          throw new IllegalArgumentException("controller state is invalid");
+        }
+        return new AiActionControllerImpl(savedSeed, savedDrawNumber);
+      }
+      case PREDEFINED: {
+        int size = buffer.getInt();
+        //an action takes two ints
+        if (size < 1 || (long) size * 2 * Integer.BYTES > buffer.remaining()) {
+          throw new IllegalArgumentException("controller state is invalid");
+        }
+        List<AiActionParam> actions = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+          int type = buffer.getInt();
+          if (type < 0 || type >= PlayerActionType.getLength()) {
+            throw new IllegalArgumentException("controller state is invalid");
+          }
+          actions.add(new AiActionParamImpl(PlayerActionType.values()[type], buffer.getInt()));
+        }
+        int idx = buffer.getInt();
+        if (idx < -1 || idx >= size) {
+          throw new IllegalArgumentException("controller state is invalid");
+        }
+        return new AiActionControllerImpl(actions, idx);
+      }
+      default:
+        throw new IllegalArgumentException("controller state is invalid");
+    }
+  }
 }
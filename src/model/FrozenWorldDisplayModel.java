@@ -0,0 +1,122 @@
+package model;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A copy of what a view displays of a world, taken at one moment and never changed afterwards,
+ * so it can be read on the event dispatch thread while another thread changes the world.
+ * Only the names and rooms of the players and the target character's room are copied,
+ * the rest is read from the topology, which is shared since it never changes.
+ */
+public final class FrozenWorldDisplayModel implements WorldDisplayModel {
+
+  private final WorldTopology topology;
+  private final String[] playerNames;
+  private final int[] playerRooms;
+  private final int targetCharacterRoomIdx;
+
+  /**
+   * Constructor, the model is read at once, on the thread changing it.
+   *
+   * @param model the model to copy
+   * @throws IllegalArgumentException model is null, or has no topology
+   */
+  public FrozenWorldDisplayModel(WorldDisplayModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("model is null");
+    }
+    topology = model.getTopology();
+    if (topology == null) {
+      throw new IllegalArgumentException("model has no topology");
+    }
+    playerNames = new String[model.getPlayerNumber()];
+    playerRooms = new int[playerNames.length];
+    for (int i = 0; i < playerNames.length; ++i) {
+      playerNames[i] = model.getPlayerName(i);
+      playerRooms[i] = model.getPlayerRoomIdx(i);
+    }
+    targetCharacterRoomIdx = model.getTargetCharacterRoomIdx();
+  }
+
+  private static void checkIndex(int idx, int bound, String what) {
+    if (idx < 0 || idx >= bound) {
+      throw new IllegalArgumentException(what + " index out of range");
+    }
+  }
+
+  @Override
+  public WorldTopology getTopology() {
+    return topology;
+  }
+
+  @Override
+  public int getPlayerNumber() {
+    return playerNames.length;
+  }
+
+  @Override
+  public String getPlayerName(int playerIdx) {
+    checkIndex(playerIdx, playerNames.length, "player");
+    return playerNames[playerIdx];
+  }
+
+  @Override
+  public int getTargetCharacterRoomIdx() {
+    return targetCharacterRoomIdx;
+  }
+
+  @Override
+  public int getItemAttack(int itemIdx) {
+    checkIndex(itemIdx, topology.getItemNumber(), "item");
+    return topology.getItem(itemIdx).getAttack();
+  }
+
+  @Override
+  public String getItemName(int itemIdx) {
+    checkIndex(itemIdx, topology.getItemNumber(), "item");
+    return topology.getItem(itemIdx).getName();
+  }
+
+  @Override
+  public int getPlayerRoomIdx(int playerIdx) {
+    checkIndex(playerIdx, playerRooms.length, "player");
+    return playerRooms[playerIdx];
+  }
+
+  @Override
+  public String getRoomName(int roomIdx) throws IllegalArgumentException {
+    checkIndex(roomIdx, topology.getRoomNumber(), "room");
+    return topology.getRoom(roomIdx).getName();
+  }
+
+  @Override
+  public int getRoomNumber() {
+    return topology.getRoomNumber();
+  }
+
+  @Override
+  public int getItemNumber() {
+    return topology.getItemNumber();
+  }
+
+  @Override
+  public int getWidth() {
+    return topology.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return topology.getHeight();
+  }
+
+  @Override
+  public String getName() {
+    return topology.getName();
+  }
+
+  @Override
+  public BufferedImage renderMapTile(int imgScale, int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return MapRenderer.renderTile(topology, imgScale, x, y, width, height);
+  }
+}
@@ -3,21 +3,11 @@ package model;
 /**
  * Represents items of the game. Unable to move(for now)
  * Implements Character interface.
+ * Items are immutable, so every game built from a topology shares its items,
+ * and each game keeps which items are used.
  */
 public interface Item {
 
-  /**
-   * Mark the item as used.
-   */
-  void setUsed();
-
-  /**
-   * Check if an item has been used by a player in an attack.
-   *
-   * @return true if the item has been used, false if not
-   */
-  boolean hasBeenUsed();
-
   /**
    * Get the index of the item.
    *
@@ -11,7 +11,6 @@ public class ItemImpl implements Item {
   private final String name;
   private final int attack;
   private final int roomIdx;
-  private boolean used;
 
   /**
    * Constructor of the Item class.
@@ -40,17 +39,6 @@ public class ItemImpl implements Item {
     this.name = name.trim();
     this.attack = attack;
     this.roomIdx = roomIdx;
-    this.used = false;
-  }
-
-  @Override
-  public void setUsed() {
-    this.used = true;
-  }
-
-  @Override
-  public boolean hasBeenUsed() {
-    return used;
   }
 
   /**
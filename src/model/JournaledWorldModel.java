@@ -0,0 +1,650 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A world model recording every change applied to it in a journal, so a game is not lost
+ * when the application dies: recover rebuilds the model by replaying the journal.
+ * Only changes that succeed are recorded, as soon as they are applied, and recording never
+ * waits for the disk, see WorldJournalImpl.
+ * A reset or a snapshot loaded replaces the whole state, so the journal starts over from it
+ * and holds no more than the current game.
+ * Queries go straight to the model.
+ *
+ * <p>A record is a byte for its type, then big-endian ints.
+ * A reset holds the content hash of the config, so a journal isn't replayed into another world.
+ * The players are recorded with the state of the controller of every AI player,
+ * see AiActionControllerImpl.saveState, so AI players are rebuilt with their own controllers.
+ * AI actions are recorded as the model returns them: pre-defined and seeded AI players
+ * replay them through their controllers, which draw on as they did, and every action is
+ * checked against the journal, while AI players acting at random take the recorded actions.
+ * A string is its length in UTF-8 bytes followed by the bytes.
+ */
+public class JournaledWorldModel implements WorldModel {
+
+  private static final byte RESET = 0;
+  private static final byte SET_MAX_TURN = 1;
+  private static final byte SET_MAX_ITEM_CARRIED = 2;
+  private static final byte SET_PLAYERS = 3;
+  private static final byte HUMAN_MOVE = 4;
+  private static final byte HUMAN_PICKUP_ITEM = 5;
+  private static final byte HUMAN_LOOK_AROUND = 6;
+  private static final byte HUMAN_ATTACK = 7;
+  private static final byte HUMAN_MOVE_PET = 8;
+  private static final byte AI_ACTION = 9;
+  private static final byte SNAPSHOT = 10;
+
+  private final WorldModel model;
+  private final WorldJournal journal;
+
+  /**
+   * Constructor, changes from now on are recorded.
+   * The journal must be empty, or record how the model came to its current state.
+   *
+   * @param model   the model changed
+   * @param journal where the changes are recorded
+   * @throws IllegalArgumentException any parameter is null
+   */
+  public JournaledWorldModel(WorldModel model, WorldJournal journal)
+          throws IllegalArgumentException {
+    if (model == null || journal == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    this.model = model;
+    this.journal = journal;
+  }
+
+  /**
+   * Rebuild a model by replaying a journal, then keep recording in the same journal.
+   * Everything recorded before the last reset or snapshot loaded is skipped,
+   * since they replace the whole state.
+   * AI players go on with their own controllers after the replay,
+   * a new random generator for those acting at random without a seed.
+   * AI players acting at random after a snapshot can only be replayed into a WorldModelImpl.
+   *
+   * @param model a model of the config current when the journal was last written,
+   *              it is reset before the replay
+   * @param path  path of the journal, which is created if it doesn't exist
+   * @return the model, recording in the journal
+   * @throws IllegalArgumentException model or path is null, or the file isn't a journal
+   * @throws IllegalStateException    the journal doesn't match the config
+   * @throws UncheckedIOException     reading or opening the journal fails
+   */
+  public static JournaledWorldModel recover(WorldModel model, Path path)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException {
+    if (model == null || path == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    //the records are read twice, so they are never all held at once
+    long[] begin = {0};
+    long[] recordIdx = {0};
+    if (Files.exists(path)) {
+      WorldJournalImpl.forEachRecord(path, record -> {
+        if (record.length > 0 && (record[0] == RESET || record[0] == SNAPSHOT)) {
+          begin[0] = recordIdx[0];
+        }
+        ++recordIdx[0];
+      });
+    }
+    model.reinitializeWithCurrentConfig();
+    List<ReplayAiActionController> controllers = new ArrayList<>();
+    if (Files.exists(path)) {
+      recordIdx[0] = 0;
+      WorldJournalImpl.forEachRecord(path, record -> {
+        if (recordIdx[0]++ < begin[0]) {
+          return;
+        }
+        try {
+          replay(model, ByteBuffer.wrap(record), controllers);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+          throw new IllegalArgumentException("journal record is invalid");
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+          throw new IllegalStateException(
+                  "journal doesn't match the config: " + ex.getMessage());
+        }
+      });
+    }
+    return new JournaledWorldModel(model, new WorldJournalImpl(path));
+  }
+
+  private static void replay(WorldModel model, ByteBuffer record,
+                             List<ReplayAiActionController> controllers) {
+    byte type = record.get();
+    switch (type) {
+      case RESET: {
+        byte[] hash = new byte[record.getInt()];
+        record.get(hash);
+        if (!contentHash(model).equals(new String(hash, StandardCharsets.UTF_8))) {
+          throw new IllegalStateException("journal is of another world");
+        }
+        model.reinitializeWithCurrentConfig();
+        controllers.clear();
+      }
+      break;
+      case SET_MAX_TURN:
+        model.setMaxTurn(record.getInt());
+        break;
+      case SET_MAX_ITEM_CARRIED:
+        model.setMaxItemCarried(record.getInt());
+        break;
+      case SET_PLAYERS: {
+        int playerNum = record.getInt();
+        List<String> names = new ArrayList<>(playerNum);
+        List<Integer> rooms = new ArrayList<>(playerNum);
+        List<Boolean> isAi = new ArrayList<>(playerNum);
+        for (int i = 0; i < playerNum; ++i) {
+          byte[] name = new byte[record.getInt()];
+          record.get(name);
+          names.add(new String(name, StandardCharsets.UTF_8));
+          rooms.add(record.getInt());
+          isAi.add(record.get() != 0);
+        }
+        controllers.clear();
+        List<Player> players = new ArrayList<>(playerNum);
+        for (int i = 0; i < playerNum; ++i) {
+          if (isAi.get(i)) {
+            AiActionController controller =
+                    replayController(AiActionControllerImpl.loadState(record), controllers);
+            players.add(new PlayerAiImpl(names.get(i), rooms.get(i), controller));
+          } else {
+            controllers.add(null);
+            players.add(new PlayerHumanImpl(names.get(i), rooms.get(i)));
+          }
+        }
+        model.setPlayers(players);
+      }
+      break;
+      case HUMAN_MOVE:
+        model.curHumanPlayerMove(record.getInt());
+        break;
+      case HUMAN_PICKUP_ITEM:
+        model.curHumanPlayerPickupItem(record.getInt());
+        break;
+      case HUMAN_LOOK_AROUND:
+        model.curHumanPlayerDisplayNeighborRooms();
+        break;
+      case HUMAN_ATTACK:
+        model.curHumanPlayerAttackTargetCharacter(record.getInt());
+        break;
+      case HUMAN_MOVE_PET:
+        model.curHumanPlayerMovePet(record.getInt());
+        break;
+      case AI_ACTION: {
+        int playerIdx = record.getInt();
+        AiActionParam action = new AiActionParamImpl(
+                PlayerActionType.values()[record.getInt()], record.getInt());
+        if (playerIdx != model.getCurPlayerIdx() || model.getCurPlayerType() != PlayerType.AI) {
+          throw new IllegalStateException("player isn't the current AI player");
+        }
+        //an attack is decided by the state alone, so only the other actions are replayed,
+        //and only to players acting at random, the others decide as they did
+        if (action.getActionType() != PlayerActionType.ATTACK
+                && controllers.get(playerIdx) != null) {
+          controllers.get(playerIdx).addAction(action);
+        }
+        AiActionParam replayed = model.aiPlayerDoAction();
+        if (replayed.getActionType() != action.getActionType()
+                || replayed.getActionParameter() != action.getActionParameter()) {
+          throw new IllegalStateException("AI action differs");
+        }
+      }
+      break;
+      case SNAPSHOT: {
+        byte[] snapshot = new byte[record.remaining()];
+        record.get(snapshot);
+        controllers.clear();
+        if (model instanceof WorldModelImpl) {
+          Map<Integer, ReplayAiActionController> created = new HashMap<>();
+          ((WorldModelImpl) model).loadSnapshot(snapshot, (playerIdx, restored) -> {
+            if (restored.isReproducible()) {
+              return restored;
+            }
+            return created.computeIfAbsent(playerIdx,
+                    k -> new ReplayAiActionController(restored));
+          });
+          for (int i = 0; i < model.getPlayerNumber(); ++i) {
+            controllers.add(created.get(i));
+          }
+        } else {
+          model.loadSnapshot(snapshot);
+          for (int i = 0; i < model.getPlayerNumber(); ++i) {
+            controllers.add(null);
+          }
+        }
+      }
+      break;
+      default:
+        throw new IllegalArgumentException("unknown journal record " + type);
+    }
+  }
+
+  /**
+   * Get the controller an AI player replays with.
+   * A controller acting at random takes the recorded actions, the others decide as they did.
+   *
+   * @param restored    the controller restored from the journal
+   * @param controllers where the controller taking the recorded actions is added,
+   *                    null if there is none
+   * @return the controller
+   */
+  private static AiActionController replayController(AiActionControllerImpl restored,
+                                                     List<ReplayAiActionController> controllers) {
+    if (restored.isReproducible()) {
+      controllers.add(null);
+      return restored;
+    }
+    ReplayAiActionController controller = new ReplayAiActionController(restored);
+    controllers.add(controller);
+    return controller;
+  }
+
+  /**
+   * Wait until every change recorded so far is synced to the disk.
+   *
+   * @throws UncheckedIOException writing the journal failed
+   */
+  public void flush() throws UncheckedIOException {
+    journal.flush();
+  }
+
+  /**
+   * Sync every change recorded so far, then close the journal.
+   * The model can't be changed afterwards.
+   *
+   * @throws UncheckedIOException writing or closing the journal failed
+   */
+  public void close() throws UncheckedIOException {
+    journal.close();
+  }
+
+  private static String contentHash(WorldModel model) {
+    return model.getTopology().getContentHash();
+  }
+
+  private void recordReset() {
+    byte[] hash = contentHash(model).getBytes(StandardCharsets.UTF_8);
+    //a reset replaces the whole state, so the journal starts over from it
+    journal.restart(ByteBuffer.allocate(1 + Integer.BYTES + hash.length).put(RESET)
+            .putInt(hash.length).put(hash).array());
+  }
+
+  private void record(byte type, int... values) {
+    ByteBuffer record = ByteBuffer.allocate(1 + values.length * Integer.BYTES).put(type);
+    for (int value : values) {
+      record.putInt(value);
+    }
+    journal.append(record.array());
+  }
+
+  private void recordPlayers(List<String> names, List<Integer> rooms,
+                             List<AiActionControllerImpl> controllers) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(SET_PLAYERS);
+      out.writeInt(names.size());
+      for (int i = 0; i < names.size(); ++i) {
+        byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        out.writeInt(rooms.get(i));
+        out.writeByte(controllers.get(i) == null ? 0 : 1);
+      }
+      for (AiActionControllerImpl controller : controllers) {
+        if (controller != null) {
+          controller.saveState(out);
+        }
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    journal.append(bytes.toByteArray());
+  }
+
+  //the controllers the model gives to AI players, null for human players
+  private static List<AiActionControllerImpl> newControllers(List<Boolean> isAi,
+                                                             Long seed) {
+    List<AiActionControllerImpl> controllers = new ArrayList<>(isAi.size());
+    for (int i = 0; i < isAi.size(); ++i) {
+      if (!isAi.get(i)) {
+        controllers.add(null);
+      } else if (seed == null) {
+        controllers.add(new AiActionControllerImpl());
+      } else {
+        controllers.add(new AiActionControllerImpl(AiActionControllerImpl.deriveSeed(seed, i)));
+      }
+    }
+    return controllers;
+  }
+
+  @Override
+  public void reinitializeWithCurrentConfig() throws IllegalStateException {
+    model.reinitializeWithCurrentConfig();
+    recordReset();
+  }
+
+  @Override
+  public void reinitializeWithNewConfig(Readable readable) throws IllegalArgumentException {
+    model.reinitializeWithNewConfig(readable);
+    //the journal is replayed against the config current when it was last written
+    recordReset();
+  }
+
+  @Override
+  public void setPlayers(List<String> name, List<Integer> roomIdx, List<Boolean> isAi)
+          throws IllegalArgumentException {
+    model.setPlayers(name, roomIdx, isAi);
+    recordPlayers(name, roomIdx, newControllers(isAi, null));
+  }
+
+  @Override
+  public void setPlayers(List<String> name, List<Integer> roomIdx, List<Boolean> isAi, long seed)
+          throws IllegalArgumentException {
+    model.setPlayers(name, roomIdx, isAi, seed);
+    recordPlayers(name, roomIdx, newControllers(isAi, seed));
+  }
+
+  /**
+   * Set the players' information with players created.
+   * Every AI player must have a controller whose state can be journaled,
+   * so it is rebuilt on recovery.
+   *
+   * @param players pre-created players
+   * @throws IllegalArgumentException players is null or empty, or contains null,
+   *                                  or any room's index is out of range,
+   *                                  or the controller of an AI player can't be journaled
+   */
+  @Override
+  public void setPlayers(List<Player> players) throws IllegalArgumentException {
+    if (players == null) {
+      throw new IllegalArgumentException("players is null");
+    }
+    List<String> names = new ArrayList<>(players.size());
+    List<Integer> rooms = new ArrayList<>(players.size());
+    List<AiActionControllerImpl> controllers = new ArrayList<>(players.size());
+    for (Player player : players) {
+      if (player == null) {
+        throw new IllegalArgumentException("player is null");
+      }
+      AiActionControllerImpl controller = null;
+      if (player.getPlayerType() == PlayerType.AI) {
+        controller = AiActionControllerImpl.savableControllerOf(player);
+        if (controller == null) {
+          throw new IllegalArgumentException(String.format(
+                  "controller of AI player %s can't be journaled", player.getName()));
+        }
+      }
+      names.add(player.getName());
+      rooms.add(player.getRoomIdx());
+      controllers.add(controller);
+    }
+    model.setPlayers(players);
+    //setting the players draws nothing, so the states recorded are the ones replay starts from
+    recordPlayers(names, rooms, controllers);
+  }
+
+  @Override
+  public void setMaxTurn(int turn) throws IllegalArgumentException {
+    model.setMaxTurn(turn);
+    record(SET_MAX_TURN, turn);
+  }
+
+  @Override
+  public void setMaxItemCarried(int maxItemCarried) throws IllegalArgumentException {
+    model.setMaxItemCarried(maxItemCarried);
+    record(SET_MAX_ITEM_CARRIED, maxItemCarried);
+  }
+
+  @Override
+  public void curHumanPlayerMovePet(int roomIdx)
+          throws IllegalStateException, IllegalArgumentException {
+    model.curHumanPlayerMovePet(roomIdx);
+    record(HUMAN_MOVE_PET, roomIdx);
+  }
+
+  @Override
+  public void curHumanPlayerAttackTargetCharacter(int itemIdx)
+          throws IllegalStateException, IllegalArgumentException {
+    model.curHumanPlayerAttackTargetCharacter(itemIdx);
+    record(HUMAN_ATTACK, itemIdx);
+  }
+
+  @Override
+  public AiActionParam aiPlayerDoAction() throws IllegalStateException {
+    int playerIdx = model.getCurPlayerIdx();
+    AiActionParam action = model.aiPlayerDoAction();
+    record(AI_ACTION, playerIdx, action.getActionType().ordinal(), action.getActionParameter());
+    return action;
+  }
+
+  @Override
+  public void curHumanPlayerMove(int roomIdx)
+          throws IllegalArgumentException, IllegalStateException {
+    model.curHumanPlayerMove(roomIdx);
+    record(HUMAN_MOVE, roomIdx);
+  }
+
+  @Override
+  public void curHumanPlayerDisplayNeighborRooms() throws IllegalStateException {
+    model.curHumanPlayerDisplayNeighborRooms();
+    record(HUMAN_LOOK_AROUND);
+  }
+
+  @Override
+  public void curHumanPlayerPickupItem(int itemIdx)
+          throws IllegalArgumentException, IllegalStateException {
+    model.curHumanPlayerPickupItem(itemIdx);
+    record(HUMAN_PICKUP_ITEM, itemIdx);
+  }
+
+  @Override
+  public void outputMapImage(String imgFilePath, int imgScale)
+          throws IllegalArgumentException, UncheckedIOException {
+    model.outputMapImage(imgFilePath, imgScale);
+  }
+
+  @Override
+  public BufferedImage renderMapImage(int imgScale) throws IllegalArgumentException {
+    return model.renderMapImage(imgScale);
+  }
+
+  @Override
+  public byte[] saveSnapshot() throws IllegalStateException {
+    return model.saveSnapshot();
+  }
+
+  @Override
+  public void loadSnapshot(byte[] snapshot) throws IllegalArgumentException {
+    model.loadSnapshot(snapshot);
+    journal.restart(ByteBuffer.allocate(1 + snapshot.length).put(SNAPSHOT).put(snapshot)
+            .array());
+  }
+
+  @Override
+  public int getPlayerNumber() {
+    return model.getPlayerNumber();
+  }
+
+  @Override
+  public String getPlayerName(int playerIdx) {
+    return model.getPlayerName(playerIdx);
+  }
+
+  @Override
+  public int getTargetCharacterRoomIdx() {
+    return model.getTargetCharacterRoomIdx();
+  }
+
+  @Override
+  public int getTargetCharacterHealth() {
+    return model.getTargetCharacterHealth();
+  }
+
+  @Override
+  public int getCurPlayerIdx() {
+    return model.getCurPlayerIdx();
+  }
+
+  @Override
+  public List<Integer> getCurPlayerCarryItems() {
+    return model.getCurPlayerCarryItems();
+  }
+
+  @Override
+  public int getItemAttack(int itemIdx) {
+    return model.getItemAttack(itemIdx);
+  }
+
+  @Override
+  public String getItemName(int itemIdx) {
+    return model.getItemName(itemIdx);
+  }
+
+  @Override
+  public int getPlayerRoomIdx(int playerIdx) {
+    return model.getPlayerRoomIdx(playerIdx);
+  }
+
+  @Override
+  public int[] getRoomLeftTopCorner(int roomIdx) {
+    return model.getRoomLeftTopCorner(roomIdx);
+  }
+
+  @Override
+  public int[] getRoomRightBottomCorner(int roomIdx) {
+    return model.getRoomRightBottomCorner(roomIdx);
+  }
+
+  @Override
+  public String getCurTurnInfo() throws IllegalStateException {
+    return model.getCurTurnInfo();
+  }
+
+  @Override
+  public int getMaxTurn() {
+    return model.getMaxTurn();
+  }
+
+  @Override
+  public int getMaxItemNumCarried() {
+    return model.getMaxItemNumCarried();
+  }
+
+  @Override
+  public String getCurPlayerName() {
+    return model.getCurPlayerName();
+  }
+
+  @Override
+  public PlayerType getCurPlayerType() {
+    return model.getCurPlayerType();
+  }
+
+  @Override
+  public int getCurPlayerRoomIdx() {
+    return model.getCurPlayerRoomIdx();
+  }
+
+  @Override
+  public int getCurPlayerItemNum() {
+    return model.getCurPlayerItemNum();
+  }
+
+  @Override
+  public String getRoomName(int roomIdx) throws IllegalArgumentException {
+    return model.getRoomName(roomIdx);
+  }
+
+  @Override
+  public String printPlayerInfo(int playerIdx) throws IllegalArgumentException {
+    return model.printPlayerInfo(playerIdx);
+  }
+
+  @Override
+  public String getLastTurnMsg() {
+    return model.getLastTurnMsg();
+  }
+
+  @Override
+  public String getGameResultMsg() throws IllegalStateException {
+    return model.getGameResultMsg();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return model.isGameOver();
+  }
+
+  @Override
+  public int getRoomNumber() {
+    return model.getRoomNumber();
+  }
+
+  @Override
+  public int getItemNumber() {
+    return model.getItemNumber();
+  }
+
+  @Override
+  public List<Integer> getRoomNeighbors(int roomIdx) throws IllegalArgumentException {
+    return model.getRoomNeighbors(roomIdx);
+  }
+
+  @Override
+  public int getRoomNeighborNumber(int roomIdx) throws IllegalArgumentException {
+    return model.getRoomNeighborNumber(roomIdx);
+  }
+
+  @Override
+  public int getRoomNeighbor(int roomIdx, int order) throws IllegalArgumentException {
+    return model.getRoomNeighbor(roomIdx, order);
+  }
+
+  @Override
+  public List<Integer> getRoomItems(int roomIdx) throws IllegalArgumentException {
+    return model.getRoomItems(roomIdx);
+  }
+
+  @Override
+  public String printRoomInfo(int roomIdx) throws IllegalArgumentException {
+    return model.printRoomInfo(roomIdx);
+  }
+
+  @Override
+  public int getWidth() {
+    return model.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return model.getHeight();
+  }
+
+  @Override
+  public String getName() {
+    return model.getName();
+  }
+
+  @Override
+  public WorldTopology getTopology() {
+    return model.getTopology();
+  }
+
+  @Override
+  public BufferedImage renderMapTile(int imgScale, int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return model.renderMapTile(imgScale, x, y, width, height);
+  }
+}
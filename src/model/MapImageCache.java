@@ -0,0 +1,163 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Keeps maps recently drawn, keyed by the hash of their topology's config and the scale.
+ * Starting a game again on the same world reuses the map instead of drawing every room again.
+ * When the cache is full, the map used least recently is dropped.
+ * Maps can also be kept as png files in a directory, so they outlive the application.
+ * Big maps are drawn on several cores, see MapRenderer.
+ * A map in the cache is shared by everyone asking for it, so it must not be drawn on.
+ * All methods are safe to call from several threads.
+ */
+public class MapImageCache {
+
+  private static final int DEFAULT_CAPACITY = 4;
+  private static final MapImageCache instance = new MapImageCache(DEFAULT_CAPACITY);
+
+  private final int capacity;
+  private final int parallelism;
+  private final Map<String, BufferedImage> images;
+  private Path diskDirectory;
+
+  /**
+   * Get the instance of MapImageCache shared by the application.
+   *
+   * @return the instance of MapImageCache
+   */
+  public static MapImageCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Constructor, maps are only kept in memory, and drawn with every core.
+   *
+   * @param capacity max number of maps kept in memory
+   * @throws IllegalArgumentException capacity is less than one
+   */
+  public MapImageCache(int capacity) throws IllegalArgumentException {
+    this(capacity, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor, maps are only kept in memory.
+   *
+   * @param capacity    max number of maps kept in memory
+   * @param parallelism the number of threads drawing a map
+   * @throws IllegalArgumentException capacity or parallelism is less than one
+   */
+  public MapImageCache(int capacity, int parallelism) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity less than one");
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism less than one");
+    }
+    this.capacity = capacity;
+    this.parallelism = parallelism;
+    //access order, so the eldest entry is the one used least recently
+    this.images = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+        return size() > MapImageCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Set the directory where maps are also kept as png files.
+   * A map missing in memory is read from there before being drawn.
+   *
+   * @param diskDirectory the directory, null to keep maps only in memory
+   * @throws UncheckedIOException the directory can't be created
+   */
+  public void setDiskDirectory(Path diskDirectory) throws UncheckedIOException {
+    if (diskDirectory != null) {
+      try {
+        Files.createDirectories(diskDirectory);
+      } catch (IOException ioe) {
+        throw new UncheckedIOException(ioe);
+      }
+    }
+    synchronized (this) {
+      this.diskDirectory = diskDirectory;
+    }
+  }
+
+  /**
+   * Get the map of a topology, drawing it only if it isn't in the cache.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes, expect an even integer
+   * @return the map, which must not be drawn on
+   * @throws IllegalArgumentException topology is null, or imgScale is less than two,
+   *                                  or isn't even
+   * @throws UncheckedIOException     a map file can't be read or written
+   */
+  public BufferedImage getImage(WorldTopology topology, int imgScale)
+          throws IllegalArgumentException, UncheckedIOException {
+    if (topology == null) {
+      throw new IllegalArgumentException("topology is null");
+    }
+    if (imgScale <= 1) {
+      throw new IllegalArgumentException("imgScale should be at least 2");
+    }
+    if (imgScale % 2 != 0) {
+      throw new IllegalArgumentException("imgScale should be even");
+    }
+    String key = topology.getContentHash() + "-" + imgScale;
+    Path directory;
+    synchronized (this) {
+      BufferedImage image = images.get(key);
+      if (image != null) {
+        return image;
+      }
+      directory = diskDirectory;
+    }
+
+    //read or draw without holding the lock
+    BufferedImage image = null;
+    Path file = directory == null ? null : directory.resolve(key + ".png");
+    try {
+      if (file != null && Files.exists(file)) {
+        image = ImageIO.read(file.toFile());
+      }
+      if (image == null) {
+        image = MapRenderer.render(topology, imgScale, parallelism);
+        if (file != null) {
+          ImageIO.write(image, "png", file.toFile());
+        }
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    synchronized (this) {
+      BufferedImage cached = images.putIfAbsent(key, image);
+      return cached == null ? image : cached;
+    }
+  }
+
+  /**
+   * Get the number of maps in memory.
+   *
+   * @return the number of maps in memory
+   */
+  public synchronized int getSize() {
+    return images.size();
+  }
+
+  /**
+   * Remove every map from memory, files on disk are kept.
+   */
+  public synchronized void clear() {
+    images.clear();
+  }
+}
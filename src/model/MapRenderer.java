@@ -0,0 +1,305 @@
+package model;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws the map of a topology: the walls of every room, with its name in the middle.
+ * A region of the map can be drawn alone, with exactly the pixels it has in the whole map,
+ * so a huge map can be shown tile by tile without ever being drawn as a whole,
+ * and a whole map can be drawn in bands on several cores.
+ */
+final class MapRenderer {
+
+  private static final String FONT_NAME = "Microsoft YaHei";
+  private static final int BAND_HEIGHT = 256;
+  private static final int NAME_PADDING_CAPACITY = 16;
+
+  //fonts are immutable, so one font of every size is shared by all renders
+  private static final Map<Integer, Font> fonts = new ConcurrentHashMap<>();
+
+  //how far, in units of the world, a room's name reaches out of the room,
+  //keyed by the topology's content hash and the scale, for the maps drawn most recently,
+  //access order, so the eldest entry is the one used least recently, guarded by itself
+  private static final Map<String, Integer> namePaddings =
+          new LinkedHashMap<>(NAME_PADDING_CAPACITY * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+              return size() > NAME_PADDING_CAPACITY;
+            }
+          };
+
+  private MapRenderer() {
+  }
+
+  /**
+   * Get the width of the whole map in pixels.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes
+   * @return the width of the map
+   */
+  static int getMapWidth(WorldTopology topology, int imgScale) {
+    return imgScale * topology.getWidth() + getHalfUnit(imgScale) * 2;
+  }
+
+  /**
+   * Get the height of the whole map in pixels.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes
+   * @return the height of the map
+   */
+  static int getMapHeight(WorldTopology topology, int imgScale) {
+    return imgScale * topology.getHeight() + getHalfUnit(imgScale) * 2;
+  }
+
+  /**
+   * Draw the map of a topology.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes, expect an even integer
+   * @return the map
+   */
+  static BufferedImage render(WorldTopology topology, int imgScale) {
+    BufferedImage img = new BufferedImage(getMapWidth(topology, imgScale),
+            getMapHeight(topology, imgScale), BufferedImage.TYPE_4BYTE_ABGR);
+    Graphics2D graphics2D = createGraphics(img, imgScale);
+    FontMetrics metrics = graphics2D.getFontMetrics();
+    for (int i = 0; i < topology.getRoomNumber(); ++i) {
+      drawRoom(graphics2D, metrics, topology.getRoom(i), imgScale);
+    }
+    graphics2D.dispose();
+    return img;
+  }
+
+  /**
+   * Draw the map of a topology on several threads.
+   * The map is cut into bands of rows, and every band is drawn straight into its part of
+   * the map by a worker, with only the rooms reaching into the band,
+   * so the pixels are the same as drawing on one thread.
+   *
+   * @param topology    the topology to draw
+   * @param imgScale    how many pixels a unit of the world takes, expect an even integer
+   * @param parallelism the number of worker threads
+   * @return the map
+   */
+  static BufferedImage render(WorldTopology topology, int imgScale, int parallelism) {
+    int height = getMapHeight(topology, imgScale);
+    int bandNumber = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+    if (parallelism <= 1 || bandNumber < 2) {
+      return render(topology, imgScale);
+    }
+    BufferedImage img = new BufferedImage(getMapWidth(topology, imgScale), height,
+            BufferedImage.TYPE_4BYTE_ABGR);
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new BandRangeTask(topology, imgScale, img, 0, bandNumber));
+    } finally {
+      pool.shutdown();
+    }
+    return img;
+  }
+
+  /**
+   * Draw a tile of the map of a topology, see WorldDisplayModel.renderMapTile.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes, expect an even integer
+   * @param x        left of the tile in pixels of the whole map
+   * @param y        top of the tile in pixels of the whole map
+   * @param width    width of the tile in pixels
+   * @param height   height of the tile in pixels
+   * @return the tile
+   * @throws IllegalArgumentException imgScale is less than two or isn't even,
+   *                                  or the position is negative, or the size is less than one
+   */
+  static BufferedImage renderTile(WorldTopology topology, int imgScale, int x, int y,
+                                  int width, int height) throws IllegalArgumentException {
+    if (imgScale <= 1) {
+      throw new IllegalArgumentException("imgScale should be at least 2");
+    }
+    if (imgScale % 2 != 0) {
+      throw new IllegalArgumentException("imgScale should be even");
+    }
+    if (x < 0 || y < 0) {
+      throw new IllegalArgumentException("tile position is negative");
+    }
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("tile size less than one");
+    }
+    return renderRegion(topology, imgScale, x, y, width, height);
+  }
+
+  /**
+   * Draw a region of the map of a topology, only the rooms reaching into the region are drawn.
+   *
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes, expect an even integer
+   * @param x        left of the region in pixels of the whole map
+   * @param y        top of the region in pixels of the whole map
+   * @param width    width of the region in pixels
+   * @param height   height of the region in pixels
+   * @return the region of the map
+   */
+  static BufferedImage renderRegion(WorldTopology topology, int imgScale,
+                                    int x, int y, int width, int height) {
+    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+    drawRegion(img, topology, imgScale, x, y);
+    return img;
+  }
+
+  /**
+   * Draw a region of the map onto an image of the region's size.
+   *
+   * @param img      the image to draw on, its size is the region's
+   * @param topology the topology to draw
+   * @param imgScale how many pixels a unit of the world takes
+   * @param x        left of the region in pixels of the whole map
+   * @param y        top of the region in pixels of the whole map
+   */
+  private static void drawRegion(BufferedImage img, WorldTopology topology, int imgScale,
+                                 int x, int y) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    Graphics2D graphics2D = createGraphics(img, imgScale);
+    FontMetrics metrics = graphics2D.getFontMetrics();
+    graphics2D.translate(-x, -y);
+
+    //a room's pixels start half a unit after its left top corner,
+    //and end a unit and a half after its right bottom corner
+    int padding = getNamePadding(topology, imgScale, metrics) + 2;
+    int top = y / imgScale - padding;
+    int left = x / imgScale - padding;
+    int bottom = (y + height) / imgScale + padding;
+    int right = (x + width) / imgScale + padding;
+    //rooms are drawn in the same order as for the whole map, so overlapping walls match
+    for (int i : findRooms(topology, top, left, bottom, right)) {
+      drawRoom(graphics2D, metrics, topology.getRoom(i), imgScale);
+    }
+    graphics2D.dispose();
+  }
+
+  private static int[] findRooms(WorldTopology topology, int top, int left,
+                                 int bottom, int right) {
+    if (topology instanceof WorldTopologyImpl) {
+      return ((WorldTopologyImpl) topology).getRoomIndex()
+              .findRoomsIntersecting(top, left, bottom, right);
+    }
+    int[] ret = new int[topology.getRoomNumber()];
+    int size = 0;
+    for (int i = 0; i < topology.getRoomNumber(); ++i) {
+      int[] lt = topology.getRoom(i).getLeftTopCorner();
+      int[] rb = topology.getRoom(i).getRightBottomCorner();
+      if (lt[0] <= bottom && rb[0] >= top && lt[1] <= right && rb[1] >= left) {
+        ret[size++] = i;
+      }
+    }
+    return Arrays.copyOf(ret, size);
+  }
+
+  private static int getNamePadding(WorldTopology topology, int imgScale,
+                                    FontMetrics metrics) {
+    String key = topology.getContentHash() + "-" + imgScale;
+    synchronized (namePaddings) {
+      Integer padding = namePaddings.get(key);
+      if (padding != null) {
+        return padding;
+      }
+    }
+    //measure without holding the lock
+    int halfUnit = getHalfUnit(imgScale);
+    int overflow = 0;
+    for (int i = 0; i < topology.getRoomNumber(); ++i) {
+      Room room = topology.getRoom(i);
+      int width = (room.getWidth() - 1) * imgScale + halfUnit * 2;
+      overflow = Math.max(overflow, (metrics.stringWidth(room.getName()) - width) / 2 + 1);
+    }
+    int padding = (overflow + imgScale - 1) / imgScale;
+    synchronized (namePaddings) {
+      namePaddings.put(key, padding);
+    }
+    return padding;
+  }
+
+  private static Graphics2D createGraphics(BufferedImage img, int imgScale) {
+    Graphics2D graphics2D = img.createGraphics();
+    graphics2D.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+            RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    graphics2D.setFont(getFont(imgScale / 3));
+    return graphics2D;
+  }
+
+  private static void drawRoom(Graphics2D graphics2D, FontMetrics metrics, Room room,
+                               int imgScale) {
+    int halfUnit = getHalfUnit(imgScale);
+    int[] leftTopCorner = room.getLeftTopCorner();
+    //-1 for wall thickness
+    //+halfUnit*2 for neighbor wall overlay
+    int width = (room.getWidth() - 1) * imgScale + halfUnit * 2;
+    int height = (room.getHeight() - 1) * imgScale + halfUnit * 2;
+    int leftTopX = leftTopCorner[1] * imgScale + halfUnit;
+    int leftTopY = leftTopCorner[0] * imgScale + halfUnit;
+    graphics2D.setColor(Color.black);
+    graphics2D.drawRect(leftTopX, leftTopY, width, height);
+    graphics2D.setColor(Color.BLUE);
+    int x = leftTopX + (width - metrics.stringWidth(room.getName())) / 2;
+    int y = leftTopY + ((height - metrics.getHeight()) / 2) + metrics.getAscent();
+    graphics2D.drawString(room.getName(), x, y);
+  }
+
+  private static int getHalfUnit(int imgScale) {
+    return (int) (imgScale * 0.5f);
+  }
+
+  private static Font getFont(int size) {
+    return fonts.computeIfAbsent(size, s -> new Font(FONT_NAME, Font.BOLD, s));
+  }
+
+  /**
+   * Draws bands [begin, end) of a map.
+   */
+  private static class BandRangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final WorldTopology topology;
+    private final int imgScale;
+    private final BufferedImage img;
+    private final int begin;
+    private final int end;
+
+    BandRangeTask(WorldTopology topology, int imgScale, BufferedImage img, int begin, int end) {
+      this.topology = topology;
+      this.imgScale = imgScale;
+      this.img = img;
+      this.begin = begin;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - begin == 1) {
+        int y = begin * BAND_HEIGHT;
+        //the band shares its pixels with the map, so nothing is copied afterwards
+        BufferedImage band = img.getSubimage(0, y, img.getWidth(),
+                Math.min(BAND_HEIGHT, img.getHeight() - y));
+        drawRegion(band, topology, imgScale, 0, y);
+        return;
+      }
+      int mid = (begin + end) >>> 1;
+      invokeAll(new BandRangeTask(topology, imgScale, img, begin, mid),
+              new BandRangeTask(topology, imgScale, img, mid, end));
+    }
+  }
+}
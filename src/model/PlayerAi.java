@@ -31,6 +31,18 @@ public interface PlayerAi extends Player {
    */
   int getRandomNumber(Collection<Integer> resultSet) throws IllegalArgumentException;
 
+  /**
+   * Get a random number among candidates[from] to candidates[to - 1],
+   * each as likely as the others, in constant time.
+   *
+   * @param candidates array holding the candidates
+   * @param from       index of the first candidate
+   * @param to         index after the last candidate
+   * @return a random candidate
+   * @throws IllegalArgumentException candidates is null, or the range is empty or out of bounds
+   */
+  int getRandomNumber(int[] candidates, int from, int to) throws IllegalArgumentException;
+
   /**
    * Get a random integer between the min integer(inclusive)
    * and the max integer(exclusive).
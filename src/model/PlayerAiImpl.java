@@ -123,11 +123,26 @@ public class PlayerAiImpl implements PlayerAi {
     return actionController.getRandomNumber(resultSet);
   }
 
+  @Override
+  public int getRandomNumber(int[] candidates, int from, int to)
+          throws IllegalArgumentException {
+    return actionController.getRandomNumber(candidates, from, to);
+  }
+
   @Override
   public int getRandomNumberBetween(int min, int max) throws IllegalArgumentException {
     return actionController.getRandomNumberBetween(min, max);
   }
 
+  /**
+   * Get the controller of the player.
+   *
+   * @return the controller
+   */
+  AiActionController getActionController() {
+    return actionController;
+  }
+
   /**
    * Get the information of the player in string form.
    *
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * Controller of an AI player whose actions are replayed from a journal.
+ * The actions added are taken first, as predefined actions,
+ * then the player acts as its fallback controller decides.
+ */
+class ReplayAiActionController implements AiActionController {
+
+  private final Deque<AiActionParam> actions;
+  private final AiActionController fallback;
+
+  /**
+   * Constructor.
+   *
+   * @param fallback controller deciding the actions once the replayed ones are taken
+   */
+  ReplayAiActionController(AiActionController fallback) {
+    this.actions = new ArrayDeque<>();
+    this.fallback = fallback;
+  }
+
+  /**
+   * Add an action to be replayed.
+   *
+   * @param action the action
+   */
+  void addAction(AiActionParam action) {
+    actions.addLast(action);
+  }
+
+  /**
+   * Get the controller deciding the actions once the replayed ones are taken.
+   *
+   * @return the controller
+   */
+  AiActionController getFallback() {
+    return fallback;
+  }
+
+  @Override
+  public PlayerActionType getRandomAction() {
+    return fallback.getRandomAction();
+  }
+
+  @Override
+  public int getRandomNumber(Collection<Integer> resultSet)
+          throws IllegalArgumentException, IllegalStateException {
+    return fallback.getRandomNumber(resultSet);
+  }
+
+  @Override
+  public int getRandomNumber(int[] candidates, int from, int to)
+          throws IllegalArgumentException, IllegalStateException {
+    return fallback.getRandomNumber(candidates, from, to);
+  }
+
+  @Override
+  public int getRandomNumberBetween(int min, int max) throws IllegalArgumentException {
+    return fallback.getRandomNumberBetween(min, max);
+  }
+
+  @Override
+  public AiActionParam getPredefinedAction() {
+    return actions.isEmpty() ? fallback.getPredefinedAction() : actions.pollFirst();
+  }
+
+  @Override
+  public boolean usePredefinedAction() {
+    return !actions.isEmpty() || fallback.usePredefinedAction();
+  }
+}
@@ -0,0 +1,58 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Represents which rooms share a wall with which.
+ * The graph is built once for a world and never changes afterwards.
+ * Neighbors of a room can be read one by one through their order,
+ * which doesn't create any object.
+ */
+public interface RoomGraph {
+
+  /**
+   * Get the number of rooms in the graph.
+   *
+   * @return the number of rooms
+   */
+  int getRoomNumber();
+
+  /**
+   * Get the number of neighbors of a given room.
+   *
+   * @param roomIdx index of the room
+   * @return the number of neighbors
+   * @throws IllegalArgumentException roomIdx is negative or exceeds max room index
+   */
+  int getNeighborNumber(int roomIdx) throws IllegalArgumentException;
+
+  /**
+   * Get the neighbor of a given room in the given order.
+   * Neighbors of a room are sorted by their indexes in ascending order.
+   *
+   * @param roomIdx  index of the room
+   * @param order    order of the neighbor, from zero to the number of neighbors
+   * @return index of the neighbor room
+   * @throws IllegalArgumentException roomIdx or order is out of range
+   */
+  int getNeighbor(int roomIdx, int order) throws IllegalArgumentException;
+
+  /**
+   * Check if two rooms are neighbors.
+   *
+   * @param roomIdx  index of the room
+   * @param otherIdx index of the other room
+   * @return true if they share a wall, false if not
+   * @throws IllegalArgumentException either index is out of range
+   */
+  boolean isAdjacent(int roomIdx, int otherIdx) throws IllegalArgumentException;
+
+  /**
+   * Get neighbors of a given room in a new list.
+   *
+   * @param roomIdx index of the room
+   * @return indexes of the neighbors in ascending order
+   * @throws IllegalArgumentException roomIdx is negative or exceeds max room index
+   */
+  List<Integer> getNeighbors(int roomIdx) throws IllegalArgumentException;
+}
@@ -0,0 +1,137 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Room graph stored in compressed sparse rows.
+ * Neighbors of room i are neighbors[offsets[i]] to neighbors[offsets[i + 1] - 1],
+ * so the whole graph takes two int arrays no matter how many rooms there are.
+ */
+public class RoomGraphImpl implements RoomGraph {
+
+  private final int[] offsets;
+  private final int[] neighbors;
+
+  /**
+   * Constructor.
+   * Two rooms are neighbors if they share a wall, see RoomImpl.isRoomAdjacent.
+   *
+   * @param rooms         rooms of the world, a room's index is its position in the list
+   * @param wallThickness the unit offset between neighbor rooms
+   * @throws IllegalArgumentException rooms is null or contains null, or wallThickness is negative
+   */
+  public RoomGraphImpl(List<Room> rooms, int wallThickness) throws IllegalArgumentException {
+    this(rooms, new RoomGridIndex(rooms), wallThickness);
+  }
+
+  /**
+   * Constructor with a grid index already built for the rooms.
+   *
+   * @param rooms         rooms of the world, a room's index is its position in the list
+   * @param roomIndex     grid index of the same rooms
+   * @param wallThickness the unit offset between neighbor rooms
+   * @throws IllegalArgumentException any parameter is null, or wallThickness is negative
+   */
+  RoomGraphImpl(List<Room> rooms, RoomGridIndex roomIndex, int wallThickness)
+          throws IllegalArgumentException {
+    if (rooms == null || roomIndex == null) {
+      throw new IllegalArgumentException("parameter shouldn't be null!");
+    }
+    if (wallThickness < 0) {
+      throw new IllegalArgumentException("wallThickness shouldn't be negative!");
+    }
+    int roomNumber = rooms.size();
+
+    //edges are found with i < j in ascending order of i, then j
+    int[] edges = new int[16];
+    int edgeNum = 0;
+    int[] degree = new int[roomNumber];
+    for (int i = 0; i < roomNumber; ++i) {
+      for (int j : roomIndex.findRoomsNear(i, wallThickness)) {
+        if (j <= i || !RoomImpl.isRoomAdjacent(rooms.get(i), rooms.get(j), wallThickness)) {
+          continue;
+        }
+        if (edgeNum * 2 == edges.length) {
+          edges = Arrays.copyOf(edges, edges.length * 2);
+        }
+        edges[edgeNum * 2] = i;
+        edges[edgeNum * 2 + 1] = j;
+        edgeNum++;
+        degree[i]++;
+        degree[j]++;
+      }
+    }
+
+    offsets = new int[roomNumber + 1];
+    for (int i = 0; i < roomNumber; ++i) {
+      offsets[i + 1] = offsets[i] + degree[i];
+    }
+    //filling in edge order keeps every row sorted:
+    //smaller neighbors come from earlier edges, bigger ones from the room's own edges
+    neighbors = new int[offsets[roomNumber]];
+    int[] fill = Arrays.copyOf(offsets, roomNumber);
+    for (int e = 0; e < edgeNum; ++e) {
+      int i = edges[e * 2];
+      int j = edges[e * 2 + 1];
+      neighbors[fill[i]++] = j;
+      neighbors[fill[j]++] = i;
+    }
+  }
+
+  /**
+   * Constructor with the rows already built, e.g. loaded from a compiled world.
+   * The arrays are taken as they are and aren't checked.
+   *
+   * @param offsets   where the neighbors of every room begin, one more than the rooms
+   * @param neighbors neighbors of all rooms, every row sorted
+   */
+  RoomGraphImpl(int[] offsets, int[] neighbors) {
+    this.offsets = offsets;
+    this.neighbors = neighbors;
+  }
+
+  @Override
+  public int getRoomNumber() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int getNeighborNumber(int roomIdx) throws IllegalArgumentException {
+    checkRoomIdx(roomIdx);
+    return offsets[roomIdx + 1] - offsets[roomIdx];
+  }
+
+  @Override
+  public int getNeighbor(int roomIdx, int order) throws IllegalArgumentException {
+    checkRoomIdx(roomIdx);
+    if (order < 0 || order >= offsets[roomIdx + 1] - offsets[roomIdx]) {
+      throw new IllegalArgumentException("neighbor order invalid");
+    }
+    return neighbors[offsets[roomIdx] + order];
+  }
+
+  @Override
+  public boolean isAdjacent(int roomIdx, int otherIdx) throws IllegalArgumentException {
+    checkRoomIdx(roomIdx);
+    checkRoomIdx(otherIdx);
+    return Arrays.binarySearch(neighbors, offsets[roomIdx], offsets[roomIdx + 1], otherIdx) >= 0;
+  }
+
+  @Override
+  public List<Integer> getNeighbors(int roomIdx) throws IllegalArgumentException {
+    checkRoomIdx(roomIdx);
+    List<Integer> ret = new ArrayList<>(offsets[roomIdx + 1] - offsets[roomIdx]);
+    for (int k = offsets[roomIdx]; k < offsets[roomIdx + 1]; ++k) {
+      ret.add(neighbors[k]);
+    }
+    return ret;
+  }
+
+  private void checkRoomIdx(int roomIdx) {
+    if (roomIdx < 0 || roomIdx >= offsets.length - 1) {
+      throw new IllegalArgumentException("room index invalid");
+    }
+  }
+}
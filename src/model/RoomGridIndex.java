@@ -0,0 +1,175 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid over the rooms' rectangles.
+ * Every cell keeps the indexes of the rooms covering it, so finding the rooms near
+ * a rectangle only visits the cells it touches instead of every room in the world.
+ * The grid is immutable once built, and queries are safe to run from several threads.
+ */
+class RoomGridIndex {
+
+  private final int roomNumber;
+  private final int[] tops;
+  private final int[] lefts;
+  private final int[] bottoms;
+  private final int[] rights;
+
+  private final int minRow;
+  private final int minCol;
+  private final int cellSize;
+  private final int gridRows;
+  private final int gridCols;
+  private final int[] cellStart;
+  private final int[] cellRooms;
+
+  /**
+   * Constructor.
+   * The size of a cell is chosen so that there are about as many cells as rooms.
+   *
+   * @param rooms rooms to be indexed, a room's index is its position in the list
+   * @throws IllegalArgumentException rooms is null or contains null
+   */
+  RoomGridIndex(List<Room> rooms) throws IllegalArgumentException {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms is null");
+    }
+    roomNumber = rooms.size();
+    tops = new int[roomNumber];
+    lefts = new int[roomNumber];
+    bottoms = new int[roomNumber];
+    rights = new int[roomNumber];
+
+    int minR = Integer.MAX_VALUE;
+    int minC = Integer.MAX_VALUE;
+    int maxR = 0;
+    int maxC = 0;
+    for (int i = 0; i < roomNumber; ++i) {
+      Room room = rooms.get(i);
+      if (room == null) {
+        throw new IllegalArgumentException("room is null");
+      }
+      int[] lt = room.getLeftTopCorner();
+      int[] rb = room.getRightBottomCorner();
+      tops[i] = lt[0];
+      lefts[i] = lt[1];
+      bottoms[i] = rb[0];
+      rights[i] = rb[1];
+      minR = Math.min(minR, tops[i]);
+      minC = Math.min(minC, lefts[i]);
+      maxR = Math.max(maxR, bottoms[i]);
+      maxC = Math.max(maxC, rights[i]);
+    }
+    if (roomNumber == 0) {
+      minR = 0;
+      minC = 0;
+    }
+    minRow = minR;
+    minCol = minC;
+
+    long area = (long) (maxR - minR + 1) * (maxC - minC + 1);
+    cellSize = (int) Math.max(1, Math.ceil(Math.sqrt((double) area / Math.max(1, roomNumber))));
+    gridRows = (maxR - minR) / cellSize + 1;
+    gridCols = (maxC - minC) / cellSize + 1;
+
+    //count rooms per cell first, then fill, so the cells live in two flat arrays
+    cellStart = new int[gridRows * gridCols + 1];
+    for (int i = 0; i < roomNumber; ++i) {
+      for (int r = cellRow(tops[i]); r <= cellRow(bottoms[i]); ++r) {
+        for (int c = cellCol(lefts[i]); c <= cellCol(rights[i]); ++c) {
+          cellStart[r * gridCols + c + 1]++;
+        }
+      }
+    }
+    for (int i = 1; i < cellStart.length; ++i) {
+      cellStart[i] += cellStart[i - 1];
+    }
+    cellRooms = new int[cellStart[cellStart.length - 1]];
+    int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+    for (int i = 0; i < roomNumber; ++i) {
+      for (int r = cellRow(tops[i]); r <= cellRow(bottoms[i]); ++r) {
+        for (int c = cellCol(lefts[i]); c <= cellCol(rights[i]); ++c) {
+          cellRooms[fill[r * gridCols + c]++] = i;
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the rooms whose extent intersects the given rectangle, borders included.
+   *
+   * @param top    top row of the rectangle
+   * @param left   left column of the rectangle
+   * @param bottom bottom row of the rectangle
+   * @param right  right column of the rectangle
+   * @return indexes of the rooms in ascending order
+   */
+  int[] findRoomsIntersecting(int top, int left, int bottom, int right) {
+    int rowBegin = cellRow(Math.max(top, minRow));
+    int rowEnd = cellRow(Math.min(bottom, minRow + gridRows * cellSize - 1));
+    int colBegin = cellCol(Math.max(left, minCol));
+    int colEnd = cellCol(Math.min(right, minCol + gridCols * cellSize - 1));
+    if (roomNumber == 0 || top > bottom || left > right
+            || bottom < minRow || right < minCol || rowBegin > rowEnd || colBegin > colEnd) {
+      return new int[0];
+    }
+
+    int[] ret = new int[8];
+    int size = 0;
+    for (int r = rowBegin; r <= rowEnd; ++r) {
+      for (int c = colBegin; c <= colEnd; ++c) {
+        int cell = r * gridCols + c;
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; ++k) {
+          int idx = cellRooms[k];
+          if (tops[idx] > bottom || bottoms[idx] < top
+                  || lefts[idx] > right || rights[idx] < left) {
+            continue;
+          }
+          //a room spanning several cells is only reported by the first cell
+          //shared by the room and the rectangle
+          if (r != Math.max(rowBegin, cellRow(tops[idx]))
+                  || c != Math.max(colBegin, cellCol(lefts[idx]))) {
+            continue;
+          }
+          if (size == ret.length) {
+            ret = Arrays.copyOf(ret, size * 2);
+          }
+          ret[size++] = idx;
+        }
+      }
+    }
+    ret = Arrays.copyOf(ret, size);
+    Arrays.sort(ret);
+    return ret;
+  }
+
+  /**
+   * Find the rooms whose extent is within the given distance of a room.
+   * Every room adjacent to the room is among them.
+   *
+   * @param roomIdx  index of the room
+   * @param distance how far away from the room's border to look, usually the wall thickness
+   * @return indexes of the rooms in ascending order, including the room itself
+   * @throws IllegalArgumentException roomIdx is out of range, or distance is negative
+   */
+  int[] findRoomsNear(int roomIdx, int distance) throws IllegalArgumentException {
+    if (roomIdx < 0 || roomIdx >= roomNumber) {
+      throw new IllegalArgumentException("room index invalid");
+    }
+    if (distance < 0) {
+      throw new IllegalArgumentException("distance shouldn't be negative!");
+    }
+    return findRoomsIntersecting(tops[roomIdx] - distance, lefts[roomIdx] - distance,
+            bottoms[roomIdx] + distance, rights[roomIdx] + distance);
+  }
+
+  private int cellRow(int row) {
+    return (row - minRow) / cellSize;
+  }
+
+  private int cellCol(int col) {
+    return (col - minCol) / cellSize;
+  }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Events of the latest turn, kept as ints only.
+ * Every event takes a fixed slot of one type and up to three parameters, so recording
+ * an event neither formats text nor creates any object; text is rendered on demand.
+ * Events recorded after the turn is finished start a new turn.
+ */
+class TurnEventLog {
+
+  private static final int SLOT = 4;
+
+  private int[] events;
+  private int size;
+  private boolean finished;
+
+  /**
+   * Constructor.
+   */
+  TurnEventLog() {
+    events = new int[SLOT * 8];
+    size = 0;
+    finished = false;
+  }
+
+  /**
+   * Record an event of the current turn.
+   *
+   * @param type   type of the event
+   * @param param0 first parameter, see TurnEventType
+   * @param param1 second parameter
+   * @param param2 third parameter
+   */
+  void add(TurnEventType type, int param0, int param1, int param2) {
+    if (finished) {
+      clear();
+    }
+    if ((size + 1) * SLOT > events.length) {
+      events = Arrays.copyOf(events, events.length * 2);
+    }
+    int base = size * SLOT;
+    events[base] = type.ordinal();
+    events[base + 1] = param0;
+    events[base + 2] = param1;
+    events[base + 3] = param2;
+    size++;
+  }
+
+  /**
+   * Mark the current turn finished, its events are kept until an event of the next turn.
+   */
+  void finish() {
+    finished = true;
+  }
+
+  /**
+   * Remove all events.
+   */
+  void clear() {
+    size = 0;
+    finished = false;
+  }
+
+  /**
+   * Get all the events, every event taking four ints: its type's ordinal and its parameters.
+   *
+   * @return the events
+   */
+  int[] toArray() {
+    return Arrays.copyOf(events, size * SLOT);
+  }
+
+  /**
+   * Whether the current turn is finished.
+   *
+   * @return true if the turn is finished
+   */
+  boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Replace all events with events got from toArray.
+   *
+   * @param events   the events, four ints each
+   * @param finished whether the turn of the events is finished
+   */
+  void restore(int[] events, boolean finished) {
+    this.events = Arrays.copyOf(events, Math.max(SLOT * 8, events.length));
+    this.size = events.length / SLOT;
+    this.finished = finished;
+  }
+
+  /**
+   * Get the number of events.
+   *
+   * @return the number of events
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Get the type of an event.
+   *
+   * @param idx index of the event
+   * @return type of the event
+   */
+  TurnEventType getType(int idx) {
+    return TurnEventType.fromOrdinal(events[idx * SLOT]);
+  }
+
+  /**
+   * Get a parameter of an event.
+   *
+   * @param idx   index of the event
+   * @param order order of the parameter, from zero to two
+   * @return the parameter
+   */
+  int getParam(int idx, int order) {
+    return events[idx * SLOT + 1 + order];
+  }
+}
@@ -0,0 +1,64 @@
+package model;
+
+/**
+ * Types of the events that happen in a turn.
+ * The parameters each type records in TurnEventLog are listed with it.
+ */
+enum TurnEventType {
+  /**
+   * Player index, room index.
+   */
+  PET_MOVED,
+  /**
+   * Player index, target character's health after the attack.
+   */
+  EYES_POKED,
+  /**
+   * Player index, item index, target character's health after the attack.
+   */
+  ITEM_ATTACKED,
+  /**
+   * Player index.
+   */
+  ATTACK_FAILED,
+  /**
+   * Item index.
+   */
+  ITEM_REMOVED,
+  /**
+   * Player index, item index, room index.
+   */
+  ITEM_PICKED_UP,
+  /**
+   * Player index, room moved from, room moved to.
+   */
+  PLAYER_MOVED,
+  /**
+   * No parameter.
+   */
+  NO_NEIGHBOR,
+  /**
+   * Room index, target character's room, pet's room.
+   */
+  LOOKED_AROUND,
+  /**
+   * Room moved from, room moved to.
+   */
+  TARGET_MOVED,
+  /**
+   * Turn number.
+   */
+  ROUND_FINISHED;
+
+  private static final TurnEventType[] values = values();
+
+  /**
+   * Get the type of given ordinal.
+   *
+   * @param ordinal ordinal of the type
+   * @return the type
+   */
+  static TurnEventType fromOrdinal(int ordinal) {
+    return values[ordinal];
+  }
+}
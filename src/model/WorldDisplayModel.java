@@ -0,0 +1,130 @@
+package model;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * What a view displays of a world: its size, name and map, the names of its rooms and items,
+ * and where the players and the target character are.
+ * The rooms and items never change, they are read from the topology, which a view can keep.
+ */
+public interface WorldDisplayModel {
+
+  /**
+   * Get the topology of the world, which is immutable, so it can be read on any thread.
+   *
+   * @return the topology
+   */
+  WorldTopology getTopology();
+
+  /**
+   * Get the number of players.
+   *
+   * @return number of players
+   */
+  int getPlayerNumber();
+
+  /**
+   * Get the name of player with given index.
+   * The index is determined by the player order.
+   *
+   * @param playerIdx index of the player in the player list
+   * @return name of the player
+   * @IllegalArgumentException playerIdx is out of range
+   */
+  String getPlayerName(int playerIdx);
+
+  /**
+   * Get the index of the room where the target character is in.
+   *
+   * @return index of the room
+   */
+  int getTargetCharacterRoomIdx();
+
+  /**
+   * Get the attack of the item with given index.
+   *
+   * @param itemIdx index of the item in the item list
+   * @return attack of the item
+   * @IllegalArgumentException itemIdx is out of range
+   */
+  int getItemAttack(int itemIdx);
+
+  /**
+   * Get the name of the item with given index.
+   *
+   * @param itemIdx index of the item in the item list
+   * @return name of the item
+   * @IllegalArgumentException itemIdx is out of range
+   */
+  String getItemName(int itemIdx);
+
+  /**
+   * Get the room index of the player with given index.
+   *
+   * @param playerIdx index of the player in the player list
+   * @return room index of the player
+   * @IllegalArgumentException playerIdx is out of range
+   */
+  int getPlayerRoomIdx(int playerIdx);
+
+  /**
+   * Get the room name of given index.
+   *
+   * @param roomIdx index of the room
+   * @return room name of given index
+   * @throws IllegalArgumentException roomIdx is negative or exceeds max room index
+   */
+  String getRoomName(int roomIdx) throws IllegalArgumentException;
+
+  /**
+   * Get the number of rooms.
+   *
+   * @return the number of rooms
+   */
+  int getRoomNumber();
+
+  /**
+   * Get the number of items.
+   *
+   * @return the number of items
+   */
+  int getItemNumber();
+
+  /**
+   * Get the width of the world.
+   *
+   * @return the width of the world
+   */
+  int getWidth();
+
+  /**
+   * Get the height of the world.
+   *
+   * @return the height of the world
+   */
+  int getHeight();
+
+  /**
+   * Get the name of the world.
+   *
+   * @return the name of the world
+   */
+  String getName();
+
+  /**
+   * Draw a region of the map of the rooms, with exactly the pixels it has in the whole map.
+   * Only the rooms reaching into the region are drawn, so any part of a map too big to draw
+   * as a whole can be drawn quickly.
+   *
+   * @param imgScale how much should the map be scaled, expect an even integer
+   * @param x        left of the region in pixels of the whole map
+   * @param y        top of the region in pixels of the whole map
+   * @param width    width of the region in pixels
+   * @param height   height of the region in pixels
+   * @return the region of the map
+   * @throws IllegalArgumentException imgScale is less than two, or isn't even,
+   *                                  or x or y is negative, or width or height is less than one
+   */
+  BufferedImage renderMapTile(int imgScale, int x, int y, int width, int height)
+          throws IllegalArgumentException;
+}
@@ -0,0 +1,52 @@
+package model;
+
+import java.io.UncheckedIOException;
+
+/**
+ * A journal of records, each an array of bytes, kept in a file.
+ * Records are appended, and the journal is started over from a record standing for
+ * every record before it, so the file doesn't grow with the whole history.
+ * Neither waits for the disk: records are written and synced in groups
+ * by a thread of the journal, so a crash loses at most the records of the last group.
+ */
+public interface WorldJournal {
+
+  /**
+   * Append a record, which is written to the disk soon after.
+   *
+   * @param record the record
+   * @throws IllegalArgumentException record is null
+   * @throws IllegalStateException    the journal is closed
+   * @throws UncheckedIOException     writing a previous group failed
+   */
+  void append(byte[] record)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException;
+
+  /**
+   * Start the journal over from a record, which replaces every record before it,
+   * such as one holding the whole state. The file is replaced soon after, at once,
+   * so a crash leaves either the old records or the new ones.
+   *
+   * @param record the record
+   * @throws IllegalArgumentException record is null
+   * @throws IllegalStateException    the journal is closed
+   * @throws UncheckedIOException     writing a previous group failed
+   */
+  void restart(byte[] record)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException;
+
+  /**
+   * Wait until every record appended so far is synced to the disk.
+   *
+   * @throws UncheckedIOException writing failed
+   */
+  void flush() throws UncheckedIOException;
+
+  /**
+   * Sync every record appended so far, then close the file.
+   * Closing a closed journal does nothing.
+   *
+   * @throws UncheckedIOException writing or closing failed
+   */
+  void close() throws UncheckedIOException;
+}
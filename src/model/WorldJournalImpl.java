@@ -0,0 +1,344 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * A journal appending records to a file, with group commit.
+ * Appended records wait in memory for a thread of the journal, which writes all the records
+ * waiting and syncs the file once for them, while the next records keep waiting.
+ * So a caller never waits for the disk, and a busy journal syncs once for many records.
+ * Restarting drops the records waiting, and the thread writes the new ones to a file
+ * next to the journal, syncs it, and moves it over the journal.
+ * Records are read through a buffer of fixed size, so a journal of any size can be read.
+ *
+ * <p>All numbers are big-endian ints. The file starts with magic and version,
+ * then every record is its length, its CRC-32, and its bytes.
+ * A record cut or damaged by a crash ends the journal, and is dropped when the journal is
+ * opened again, so new records follow the last whole one.
+ */
+public class WorldJournalImpl implements WorldJournal {
+
+  /**
+   * The first four bytes of every journal, "WJNL".
+   */
+  public static final int MAGIC = 0x574A4E4C;
+
+  /**
+   * Version of the layout, bumped whenever the layout changes.
+   */
+  public static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  private final Path path;
+  private final Thread writer;
+  //only used by the writer once it is started
+  private FileChannel channel;
+  //records appended and not taken by the writer yet, all guarded by this
+  private ByteArrayOutputStream pending;
+  //whether the records waiting start the journal over
+  private boolean restarting;
+  private long appendedNum;
+  private long syncedNum;
+  private IOException failure;
+  private boolean closed;
+
+  /**
+   * Constructor, a new file is created, an existing journal is appended to.
+   *
+   * @param path path of the journal
+   * @throws IllegalArgumentException path is null, or the file isn't a journal
+   *                                  of the current version
+   * @throws UncheckedIOException     opening the file fails
+   */
+  public WorldJournalImpl(Path path) throws IllegalArgumentException, UncheckedIOException {
+    if (path == null) {
+      throw new IllegalArgumentException("path is null");
+    }
+    FileChannel fileChannel = null;
+    try {
+      fileChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+              StandardOpenOption.READ, StandardOpenOption.WRITE);
+      if (fileChannel.size() == 0) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        writeFully(fileChannel, header);
+        fileChannel.force(true);
+      } else {
+        fileChannel.truncate(scan(fileChannel, null));
+      }
+      fileChannel.position(fileChannel.size());
+    } catch (IOException ioe) {
+      closeQuietly(fileChannel);
+      throw new UncheckedIOException(ioe);
+    } catch (IllegalArgumentException iae) {
+      closeQuietly(fileChannel);
+      throw iae;
+    }
+    this.path = path;
+    channel = fileChannel;
+    pending = new ByteArrayOutputStream();
+    writer = new Thread(this::writeGroups, "world-journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Read every whole record of a journal, one at a time.
+   *
+   * @param path    path of the journal
+   * @param records takes the records in the order they were appended
+   * @throws IllegalArgumentException path or records is null, or the file isn't a journal
+   *                                  of the current version
+   * @throws UncheckedIOException     reading the file fails
+   */
+  public static void forEachRecord(Path path, Consumer<byte[]> records)
+          throws IllegalArgumentException, UncheckedIOException {
+    if (path == null || records == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      scan(fileChannel, records);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Check the header and the records of a journal, from its start.
+   *
+   * @param fileChannel the journal
+   * @param records     takes whole records, null to only check
+   * @return where the last whole record ends
+   */
+  private static long scan(FileChannel fileChannel, Consumer<byte[]> records)
+          throws IOException {
+    long size = fileChannel.size();
+    fileChannel.position(0);
+    //the stream isn't closed, since closing it closes the channel
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Channels.newInputStream(fileChannel), READ_BUFFER_SIZE));
+    if (size < HEADER_SIZE || in.readInt() != MAGIC) {
+      throw new IllegalArgumentException("file isn't a world journal");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException(String.format(
+              "journal version %d isn't supported, expected %d", version, VERSION));
+    }
+    CRC32 crc = new CRC32();
+    long end = HEADER_SIZE;
+    while (size - end >= RECORD_HEADER_SIZE) {
+      int length = in.readInt();
+      int checksum = in.readInt();
+      //a cut length is checked before anything is allocated for it
+      if (length < 0 || length > size - end - RECORD_HEADER_SIZE) {
+        break;
+      }
+      byte[] record = new byte[length];
+      in.readFully(record);
+      crc.reset();
+      crc.update(record);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      if (records != null) {
+        records.accept(record);
+      }
+      end += RECORD_HEADER_SIZE + length;
+    }
+    return end;
+  }
+
+  @Override
+  public void append(byte[] record)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException {
+    add(record, false);
+  }
+
+  @Override
+  public void restart(byte[] record)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException {
+    add(record, true);
+  }
+
+  private void add(byte[] record, boolean restart)
+          throws IllegalArgumentException, IllegalStateException, UncheckedIOException {
+    if (record == null) {
+      throw new IllegalArgumentException("record is null");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("journal is closed");
+      }
+      if (failure != null) {
+        throw new UncheckedIOException(failure);
+      }
+      if (restart) {
+        //the records waiting are replaced as well, so they are never written
+        pending = new ByteArrayOutputStream();
+        restarting = true;
+      }
+      writeInt(pending, record.length);
+      writeInt(pending, (int) crc.getValue());
+      pending.write(record, 0, record.length);
+      ++appendedNum;
+      notifyAll();
+    }
+  }
+
+  @Override
+  public synchronized void flush() throws UncheckedIOException {
+    long target = appendedNum;
+    while (syncedNum < target && failure == null) {
+      try {
+        wait();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    if (failure != null) {
+      throw new UncheckedIOException(failure);
+    }
+  }
+
+  @Override
+  public void close() throws UncheckedIOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      channel.close();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    synchronized (this) {
+      if (failure != null) {
+        throw new UncheckedIOException(failure);
+      }
+    }
+  }
+
+  private void writeGroups() {
+    while (true) {
+      ByteArrayOutputStream group;
+      long groupEnd;
+      boolean restart;
+      synchronized (this) {
+        while (pending.size() == 0 && !closed) {
+          try {
+            wait();
+          } catch (InterruptedException ie) {
+            //only closing stops the writer, so no record is left behind
+          }
+        }
+        if (pending.size() == 0) {
+          return;
+        }
+        group = pending;
+        groupEnd = appendedNum;
+        restart = restarting;
+        pending = new ByteArrayOutputStream();
+        restarting = false;
+      }
+      try {
+        if (restart) {
+          rewrite(group);
+        } else {
+          writeFully(channel, ByteBuffer.wrap(group.toByteArray()));
+          //one sync for every record of the group
+          channel.force(false);
+        }
+      } catch (IOException ioe) {
+        synchronized (this) {
+          failure = ioe;
+          notifyAll();
+        }
+        return;
+      }
+      synchronized (this) {
+        syncedNum = groupEnd;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Replace the journal with a new one holding the given records.
+   * The new journal is synced before it is moved over the old one,
+   * so the file is always a whole journal.
+   */
+  private void rewrite(ByteArrayOutputStream group) throws IOException {
+    Path rewritten = path.resolveSibling(path.getFileName() + ".new");
+    FileChannel rewrittenChannel = FileChannel.open(rewritten, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+      header.flip();
+      writeFully(rewrittenChannel, header);
+      writeFully(rewrittenChannel, ByteBuffer.wrap(group.toByteArray()));
+      rewrittenChannel.force(true);
+      Files.move(rewritten, path, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException ioe) {
+      closeQuietly(rewrittenChannel);
+      Files.deleteIfExists(rewritten);
+      throw ioe;
+    }
+    //the channel moved with the file, so it goes on appending to the journal
+    FileChannel oldChannel = channel;
+    channel = rewrittenChannel;
+    closeQuietly(oldChannel);
+  }
+
+  private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      fileChannel.write(buffer);
+    }
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static void closeQuietly(FileChannel fileChannel) {
+    if (fileChannel != null) {
+      try {
+        fileChannel.close();
+      } catch (IOException ioe) {
+        //the first error is the one reported
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import java.awt.image.BufferedImage;
 import java.io.UncheckedIOException;
 import java.util.List;
 
@@ -11,7 +12,8 @@ import java.util.List;
 public interface WorldModel extends WorldViewModel {
 
   /**
-   * Reinitialize the model. This will use previous cached config file path.
+   * Reinitialize the model with the current world, which isn't parsed again.
+   * Only the state of the game is reset.
    *
    * @throws IllegalStateException not initialized yet
    */
@@ -39,11 +41,29 @@ public interface WorldModel extends WorldViewModel {
   void setPlayers(List<String> name, List<Integer> roomIdx, List<Boolean> isAi)
           throws IllegalArgumentException;
 
+  /**
+   * Set the players' information, with AI players acting on seeded random streams.
+   * The AI player at position i of the lists gets a stream derived from the seed and i,
+   * so the same seed and players always make the same choices, whichever thread runs them.
+   *
+   * @param name    name list of players
+   * @param roomIdx room list of players
+   * @param isAi    list indicates whether players are AIs
+   * @param seed    master seed of the game
+   * @throws IllegalArgumentException any list is null,
+   *                                  or empty,
+   *                                  or the lists are of different size.
+   *                                  or any room's index is out of range
+   */
+  void setPlayers(List<String> name, List<Integer> roomIdx, List<Boolean> isAi, long seed)
+          throws IllegalArgumentException;
+
   /**
    * Set the players' information with players created.
    *
    * @param players pre-created players
-   * @throws IllegalArgumentException players is null or empty
+   * @throws IllegalArgumentException players is null or empty, or contains null,
+   *                                  or any room's index is out of range
    */
   void setPlayers(List<Player> players) throws IllegalArgumentException;
 
@@ -137,4 +157,38 @@ public interface WorldModel extends WorldViewModel {
   void outputMapImage(String imgFilePath, int imgScale)
           throws IllegalArgumentException, UncheckedIOException;
 
+  /**
+   * Draw the map of the rooms in memory, the same image outputMapImage writes.
+   * Maps of the same world and scale may be shared, so the map must not be drawn on.
+   *
+   * @param imgScale how much should the map be scaled, expect an even integer
+   * @return the map
+   * @throws IllegalArgumentException imgScale is less than two, or isn't even
+   */
+  BufferedImage renderMapImage(int imgScale) throws IllegalArgumentException;
+
+  /**
+   * Save the state of the game in a compact binary snapshot, which loadSnapshot restores
+   * on a model of the same world, in this application or another one.
+   * The controllers of AI players are saved with where they are: the pre-defined actions
+   * taken, or the numbers drawn from a seed, so a restored game goes on as the saved one would.
+   * Only the controllers of AiActionControllerImpl can be saved, except those drawing from a
+   * generator given to them.
+   *
+   * @return the snapshot
+   * @throws IllegalStateException the controller of an AI player can't be saved
+   */
+  byte[] saveSnapshot() throws IllegalStateException;
+
+  /**
+   * Restore the state of the game saved by saveSnapshot.
+   * The model is left as it was if the snapshot can't be loaded.
+   * AI players acting at random without a seed are given new random generators.
+   *
+   * @param snapshot the snapshot
+   * @throws IllegalArgumentException snapshot is null, or isn't a snapshot of the current
+   *                                  version, or is of another world, or is damaged
+   */
+  void loadSnapshot(byte[] snapshot) throws IllegalArgumentException;
+
 }
@@ -1,29 +1,27 @@
 package model;
 
 import controller.CommandPromptType;
-import helper.Parser;
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.Stack;
+import java.util.function.BiFunction;
 import javax.imageio.ImageIO;
 
 
@@ -33,10 +31,18 @@ import javax.imageio.ImageIO;
  */
 public class WorldModelImpl implements WorldModel {
 
-  private String name;
-  private int width;
-  private int height;
-  private final int wallThickness;
+  /**
+   * The first four bytes of every snapshot, "WSNP".
+   */
+  public static final int SNAPSHOT_MAGIC = 0x57534E50;
+
+  /**
+   * Version of the snapshot layout, bumped whenever the layout changes.
+   */
+  public static final int SNAPSHOT_VERSION = 2;
+
+  private WorldTopology topology;
+  private RoomGraph roomGraph;
 
   private int curTurn;
   private int curPlayerIdx;
@@ -44,93 +50,115 @@ public class WorldModelImpl implements WorldModel {
   private int maxItemNumCarried;
   private TargetCharacter targetCharacter;
   private Pet pet;
-  private final StringBuilder lastTurnInfo;
+  private final TurnEventLog turnEvents;
   private final StringBuilder resultInfo;
 
-  private final List<Room> roomList;
-  private final List<Item> itemList;
   private final List<Player> playerList;
   private final Map<Integer, List<Integer>> playerItemTable;
   private final Map<Integer, Set<Integer>> roomPlayerTable;
-  private final Map<Integer, List<Integer>> roomAdjacentTable;
-  private final Map<Integer, Set<Integer>> roomItemTable;
-  private final Stack<Integer> petDfsStack;
-  private final Set<Integer> petDfsVisitedStack;
-
-  private String currentConfig;
+  private int[] roomPlayerCount;
+  private int[] occupiedNeighborCount;
+  private int[][] initialRoomItems;
+  private int[][] roomItems;
+  private int[] roomItemNumber;
+  private final BitSet pickedUpItems;
+  private final BitSet usedItems;
+  private final PlayerActionType[] aiActionCandidates;
+  private int[] petDfsStack;
+  private int petDfsStackSize;
+  private final BitSet petDfsVisited;
+  private final BitSet petDfsOnStack;
 
   /**
    * Constructor of the World class.
+   * A config parsed before is taken from WorldTopologyCache instead of being parsed again.
    *
    * @param readable a readable which contains information of the world specification
    */
   public WorldModelImpl(Readable readable) throws IllegalArgumentException {
-    if (readable == null) {
-      throw new IllegalArgumentException("readable invalid");
-    }
-
-    name = null;
-    width = 0;
-    height = 0;
-    wallThickness = 1;
+    this(WorldTopologyCache.getInstance().getTopology(readable));
+  }
 
-    curTurn = 1;
-    curPlayerIdx = 0;
-    maxTurn = 0;
-    maxItemNumCarried = 0;
+  /**
+   * Create a world with a topology already parsed.
+   * The topology isn't copied, so games on the same map can share it.
+   *
+   * @param topology the rooms, items and characters of the world
+   * @return the world
+   * @throws IllegalArgumentException topology is null
+   */
+  public static WorldModel fromTopology(WorldTopology topology) throws IllegalArgumentException {
+    if (topology == null) {
+      throw new IllegalArgumentException("topology invalid");
+    }
+    return new WorldModelImpl(topology);
+  }
 
-    targetCharacter = null;
-    pet = null;
+  /**
+   * Create a world from a binary file made by WorldTopologyCompiler.
+   * The file is memory-mapped and isn't validated again.
+   *
+   * @param path path of the compiled world
+   * @return the world
+   * @throws IllegalArgumentException path is null, or the file isn't a compiled world
+   * @throws UncheckedIOException     reading the file fails
+   */
+  public static WorldModel fromCompiledWorld(Path path)
+          throws IllegalArgumentException, UncheckedIOException {
+    return new WorldModelImpl(WorldTopologyCompiler.getInstance().load(path));
+  }
 
-    roomList = new ArrayList<>();
-    itemList = new ArrayList<>();
+  private WorldModelImpl(WorldTopology topology) {
     playerList = new ArrayList<>();
-    lastTurnInfo = new StringBuilder();
+    turnEvents = new TurnEventLog();
     resultInfo = new StringBuilder();
     playerItemTable = new Hashtable<>();
     roomPlayerTable = new Hashtable<>();
-    roomAdjacentTable = new Hashtable<>();
-    roomItemTable = new Hashtable<>();
-    petDfsStack = new Stack<>();
-    petDfsVisitedStack = new HashSet<>();
+    usedItems = new BitSet();
+    pickedUpItems = new BitSet();
+    aiActionCandidates = new PlayerActionType[PlayerActionType.getLength()];
+    petDfsVisited = new BitSet();
+    petDfsOnStack = new BitSet();
 
-    currentConfig = null;
-
-    reinitializeWithNewConfig(readable);
+    reinitialize(topology);
   }
 
-  private void resetAll() {
-    name = null;
-    width = 0;
-    height = 0;
+  private void reinitialize(WorldTopology topology) {
+    if (topology != this.topology) {
+      this.topology = topology;
+      this.roomGraph = topology.getRoomGraph();
+      initialRoomItems = listRoomItems(topology);
+    }
 
     curPlayerIdx = 0;
     curTurn = 1;
     maxTurn = 0;
     maxItemNumCarried = 0;
-    targetCharacter = null;
-    pet = null;
+    targetCharacter = topology.getTargetCharacterName() == null ? null
+            : new TargetCharacterImpl(topology.getTargetCharacterName(),
+            topology.getTargetCharacterHealth(), 0);
+    pet = topology.getPetName() == null ? null : new PetImpl(0, topology.getPetName());
 
-    roomList.clear();
-    itemList.clear();
     playerList.clear();
     playerItemTable.clear();
     roomPlayerTable.clear();
-    roomAdjacentTable.clear();
-    roomItemTable.clear();
-    petDfsStack.clear();
-    petDfsVisitedStack.clear();
+    roomPlayerCount = new int[topology.getRoomNumber()];
+    occupiedNeighborCount = new int[topology.getRoomNumber()];
+    usedItems.clear();
+    pickedUpItems.clear();
+    //every room is on the stack at most once
+    petDfsStack = new int[topology.getRoomNumber()];
+    resetPetWanderDfs();
 
-    lastTurnInfo.delete(0, resultInfo.length());
+    turnEvents.clear();
     resultInfo.delete(0, resultInfo.length());
+
+    initRoomItemTable();
   }
 
   @Override
   public void reinitializeWithCurrentConfig() {
-    if (currentConfig == null) {
-      throw new IllegalStateException("currentConfig not initialized");
-    }
-    initialize(currentConfig);
+    reinitialize(topology);
   }
 
   @Override
@@ -138,204 +166,23 @@ public class WorldModelImpl implements WorldModel {
     if (readable == null) {
       throw new IllegalArgumentException("readable invalid");
     }
-    StringBuilder sb = new StringBuilder();
-    Scanner scanner = new Scanner(readable);
-    while (scanner.hasNextLine()) {
-      sb.append(scanner.nextLine());
-      sb.append(System.lineSeparator());
-    }
-    initialize(sb.toString());
+    reinitialize(WorldTopologyCache.getInstance().getTopology(readable));
   }
 
-  private void initialize(String config) {
-    if (config == null) {
-      throw new IllegalArgumentException("sb invalid");
-    }
-
-    int worldColumn = 0;
-    int worldRow = 0;
-    String worldName = null;
-    TargetCharacter targetCharacter = null;
-    Pet pet = null;
-    List<Room> roomList = new ArrayList<>();
-    List<Item> itemList = new ArrayList<>();
-
-
-    BufferedReader reader = new BufferedReader(new StringReader(config));
-
-    int currenLine;
-    int leastElement;
-    String line;
-
-    //read world's basic information
-    currenLine = 1;
-    leastElement = 3;
-    try {
-      line = reader.readLine();
-      if (line != null) {
-        line = line.trim();
-        String[] split = line.split("\\s+");
-        if (split.length < leastElement) {
-          throw new IllegalArgumentException(String.format("need at least %d elements in line %d",
-                  leastElement, currenLine));
-        }
-        worldRow = Parser.getInstance().getIntFromString(split[0]);
-        worldColumn = Parser.getInstance().getIntFromString(split[1]);
-        worldName = Parser.getInstance().concatStringWithSpace(split, 2);
-        if (worldRow <= 0) {
-          throw new IllegalArgumentException("world row should be positive");
-        }
-        if (worldColumn <= 0) {
-          throw new IllegalArgumentException("world column should be positive");
-        }
-        if (worldName == null || worldName.trim().isEmpty()) {
-          throw new IllegalArgumentException("world name invalid");
-        }
-      }
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
-
-
-    //read target character's information
-    currenLine++;
-    leastElement = 2;
-    try {
-      line = reader.readLine();
-      if (line != null) {
-        line = line.trim();
-        String[] split = line.split("\\s+");
-        if (split.length < leastElement) {
-          throw new IllegalArgumentException(String.format(
-                  "need at least %d elements in line %d",
-                  leastElement, currenLine));
-        }
-        targetCharacter =
-                new TargetCharacterImpl(Parser.getInstance().concatStringWithSpace(split, 1),
-                        Parser.getInstance().getIntFromString(split[0]), 0
-                );
-      }
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
-
-    //read pet's information
-    currenLine++;
-    try {
-      line = reader.readLine();
-      if (line != null) {
-        line = line.trim();
-        pet = new PetImpl(0, line.trim());
-      }
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
-
-
-    //read rooms' information
-    currenLine++;
-    try {
-      line = reader.readLine();
-      if (line != null) {
-        line = line.trim();
-        int roomNumber = Parser.getInstance().getIntFromString(line);
-        leastElement = 5;
-        for (int it = 0; it < roomNumber; ++it) {
-          currenLine++;
-          line = reader.readLine();
-          if (line != null) {
-            line = line.trim();
-            String[] split = line.split("\\s+");
-            if (split.length < leastElement) {
-              throw new IllegalArgumentException(String.format(
-                      "need at least %d elements in line %d", leastElement, currenLine));
-            }
-            int[] pos = new int[leastElement - 1];
-            for (int it2 = 0; it2 < leastElement - 1; ++it2) {
-              pos[it2] = Parser.getInstance().getIntFromString(split[it2]);
-            }
-            String name = Parser.getInstance().concatStringWithSpace(split, leastElement - 1);
-            Room room = new RoomImpl(it, name, new int[]{pos[0], pos[1]},
-                    new int[]{pos[2], pos[3]});
-            for (int i = 0; i < roomList.size(); ++i) {
-              if (RoomImpl.isRoomOverlapped(roomList.get(i), room)) {
-                throw new IllegalArgumentException(String.format(
-                        "room %s and room %s overlap!",
-                        roomList.get(i).toString(), room.toString()));
-              }
-            }
-            roomList.add(room);
-          }
-        }
-      }
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
-
-
-    //read items' information
-    currenLine++;
-    try {
-      line = reader.readLine();
-      if (line != null) {
-        line = line.trim();
-        int itemNumber = Parser.getInstance().getIntFromString(line);
-        leastElement = 3;
-        for (int it = 0; it < itemNumber; ++it) {
-          currenLine++;
-          line = reader.readLine();
-          if (line != null) {
-            line = line.trim();
-            String[] split = line.split("\\s+");
-            if (split.length < leastElement) {
-              throw new IllegalArgumentException(String.format(
-                      "need at least %d elements in line %d", leastElement, currenLine));
-            }
-            int roomIdx = Parser.getInstance().getIntFromString(split[0]);
-            int attack = Parser.getInstance().getIntFromString(split[1]);
-            String name = Parser.getInstance().concatStringWithSpace(split, leastElement - 1);
-            Item item = new ItemImpl(it, name, attack, roomIdx);
-            itemList.add(item);
-          }
-        }
-      }
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
-
-    for (int i = 0; i < itemList.size(); ++i) {
-      if (itemList.get(i).getRoomIdx() >= roomList.size()) {
-        throw new IllegalStateException(String.format(
-                "item %s has an invalid room index %d",
-                itemList.get(i).getName(), itemList.get(i).getRoomIdx()));
-      }
-    }
-
-    for (int i = 0; i < roomList.size(); ++i) {
-      if (roomList.get(i).getIndex() >= roomList.size()) {
-        throw new IllegalStateException(String.format(
-                "room %s has an invalid index %d", roomList.get(i).getName(),
-                roomList.get(i).getIndex()));
-      }
-    }
-
-    resetAll();
-    currentConfig = config;
-    this.name = worldName;
-    this.width = worldColumn + 1;
-    this.height = worldRow + 1;
-    this.roomList.addAll(roomList);
-    this.itemList.addAll(itemList);
-    this.targetCharacter = targetCharacter;
-    this.pet = pet;
-
-    initRoomItemTable();
-    initAdjacentRoomTable();
+  @Override
+  public void setPlayers(List<String> names, List<Integer> rooms, List<Boolean> isAi)
+          throws IllegalArgumentException {
+    setPlayers(names, rooms, isAi, false, 0);
   }
 
   @Override
-  public void setPlayers(List<String> names, List<Integer> rooms, List<Boolean> isAi)
+  public void setPlayers(List<String> names, List<Integer> rooms, List<Boolean> isAi, long seed)
           throws IllegalArgumentException {
+    setPlayers(names, rooms, isAi, true, seed);
+  }
+
+  private void setPlayers(List<String> names, List<Integer> rooms, List<Boolean> isAi,
+                          boolean seeded, long seed) {
     if (names == null || rooms == null || isAi == null) {
       throw new IllegalArgumentException("parameter is null");
     }
@@ -357,29 +204,29 @@ public class WorldModelImpl implements WorldModel {
         }
       }
       var curRoom = rooms.get(i);
-      if (curRoom < 0 || curRoom >= roomList.size()) {
+      if (curRoom < 0 || curRoom >= topology.getRoomNumber()) {
         throw new IllegalArgumentException(String.format(
-                "room index should be between 0 and %d", roomList.size() - 1));
+                "room index should be between 0 and %d", topology.getRoomNumber() - 1));
       }
     }
 
     playerList.clear();
     this.playerItemTable.clear();
-    this.roomPlayerTable.clear();
+    clearRoomPlayers();
     for (int i = 0; i < names.size(); ++i) {
       Player player = null;
       if (isAi.get(i)) {
-        player = new PlayerAiImpl(names.get(i), rooms.get(i), new AiActionControllerImpl());
+        AiActionController controller = seeded
+                ? new AiActionControllerImpl(AiActionControllerImpl.deriveSeed(seed, i))
+                : new AiActionControllerImpl();
+        player = new PlayerAiImpl(names.get(i), rooms.get(i), controller);
       } else {
         player = new PlayerHumanImpl(names.get(i), rooms.get(i));
       }
       playerList.add(player);
     }
     for (int i = 0; i < playerList.size(); ++i) {
-      if (!this.roomPlayerTable.containsKey(playerList.get(i).getRoomIdx())) {
-        this.roomPlayerTable.put(playerList.get(i).getRoomIdx(), new HashSet<>());
-      }
-      this.roomPlayerTable.get(playerList.get(i).getRoomIdx()).add(i);
+      addPlayerToRoom(i, playerList.get(i).getRoomIdx());
     }
   }
 
@@ -391,15 +238,51 @@ public class WorldModelImpl implements WorldModel {
     if (players.isEmpty()) {
       throw new IllegalArgumentException("list is empty");
     }
+    for (Player player : players) {
+      if (player == null) {
+        throw new IllegalArgumentException("player is null");
+      }
+      if (player.getRoomIdx() < 0 || player.getRoomIdx() >= topology.getRoomNumber()) {
+        throw new IllegalArgumentException(String.format(
+                "room index should be between 0 and %d", topology.getRoomNumber() - 1));
+      }
+    }
     playerList.clear();
     playerList.addAll(players);
     this.playerItemTable.clear();
-    this.roomPlayerTable.clear();
+    clearRoomPlayers();
     for (int i = 0; i < playerList.size(); ++i) {
-      if (!this.roomPlayerTable.containsKey(playerList.get(i).getRoomIdx())) {
-        this.roomPlayerTable.put(playerList.get(i).getRoomIdx(), new HashSet<>());
+      addPlayerToRoom(i, playerList.get(i).getRoomIdx());
+    }
+  }
+
+  private void clearRoomPlayers() {
+    roomPlayerTable.clear();
+    Arrays.fill(roomPlayerCount, 0);
+    Arrays.fill(occupiedNeighborCount, 0);
+  }
+
+  private void addPlayerToRoom(int playerIdx, int roomIdx) {
+    if (!roomPlayerTable.containsKey(roomIdx)) {
+      roomPlayerTable.put(roomIdx, new HashSet<>());
+    }
+    roomPlayerTable.get(roomIdx).add(playerIdx);
+    //a room becoming occupied is seen by all of its neighbors
+    if (roomPlayerCount[roomIdx]++ == 0) {
+      for (int i = roomGraph.getNeighborNumber(roomIdx) - 1; i >= 0; i--) {
+        occupiedNeighborCount[roomGraph.getNeighbor(roomIdx, i)]++;
+      }
+    }
+  }
+
+  private void removePlayerFromRoom(int playerIdx, int roomIdx) {
+    if (roomPlayerTable.containsKey(roomIdx)) {
+      roomPlayerTable.get(roomIdx).remove(playerIdx);
+    }
+    if (--roomPlayerCount[roomIdx] == 0) {
+      for (int i = roomGraph.getNeighborNumber(roomIdx) - 1; i >= 0; i--) {
+        occupiedNeighborCount[roomGraph.getNeighbor(roomIdx, i)]--;
       }
-      this.roomPlayerTable.get(playerList.get(i).getRoomIdx()).add(i);
     }
   }
 
@@ -413,7 +296,7 @@ public class WorldModelImpl implements WorldModel {
 
   @Override
   public void setMaxItemCarried(int maxItemCarried) throws IllegalArgumentException {
-    if (maxItemCarried > itemList.size() || maxItemCarried < 1) {
+    if (maxItemCarried > topology.getItemNumber() || maxItemCarried < 1) {
       throw new IllegalArgumentException("max item number out of range");
     }
     this.maxItemNumCarried = maxItemCarried;
@@ -450,55 +333,47 @@ public class WorldModelImpl implements WorldModel {
     if (aiPlayer.usePredefinedAction()) {
       ac = aiPlayer.getPredefinedAction();
     } else {
-      while (true) {
-        PlayerActionType playerActionType = ((PlayerAi) curPlayer).getRandomAction();
-        boolean validAction = true;
-        switch (playerActionType) {
-          case PICKUP_ITEM: {
-            if (playerItemTable.containsKey(curPlayerIdx)
-                    && playerItemTable.get(curPlayerIdx).size() >= maxItemNumCarried) {
-              continue;
-            }
-            var roomIdx = getCurPlayerRoomIdx();
-            if (!roomItemTable.containsKey(roomIdx) || roomItemTable.get(roomIdx).size() == 0) {
-              validAction = false;
-              continue;
-            }
-            int itemIdx = aiPlayer.getRandomNumber(roomItemTable.get(roomIdx));
-            ac = new AiActionParamImpl(PlayerActionType.PICKUP_ITEM, itemIdx);
-          }
-          break;
-          case MOVE: {
-            var oldRoom = getCurPlayerRoomIdx();
-            var adjacentRooms = getRoomNeighbors(oldRoom);
-            if (adjacentRooms.size() == 0) {
-              validAction = false;
-              continue;
-            }
-            int roomIdx = aiPlayer.getRandomNumber(roomAdjacentTable.get(oldRoom));
-            ac = new AiActionParamImpl(PlayerActionType.MOVE, roomIdx);
-          }
-          break;
-          case MOVE_PET: {
-            while (true) {
-              int roomIdx = aiPlayer.getRandomNumberBetween(0, roomList.size());
-              if (roomIdx != pet.getRoomIdx()) {
-                ac = new AiActionParamImpl(PlayerActionType.MOVE_PET, roomIdx);
-                break;
-              }
-            }
-          }
-          break;
-          case LOOK_AROUND: {
-            ac = new AiActionParamImpl(PlayerActionType.LOOK_AROUND, 0);
+      //only actions valid right now are candidates, each as likely as the others,
+      //so a single draw is enough however few actions are valid
+      var roomIdx = getCurPlayerRoomIdx();
+      int candidateNumber = 0;
+      if (roomGraph.getNeighborNumber(roomIdx) > 0) {
+        aiActionCandidates[candidateNumber++] = PlayerActionType.MOVE;
+      }
+      if (getCurPlayerItemNum() < maxItemNumCarried && roomItemNumber[roomIdx] > 0) {
+        aiActionCandidates[candidateNumber++] = PlayerActionType.PICKUP_ITEM;
+      }
+      aiActionCandidates[candidateNumber++] = PlayerActionType.LOOK_AROUND;
+      if (topology.getRoomNumber() > 1) {
+        aiActionCandidates[candidateNumber++] = PlayerActionType.MOVE_PET;
+      }
+      PlayerActionType playerActionType =
+              aiActionCandidates[aiPlayer.getRandomNumberBetween(0, candidateNumber)];
+      switch (playerActionType) {
+        case PICKUP_ITEM: {
+          int itemIdx = aiPlayer.getRandomNumber(roomItems[roomIdx], 0, roomItemNumber[roomIdx]);
+          ac = new AiActionParamImpl(PlayerActionType.PICKUP_ITEM, itemIdx);
+        }
+        break;
+        case MOVE: {
+          int neighborOrder =
+                  aiPlayer.getRandomNumberBetween(0, roomGraph.getNeighborNumber(roomIdx));
+          ac = new AiActionParamImpl(PlayerActionType.MOVE,
+                  roomGraph.getNeighbor(roomIdx, neighborOrder));
+        }
+        break;
+        case MOVE_PET: {
+          //draw among the other rooms, skipping the pet's room
+          int petRoomIdx = aiPlayer.getRandomNumberBetween(0, topology.getRoomNumber() - 1);
+          if (petRoomIdx >= pet.getRoomIdx()) {
+            petRoomIdx++;
           }
-          break;
-          default:
-            break;
+          ac = new AiActionParamImpl(PlayerActionType.MOVE_PET, petRoomIdx);
         }
-        if (validAction) {
+        break;
+        default:
+          ac = new AiActionParamImpl(PlayerActionType.LOOK_AROUND, 0);
           break;
-        }
       }
     }
 
@@ -539,6 +414,11 @@ public class WorldModelImpl implements WorldModel {
     return targetCharacter.getRoomIdx();
   }
 
+  @Override
+  public int getTargetCharacterHealth() {
+    return targetCharacter.getHealth();
+  }
+
   @Override
   public int getCurPlayerIdx() {
     return curPlayerIdx;
@@ -554,18 +434,18 @@ public class WorldModelImpl implements WorldModel {
 
   @Override
   public int getItemAttack(int itemIdx) {
-    if (itemIdx < 0 || itemIdx >= itemList.size()) {
+    if (itemIdx < 0 || itemIdx >= topology.getItemNumber()) {
       throw new IllegalArgumentException("item index invalid");
     }
-    return itemList.get(itemIdx).getAttack();
+    return topology.getItem(itemIdx).getAttack();
   }
 
   @Override
   public String getItemName(int itemIdx) {
-    if (itemIdx < 0 || itemIdx >= itemList.size()) {
+    if (itemIdx < 0 || itemIdx >= topology.getItemNumber()) {
       throw new IllegalArgumentException("item index invalid");
     }
-    return itemList.get(itemIdx).getName();
+    return topology.getItem(itemIdx).getName();
   }
 
   @Override
@@ -578,18 +458,18 @@ public class WorldModelImpl implements WorldModel {
 
   @Override
   public int[] getRoomLeftTopCorner(int roomIdx) {
-    if (roomIdx < 0 || roomIdx >= roomList.size()) {
+    if (roomIdx < 0 || roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index invalid");
     }
-    return roomList.get(roomIdx).getLeftTopCorner();
+    return topology.getRoom(roomIdx).getLeftTopCorner();
   }
 
   @Override
   public int[] getRoomRightBottomCorner(int roomIdx) {
-    if (roomIdx < 0 || roomIdx >= roomList.size()) {
+    if (roomIdx < 0 || roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index invalid");
     }
-    return roomList.get(roomIdx).getRightBottomCorner();
+    return topology.getRoom(roomIdx).getRightBottomCorner();
   }
 
   @Override
@@ -620,7 +500,7 @@ public class WorldModelImpl implements WorldModel {
       throw new IllegalStateException("current player isn't Human!");
     }
 
-    if (roomIdx < 0 || roomIdx > roomList.size()) {
+    if (roomIdx < 0 || roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("invalid roomIdx!");
     }
     curPlayerMovePet(roomIdx);
@@ -629,37 +509,41 @@ public class WorldModelImpl implements WorldModel {
   private void curPlayerMovePet(int roomIdx) {
     pet.moveTo(roomIdx);
     resetPetWanderDfs();
-    finishCurTurn(String.format("Pet %s is moved to %d-indexed room %s by player %s.\n",
-            pet.getName(), roomIdx, roomList.get(roomIdx).getName(), getCurPlayerName()));
+    turnEvents.add(TurnEventType.PET_MOVED, curPlayerIdx, roomIdx, 0);
+    finishCurTurn();
   }
 
   private void resetPetWanderDfs() {
-    petDfsStack.clear();
-    petDfsVisitedStack.clear();
+    petDfsStackSize = 0;
+    petDfsVisited.clear();
+    petDfsOnStack.clear();
   }
 
   private void petWanderDfs() {
-    if (petDfsStack.empty()) {
-      if (petDfsVisitedStack.size() > 0) {
-        petDfsVisitedStack.clear();
-      }
+    if (petDfsStackSize == 0) {
+      petDfsVisited.clear();
       int roomIdx = pet.getRoomIdx();
-      petDfsVisitedStack.add(roomIdx);
-      List<Integer> neighbors = getRoomNeighbors(roomIdx);
-      for (int i = neighbors.size() - 1; i >= 0; i--) {
-        if (!petDfsVisitedStack.contains(neighbors.get(i))) {
-          petDfsStack.add(neighbors.get(i));
-        }
+      petDfsVisited.set(roomIdx);
+      pushPetDfsNeighbors(roomIdx);
+      if (petDfsStackSize == 0) {
+        //a room without neighbors, the pet stays
+        return;
       }
     }
-    int roomIdx = petDfsStack.pop();
+    int roomIdx = petDfsStack[--petDfsStackSize];
+    petDfsOnStack.clear(roomIdx);
     pet.moveTo(roomIdx);
-    petDfsVisitedStack.add(roomIdx);
-    List<Integer> neighbors = getRoomNeighbors(roomIdx);
-    for (int i = neighbors.size() - 1; i >= 0; i--) {
-      if (!petDfsVisitedStack.contains(neighbors.get(i))
-              && !petDfsStack.contains(neighbors.get(i))) {
-        petDfsStack.add(neighbors.get(i));
+    petDfsVisited.set(roomIdx);
+    pushPetDfsNeighbors(roomIdx);
+  }
+
+  private void pushPetDfsNeighbors(int roomIdx) {
+    //pushed in reverse, so the neighbor with the smallest index is visited first
+    for (int i = roomGraph.getNeighborNumber(roomIdx) - 1; i >= 0; i--) {
+      int neighbor = roomGraph.getNeighbor(roomIdx, i);
+      if (!petDfsVisited.get(neighbor) && !petDfsOnStack.get(neighbor)) {
+        petDfsStack[petDfsStackSize++] = neighbor;
+        petDfsOnStack.set(neighbor);
       }
     }
   }
@@ -677,7 +561,7 @@ public class WorldModelImpl implements WorldModel {
 
     if (itemIdx == -1) {
       curPlayerAttemptPokeEyes();
-    } else if (itemIdx >= 0 && itemIdx < itemList.size()) {
+    } else if (itemIdx >= 0 && itemIdx < topology.getItemNumber()) {
       curPlayerAttemptUseItemAttack(itemIdx);
     } else {
       throw new IllegalArgumentException("invalid itemIdx!");
@@ -685,42 +569,28 @@ public class WorldModelImpl implements WorldModel {
   }
 
   private void curPlayerAttemptPokeEyes() {
-    StringBuilder sb = new StringBuilder();
     if (!curPlayerSeenExceptPetRoomPlayer() && !curPlayerSeenByPetRoomPlayer()) {
       targetCharacter.attacked(1);
-      sb.append(String.format("Player %s pokes %s's eyes successfully.\n",
-              getCurPlayerName(), targetCharacter.getName()));
-      sb.append(String.format(
-              "Target character's health, reduced by %d points, now is %d.\n",
-              1, targetCharacter.getHealth()));
+      turnEvents.add(TurnEventType.EYES_POKED, curPlayerIdx, targetCharacter.getHealth(), 0);
     } else {
-      sb.append(String.format("Player %s's attack attempt failed for being seen by others.\n",
-              getCurPlayerName()));
+      turnEvents.add(TurnEventType.ATTACK_FAILED, curPlayerIdx, 0, 0);
     }
-    finishCurTurn(sb.toString());
+    finishCurTurn();
   }
 
   private void curPlayerAttemptUseItemAttack(int itemIdx) {
-    StringBuilder sb = new StringBuilder();
     if (playerItemTable.containsKey(curPlayerIdx) && playerItemTable.get(curPlayerIdx)
             .contains(itemIdx)) {
-      String itemName = itemList.get(itemIdx).getName();
-
       if (!curPlayerSeenByPetRoomPlayer() && !curPlayerSeenExceptPetRoomPlayer()) {
-        targetCharacter.attacked(itemList.get(itemIdx).getAttack());
-        sb.append(String.format("Player %s attempts attack with item %s successfully.\n",
-                getCurPlayerName(), itemName));
-        sb.append(String.format(
-                "Target character's health, reduced by %d points, now is %d.\n",
-                itemList.get(itemIdx).getAttack(), targetCharacter.getHealth()));
+        targetCharacter.attacked(topology.getItem(itemIdx).getAttack());
+        turnEvents.add(TurnEventType.ITEM_ATTACKED, curPlayerIdx, itemIdx,
+                targetCharacter.getHealth());
       } else {
-        sb.append(String.format("Player %s's attack attempt failed for being seen by others.\n",
-                getCurPlayerName()));
+        turnEvents.add(TurnEventType.ATTACK_FAILED, curPlayerIdx, 0, 0);
       }
       removeUsedItem(itemIdx);
-      sb.append(String.format("Item %s is removed from the game.\n",
-              itemList.get(itemIdx).getName()));
-      finishCurTurn(sb.toString());
+      turnEvents.add(TurnEventType.ITEM_REMOVED, itemIdx, 0, 0);
+      finishCurTurn();
     } else {
       throw new IllegalArgumentException("item doesn't belong to current player!");
     }
@@ -729,8 +599,7 @@ public class WorldModelImpl implements WorldModel {
   private void removeUsedItem(int itemIdx) {
     if (playerItemTable.containsKey(curPlayerIdx) && playerItemTable.get(curPlayerIdx)
             .contains(itemIdx)) {
-      Item it = itemList.get(itemIdx);
-      it.setUsed();
+      usedItems.set(itemIdx);
       playerItemTable.get(curPlayerIdx).remove(Integer.valueOf(itemIdx));
     }
   }
@@ -743,8 +612,8 @@ public class WorldModelImpl implements WorldModel {
       int highestAttack = 0;
       int retIdx = 0;
       for (var i : items) {
-        Item it = itemList.get(i);
-        if (it.hasBeenUsed()) {
+        Item it = topology.getItem(i);
+        if (usedItems.get(i)) {
           continue;
         }
         if (it.getAttack() > highestAttack) {
@@ -758,46 +627,29 @@ public class WorldModelImpl implements WorldModel {
 
   private boolean curPlayerSeenExceptPetRoomPlayer() {
     var roomIdx = getCurPlayerRoomIdx();
-    var players = roomPlayerTable.get(roomIdx);
-    if (players.size() > 1) {
+    if (roomPlayerCount[roomIdx] > 1) {
       return true;
     }
-    if (pet.getRoomIdx() == roomIdx) {
+    var petRoomIdx = pet.getRoomIdx();
+    if (petRoomIdx == roomIdx) {
       return false;
     }
-    var neighbor = getRoomNeighbors(roomIdx);
-    if (neighbor != null && neighbor.size() > 0) {
-      for (var n : neighbor) {
-        if (pet.getRoomIdx() == n) {
-          continue;
-        }
-        players = roomPlayerTable.get(n);
-        if (players != null && players.size() >= 1) {
-          return true;
-        }
-      }
+    //players in the pet's room can't be seen, so that room doesn't count
+    int occupied = occupiedNeighborCount[roomIdx];
+    if (occupied > 0 && roomPlayerCount[petRoomIdx] > 0
+            && roomGraph.isAdjacent(roomIdx, petRoomIdx)) {
+      occupied--;
     }
-    return false;
+    return occupied > 0;
   }
 
   private boolean curPlayerSeenByPetRoomPlayer() {
     var roomIdx = getCurPlayerRoomIdx();
     var petRoomIdx = pet.getRoomIdx();
-    if (RoomImpl.isRoomAdjacent(roomList.get(roomIdx), roomList.get(petRoomIdx), 1)) {
-      if (roomPlayerTable.containsKey(petRoomIdx)) {
-        Set<Integer> players = roomPlayerTable.get(petRoomIdx);
-        if (players.size() > 0) {
-          return true;
-        }
-        return false;
-      } else {
-        return false;
-      }
-    } else if (roomIdx == petRoomIdx) {
-      return roomPlayerTable.containsKey(roomIdx) && roomPlayerTable.get(roomIdx).size() > 1;
-    } else {
-      return false;
+    if (roomIdx == petRoomIdx) {
+      return roomPlayerCount[roomIdx] > 1;
     }
+    return roomPlayerCount[petRoomIdx] > 0 && roomGraph.isAdjacent(roomIdx, petRoomIdx);
   }
 
   /**
@@ -873,10 +725,10 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public String getRoomName(int roomIdx) throws IllegalArgumentException {
-    if (roomIdx < 0 || roomIdx >= roomList.size()) {
+    if (roomIdx < 0 || roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index can't be negative or exceed max room index!");
     }
-    return roomList.get(roomIdx).getName();
+    return topology.getRoom(roomIdx).getName();
   }
 
   /**
@@ -896,7 +748,7 @@ public class WorldModelImpl implements WorldModel {
     if (playerItemTable.containsKey(playerIdx) && playerItemTable.get(playerIdx).size() > 0) {
       sb.append(String.format("Carried %d item(s):\n", playerItemTable.get(playerIdx).size()));
       for (var idx : playerItemTable.get(playerIdx)) {
-        Item item = itemList.get(idx);
+        Item item = topology.getItem(idx);
         sb.append(item.toString());
       }
     } else {
@@ -926,7 +778,7 @@ public class WorldModelImpl implements WorldModel {
       throw new IllegalStateException("current player isn't Human!");
     }
 
-    if (roomIdx < 0 || roomIdx >= roomList.size()) {
+    if (roomIdx < 0 || roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("invalid roomIdx index!");
     }
 
@@ -934,8 +786,7 @@ public class WorldModelImpl implements WorldModel {
     if (roomIdx == oldRoom) {
       throw new IllegalArgumentException("equal to current room!");
     }
-    var adjacentRooms = getRoomNeighbors(oldRoom);
-    if (!adjacentRooms.contains(roomIdx)) {
+    if (!roomGraph.isAdjacent(oldRoom, roomIdx)) {
       throw new IllegalArgumentException("not neighbor!");
     }
     curPlayerMoveToNeighborRoom(roomIdx);
@@ -984,13 +835,12 @@ public class WorldModelImpl implements WorldModel {
       throw new IllegalStateException("max items carried!");
     }
     var roomIdx = getCurPlayerRoomIdx();
-    if (!roomItemTable.containsKey(roomIdx) || !roomItemTable.get(roomIdx).contains(itemIdx)) {
+    if (itemIdx < 0 || itemIdx >= topology.getItemNumber() || pickedUpItems.get(itemIdx)
+            || topology.getItem(itemIdx).getRoomIdx() != roomIdx) {
       throw new IllegalStateException("item isn't in the room!");
     }
 
-    if (roomItemTable.containsKey(roomIdx) && roomItemTable.get(roomIdx).contains(itemIdx)) {
-      curPlayerPickUpItem(itemIdx);
-    }
+    curPlayerPickUpItem(itemIdx);
   }
 
   private void curPlayerPickUpItem(int itemIdx) {
@@ -999,72 +849,49 @@ public class WorldModelImpl implements WorldModel {
       playerItemTable.put(curPlayerIdx, new ArrayList<>());
     }
     playerItemTable.get(curPlayerIdx).add(itemIdx);
-    roomItemTable.get(roomIdx).remove(itemIdx);
-    if (roomItemTable.get(roomIdx).size() == 0) {
-      roomItemTable.remove(roomIdx);
-    }
-    finishCurTurn(String.format(
-            "%d-indexed Player %s picks up %d-indexed item %s (atk:%d) from %d-indexed room %s\n",
-            curPlayerIdx, playerList.get(curPlayerIdx).getName(), itemIdx,
-            itemList.get(itemIdx).getName(), itemList.get(itemIdx).getAttack(),
-            roomIdx, roomList.get(roomIdx).getName()));
+    pickedUpItems.set(itemIdx);
+    int order = 0;
+    while (roomItems[roomIdx][order] != itemIdx) {
+      order++;
+    }
+    System.arraycopy(roomItems[roomIdx], order + 1, roomItems[roomIdx], order,
+            roomItemNumber[roomIdx] - order - 1);
+    roomItemNumber[roomIdx]--;
+    turnEvents.add(TurnEventType.ITEM_PICKED_UP, curPlayerIdx, itemIdx, roomIdx);
+    finishCurTurn();
   }
 
   private void curPlayerMoveToNeighborRoom(int roomIdx) {
     var oldRoom = getCurPlayerRoomIdx();
-    if (roomPlayerTable.containsKey(oldRoom)) {
-      roomPlayerTable.get(oldRoom).remove(curPlayerIdx);
-    }
-    if (!roomPlayerTable.containsKey(roomIdx)) {
-      roomPlayerTable.put(roomIdx, new HashSet<>());
-    }
-    roomPlayerTable.get(roomIdx).add(curPlayerIdx);
+    removePlayerFromRoom(curPlayerIdx, oldRoom);
+    addPlayerToRoom(curPlayerIdx, roomIdx);
     playerList.get(curPlayerIdx).moveTo(roomIdx);
 
-    finishCurTurn(String.format(
-            "%d-indexed Player %s moves from %d-indexed room %s to %d-indexed room %s.\n",
-            curPlayerIdx, playerList.get(curPlayerIdx).getName(), oldRoom,
-            roomList.get(oldRoom).getName(), roomIdx, roomList.get(roomIdx).getName()));
+    turnEvents.add(TurnEventType.PLAYER_MOVED, curPlayerIdx, oldRoom, roomIdx);
+    finishCurTurn();
   }
 
-  private String curPlayerDisplayNeighbor() throws IllegalArgumentException {
+  private void curPlayerDisplayNeighbor() {
     var roomIdx = getCurPlayerRoomIdx();
-    var neighbors = roomAdjacentTable.get(roomIdx);
-    if (neighbors == null || neighbors.size() == 0) {
-      finishCurTurn("No neighbor rooms.\n");
-      return getLastTurnMsg();
-    }
-    StringBuilder sb = new StringBuilder();
-    sb.append("The room current player is in:\n");
-    sb.append(String.format("Room index:%d. Name:%s.\n",
-            roomList.get(roomIdx).getIndex(), roomList.get(roomIdx).getName()));
-    sb.append(printRoomInfo(roomIdx));
-    sb.append("Neighbor rooms:\n");
-    for (var r : neighbors) {
-      sb.append(String.format("Room index:%d. Name:%s.\n",
-              roomList.get(r).getIndex(), roomList.get(r).getName()));
-      if (r != pet.getRoomIdx()) {
-        sb.append(printRoomInfo(r));
-      }
+    if (roomGraph.getNeighborNumber(roomIdx) == 0) {
+      turnEvents.add(TurnEventType.NO_NEIGHBOR, 0, 0, 0);
+    } else {
+      //the target character and the pet move before the text is rendered
+      turnEvents.add(TurnEventType.LOOKED_AROUND, roomIdx, targetCharacter.getRoomIdx(),
+              pet.getRoomIdx());
     }
-    finishCurTurn(sb.toString());
-    return getLastTurnMsg();
+    finishCurTurn();
   }
 
-  private void finishCurTurn(String str) {
-    lastTurnInfo.delete(0, lastTurnInfo.length());
-    lastTurnInfo.append(str);
+  private void finishCurTurn() {
     var oldRoom = targetCharacter.getRoomIdx();
     if (targetCharacter.getHealth() > 0) {
       moveTargetCharacter();
-      lastTurnInfo.append(String.format(
-              "Target player moves from %d-indexed room to %d-indexed room.\n",
-              oldRoom, targetCharacter.getRoomIdx()));
+      turnEvents.add(TurnEventType.TARGET_MOVED, oldRoom, targetCharacter.getRoomIdx(), 0);
     }
     petWanderDfs();
-    //    System.out.println(String.format("Pet %s moves to %d-indexed room.\n",
-    //            pet.getName(), pet.getRoomIdx()));
-    lastTurnInfo.append(String.format("Round %d finish.\n", curTurn));
+    turnEvents.add(TurnEventType.ROUND_FINISHED, curTurn, 0, 0);
+    turnEvents.finish();
     if (targetCharacter.getHealth() == 0) {
       resultInfo.append(String.format("Target character is killed! Winner is %s.\n",
               getCurPlayerName()));
@@ -1078,6 +905,95 @@ public class WorldModelImpl implements WorldModel {
     curPlayerIdx = (curPlayerIdx + 1) % playerList.size();
   }
 
+  private void renderTurnEvent(StringBuilder sb, int idx) {
+    switch (turnEvents.getType(idx)) {
+      case PET_MOVED: {
+        int roomIdx = turnEvents.getParam(idx, 1);
+        sb.append(String.format("Pet %s is moved to %d-indexed room %s by player %s.\n",
+                pet.getName(), roomIdx, topology.getRoom(roomIdx).getName(),
+                playerList.get(turnEvents.getParam(idx, 0)).getName()));
+      }
+      break;
+      case EYES_POKED:
+        sb.append(String.format("Player %s pokes %s's eyes successfully.\n",
+                playerList.get(turnEvents.getParam(idx, 0)).getName(),
+                targetCharacter.getName()));
+        sb.append(String.format(
+                "Target character's health, reduced by %d points, now is %d.\n",
+                1, turnEvents.getParam(idx, 1)));
+        break;
+      case ITEM_ATTACKED: {
+        Item item = topology.getItem(turnEvents.getParam(idx, 1));
+        sb.append(String.format("Player %s attempts attack with item %s successfully.\n",
+                playerList.get(turnEvents.getParam(idx, 0)).getName(), item.getName()));
+        sb.append(String.format(
+                "Target character's health, reduced by %d points, now is %d.\n",
+                item.getAttack(), turnEvents.getParam(idx, 2)));
+      }
+      break;
+      case ATTACK_FAILED:
+        sb.append(String.format("Player %s's attack attempt failed for being seen by others.\n",
+                playerList.get(turnEvents.getParam(idx, 0)).getName()));
+        break;
+      case ITEM_REMOVED:
+        sb.append(String.format("Item %s is removed from the game.\n",
+                topology.getItem(turnEvents.getParam(idx, 0)).getName()));
+        break;
+      case ITEM_PICKED_UP: {
+        int playerIdx = turnEvents.getParam(idx, 0);
+        Item item = topology.getItem(turnEvents.getParam(idx, 1));
+        int roomIdx = turnEvents.getParam(idx, 2);
+        sb.append(String.format("%d-indexed Player %s picks up %d-indexed item %s (atk:%d) "
+                        + "from %d-indexed room %s\n",
+                playerIdx, playerList.get(playerIdx).getName(), item.getIndex(),
+                item.getName(), item.getAttack(), roomIdx, topology.getRoom(roomIdx).getName()));
+      }
+      break;
+      case PLAYER_MOVED: {
+        int playerIdx = turnEvents.getParam(idx, 0);
+        int oldRoom = turnEvents.getParam(idx, 1);
+        int roomIdx = turnEvents.getParam(idx, 2);
+        sb.append(String.format(
+                "%d-indexed Player %s moves from %d-indexed room %s to %d-indexed room %s.\n",
+                playerIdx, playerList.get(playerIdx).getName(), oldRoom,
+                topology.getRoom(oldRoom).getName(), roomIdx, topology.getRoom(roomIdx).getName()));
+      }
+      break;
+      case NO_NEIGHBOR:
+        sb.append("No neighbor rooms.\n");
+        break;
+      case LOOKED_AROUND: {
+        int roomIdx = turnEvents.getParam(idx, 0);
+        int targetRoomIdx = turnEvents.getParam(idx, 1);
+        int petRoomIdx = turnEvents.getParam(idx, 2);
+        sb.append("The room current player is in:\n");
+        sb.append(String.format("Room index:%d. Name:%s.\n",
+                topology.getRoom(roomIdx).getIndex(), topology.getRoom(roomIdx).getName()));
+        sb.append(printRoomInfo(roomIdx, targetRoomIdx, petRoomIdx));
+        sb.append("Neighbor rooms:\n");
+        for (int i = 0; i < roomGraph.getNeighborNumber(roomIdx); ++i) {
+          int r = roomGraph.getNeighbor(roomIdx, i);
+          sb.append(String.format("Room index:%d. Name:%s.\n",
+                  topology.getRoom(r).getIndex(), topology.getRoom(r).getName()));
+          if (r != petRoomIdx) {
+            sb.append(printRoomInfo(r, targetRoomIdx, petRoomIdx));
+          }
+        }
+      }
+      break;
+      case TARGET_MOVED:
+        sb.append(String.format(
+                "Target player moves from %d-indexed room to %d-indexed room.\n",
+                turnEvents.getParam(idx, 0), turnEvents.getParam(idx, 1)));
+        break;
+      case ROUND_FINISHED:
+        sb.append(String.format("Round %d finish.\n", turnEvents.getParam(idx, 0)));
+        break;
+      default:
+        break;
+    }
+  }
+
   /**
    * Get the information of the previous turn.
    *
@@ -1085,7 +1001,11 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public String getLastTurnMsg() {
-    return lastTurnInfo.toString();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < turnEvents.size(); ++i) {
+      renderTurnEvent(sb, i);
+    }
+    return sb.toString();
   }
 
   @Override
@@ -1114,7 +1034,7 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public int getRoomNumber() {
-    return roomList.size();
+    return topology.getRoomNumber();
   }
 
   /**
@@ -1124,7 +1044,7 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public int getItemNumber() {
-    return itemList.size();
+    return topology.getItemNumber();
   }
 
   /**
@@ -1139,36 +1059,35 @@ public class WorldModelImpl implements WorldModel {
     if (roomIdx < 0) {
       throw new IllegalArgumentException("room index shouldn't be negative");
     }
-    if (roomIdx >= roomList.size()) {
+    if (roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index shouldn't be bigger than rooms' total number");
     }
-    List<Integer> ret = new ArrayList<>();
-    if (roomAdjacentTable.containsKey(roomIdx)) {
-      ret.addAll(roomAdjacentTable.get(roomIdx));
-    }
-    return ret;
+    return roomGraph.getNeighbors(roomIdx);
   }
 
-  private void initAdjacentRoomTable() {
-    for (int i = 0; i < roomList.size(); ++i) {
-      for (int j = i + 1; j < roomList.size(); ++j) {
-        try {
-          if (RoomImpl.isRoomAdjacent(roomList.get(i), roomList.get(j), wallThickness)) {
-            if (!roomAdjacentTable.containsKey(i)) {
-              roomAdjacentTable.put(i, new ArrayList<>());
-            }
-            roomAdjacentTable.get(i).add(j);
+  /**
+   * Get the number of adjacent rooms of a given room.
+   *
+   * @param roomIdx target room's index
+   * @return the number of adjacent rooms
+   * @throws IllegalArgumentException index is negative,or over the number of the list
+   */
+  @Override
+  public int getRoomNeighborNumber(int roomIdx) throws IllegalArgumentException {
+    return roomGraph.getNeighborNumber(roomIdx);
+  }
 
-            if (!roomAdjacentTable.containsKey(j)) {
-              roomAdjacentTable.put(j, new ArrayList<>());
-            }
-            roomAdjacentTable.get(j).add(i);
-          }
-        } catch (IllegalArgumentException ex) {
-          throw new IllegalArgumentException(ex);
-        }
-      }
-    }
+  /**
+   * Get the adjacent room of a given room in the given order.
+   *
+   * @param roomIdx target room's index
+   * @param order   order of the adjacent room, neighbors are sorted by index
+   * @return index of the adjacent room
+   * @throws IllegalArgumentException roomIdx or order is out of range
+   */
+  @Override
+  public int getRoomNeighbor(int roomIdx, int order) throws IllegalArgumentException {
+    return roomGraph.getNeighbor(roomIdx, order);
   }
 
   /**
@@ -1183,29 +1102,51 @@ public class WorldModelImpl implements WorldModel {
     if (roomIdx < 0) {
       throw new IllegalArgumentException("room index shouldn't be negative");
     }
-    if (roomIdx >= roomList.size()) {
+    if (roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index shouldn't be bigger than rooms' total number");
     }
-    List<Integer> ret = new ArrayList<>();
-    if (roomItemTable.containsKey(roomIdx)) {
-      ret.addAll(roomItemTable.get(roomIdx));
+    List<Integer> ret = new ArrayList<>(roomItemNumber[roomIdx]);
+    for (int i = 0; i < roomItemNumber[roomIdx]; ++i) {
+      ret.add(roomItems[roomIdx][i]);
     }
     return ret;
   }
 
   private void initRoomItemTable() {
-    for (int i = 0; i < itemList.size(); ++i) {
-      int roomIdx = itemList.get(i).getRoomIdx();
-      if (!roomItemTable.containsKey(roomIdx)) {
-        roomItemTable.put(roomIdx, new HashSet<>());
+    //items are only taken out of rooms, so the arrays never grow
+    int roomNumber = topology.getRoomNumber();
+    roomItems = new int[roomNumber][];
+    roomItemNumber = new int[roomNumber];
+    for (int r = 0; r < roomNumber; ++r) {
+      roomItems[r] = initialRoomItems[r].clone();
+      roomItemNumber[r] = roomItems[r].length;
+    }
+  }
+
+  private static int[][] listRoomItems(WorldTopology topology) {
+    //rooms have always listed their items in the iteration order of a HashSet,
+    //which is worked out once per topology so a game only copies the arrays
+    List<Set<Integer>> sets = new ArrayList<>();
+    for (int r = 0; r < topology.getRoomNumber(); ++r) {
+      sets.add(new HashSet<>());
+    }
+    for (int i = 0; i < topology.getItemNumber(); ++i) {
+      sets.get(topology.getItem(i).getRoomIdx()).add(i);
+    }
+    int[][] ret = new int[sets.size()][];
+    for (int r = 0; r < sets.size(); ++r) {
+      ret[r] = new int[sets.get(r).size()];
+      int k = 0;
+      for (int i : sets.get(r)) {
+        ret[r][k++] = i;
       }
-      roomItemTable.get(roomIdx).add(i);
     }
+    return ret;
   }
 
   private void moveTargetCharacter() {
     int idx = targetCharacter.getRoomIdx() + 1;
-    if (idx == roomList.size()) {
+    if (idx == topology.getRoomNumber()) {
       idx = 0;
     }
     targetCharacter.moveTo(idx);
@@ -1222,10 +1163,13 @@ public class WorldModelImpl implements WorldModel {
     if (roomIdx < 0) {
       throw new IllegalArgumentException("room index shouldn't be negative");
     }
-    if (roomIdx >= roomList.size()) {
+    if (roomIdx >= topology.getRoomNumber()) {
       throw new IllegalArgumentException("room index shouldn't be bigger than rooms' total number");
     }
+    return printRoomInfo(roomIdx, targetCharacter.getRoomIdx(), pet.getRoomIdx());
+  }
 
+  private String printRoomInfo(int roomIdx, int targetRoomIdx, int petRoomIdx) {
     List<Integer> items = getRoomItems(roomIdx);
     StringBuilder sb = new StringBuilder();
 
@@ -1233,17 +1177,18 @@ public class WorldModelImpl implements WorldModel {
       sb.append(String.format("--%d items are in the room:\n", items.size()));
       for (Integer idx : items) {
         sb.append("\t");
-        sb.append(itemList.get(idx));
+        sb.append(topology.getItem(idx));
       }
     }
 
-    if (targetCharacter.getRoomIdx() == roomIdx) {
+    if (targetRoomIdx == roomIdx) {
       sb.append("--Target character is in the room:\n");
       sb.append("\t");
-      sb.append(targetCharacter);
+      sb.append(String.format("Name:%s. RoomIdx:%d. Health:%d.\n",
+              targetCharacter.getName(), targetRoomIdx, targetCharacter.getHealth()));
     }
 
-    if (pet.getRoomIdx() == roomIdx) {
+    if (petRoomIdx == roomIdx) {
       sb.append("--Pet is in the room:\n");
       sb.append("\t");
       sb.append(pet.getName());
@@ -1260,13 +1205,14 @@ public class WorldModelImpl implements WorldModel {
       }
     }
 
-    List<Integer> adjacentRooms = getRoomNeighbors(roomIdx);
-    if (adjacentRooms != null && adjacentRooms.size() > 0) {
-      sb.append(String.format("--%d adjacent rooms:\n", adjacentRooms.size()));
-      for (Integer idx : adjacentRooms) {
+    int adjacentRoomNum = roomGraph.getNeighborNumber(roomIdx);
+    if (adjacentRoomNum > 0) {
+      sb.append(String.format("--%d adjacent rooms:\n", adjacentRoomNum));
+      for (int i = 0; i < adjacentRoomNum; ++i) {
+        int idx = roomGraph.getNeighbor(roomIdx, i);
         sb.append("\t");
         sb.append(String.format("Room index:%d. Name:%s.\n",
-                roomList.get(idx).getIndex(), roomList.get(idx).getName()));
+                topology.getRoom(idx).getIndex(), topology.getRoom(idx).getName()));
       }
     }
 
@@ -1284,45 +1230,10 @@ public class WorldModelImpl implements WorldModel {
   @Override
   public void outputMapImage(String imgFilePath, int imgScale)
           throws IllegalArgumentException, UncheckedIOException {
-    if (imgScale <= 1) {
-      throw new IllegalArgumentException("imgScale should be at least 2");
-    }
-    if (imgScale % 2 != 0) {
-      throw new IllegalArgumentException("imgScale should be even");
-    }
     if (imgFilePath == null || imgFilePath.isEmpty()) {
       throw new IllegalArgumentException("imgFilePath invalid");
     }
-
-    int halfUnit = (int) (imgScale * 0.5f);
-    int imgWidth = imgScale * width + halfUnit * 2;
-    int imgHeight = imgScale * height + halfUnit * 2;
-    BufferedImage img = new BufferedImage(imgWidth, imgHeight, BufferedImage.TYPE_4BYTE_ABGR);
-    Graphics2D graphics2D = img.createGraphics();
-    for (int i = 0; i < roomList.size(); ++i) {
-      Room room = roomList.get(i);
-      int[] leftTopCorner = room.getLeftTopCorner();
-      //-1 for wall thickness
-      //+halfUnit*2 for neighbor wall overlay
-      int width = (room.getWidth() - 1) * imgScale + halfUnit * 2;
-      int height = (room.getHeight() - 1) * imgScale + halfUnit * 2;
-      int leftTopX = leftTopCorner[1] * imgScale + halfUnit;
-      int leftTopY = leftTopCorner[0] * imgScale + halfUnit;
-      graphics2D.setColor(Color.black);
-      graphics2D.drawRect(leftTopX, leftTopY, width, height);
-      graphics2D.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-              RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-      graphics2D.setColor(Color.BLUE);
-      Font font = new Font("Microsoft YaHei", Font.BOLD, imgScale / 3);
-      graphics2D.setFont(font);
-
-      FontMetrics metrics = graphics2D.getFontMetrics(font);
-      int x = leftTopX + (width - metrics.stringWidth(room.getName())) / 2;
-      int y = leftTopY + ((height - metrics.getHeight()) / 2) + metrics.getAscent();
-
-      graphics2D.drawString(room.getName(), x, y);
-    }
-    graphics2D.dispose();
+    BufferedImage img = renderMapImage(imgScale);
     Path path = Paths.get(imgFilePath);
     if (Files.exists(path)) {
       try {
@@ -1338,6 +1249,345 @@ public class WorldModelImpl implements WorldModel {
     }
   }
 
+  @Override
+  public BufferedImage renderMapImage(int imgScale) throws IllegalArgumentException {
+    return MapImageCache.getInstance().getImage(topology, imgScale);
+  }
+
+  @Override
+  public BufferedImage renderMapTile(int imgScale, int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return MapRenderer.renderTile(topology, imgScale, x, y, width, height);
+  }
+
+  //All numbers of a snapshot are big-endian. A string is its length in UTF-8 bytes followed by
+  //the bytes, a bit set is its number of longs followed by the longs. The layout is:
+  //magic, version, the topology's content hash, current turn, current player, max turn,
+  //max item carried, target character's room and health, pet's room (-1 for no character),
+  //player number, then name, room and whether AI of every player, with the state of the
+  //controller of an AI player, see AiActionControllerImpl.saveState,
+  //the items of every player (-1 for none), items picked up, items used,
+  //the pet's DFS stack, visited rooms and rooms on the stack,
+  //the events of the last turn and whether it is finished, and the game result.
+  //Items left in the rooms follow from the items picked up, since taking an item out of
+  //a room keeps the order of the others.
+
+  @Override
+  public byte[] saveSnapshot() throws IllegalStateException {
+    for (Player player : playerList) {
+      if (player.getPlayerType() == PlayerType.AI
+              && AiActionControllerImpl.savableControllerOf(player) == null) {
+        throw new IllegalStateException(String.format(
+                "controller of AI player %s can't be saved", player.getName()));
+      }
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      writeString(out, topology.getContentHash());
+      out.writeInt(curTurn);
+      out.writeInt(curPlayerIdx);
+      out.writeInt(maxTurn);
+      out.writeInt(maxItemNumCarried);
+      out.writeInt(targetCharacter == null ? -1 : targetCharacter.getRoomIdx());
+      out.writeInt(targetCharacter == null ? 0 : targetCharacter.getHealth());
+      out.writeInt(pet == null ? -1 : pet.getRoomIdx());
+
+      out.writeInt(playerList.size());
+      for (Player player : playerList) {
+        writeString(out, player.getName());
+        out.writeInt(player.getRoomIdx());
+        out.writeBoolean(player.getPlayerType() == PlayerType.AI);
+        if (player.getPlayerType() == PlayerType.AI) {
+          AiActionControllerImpl.savableControllerOf(player).saveState(out);
+        }
+      }
+      for (int i = 0; i < playerList.size(); ++i) {
+        List<Integer> items = playerItemTable.get(i);
+        out.writeInt(items == null ? -1 : items.size());
+        if (items != null) {
+          for (int item : items) {
+            out.writeInt(item);
+          }
+        }
+      }
+      writeBits(out, pickedUpItems);
+      writeBits(out, usedItems);
+
+      out.writeInt(petDfsStackSize);
+      for (int i = 0; i < petDfsStackSize; ++i) {
+        out.writeInt(petDfsStack[i]);
+      }
+      writeBits(out, petDfsVisited);
+      writeBits(out, petDfsOnStack);
+
+      int[] events = turnEvents.toArray();
+      out.writeInt(events.length);
+      for (int event : events) {
+        out.writeInt(event);
+      }
+      out.writeBoolean(turnEvents.isFinished());
+      writeString(out, resultInfo.toString());
+      out.flush();
+    } catch (IOException ioe) {
+      //writing to memory doesn't fail
+      throw new UncheckedIOException(ioe);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public void loadSnapshot(byte[] snapshot) throws IllegalArgumentException {
+    loadSnapshot(snapshot, (playerIdx, restored) -> restored);
+  }
+
+  /**
+   * Restore the state of the game saved by saveSnapshot.
+   *
+   * @param snapshot      the snapshot
+   * @param aiControllers gives the controller the AI player of an index takes,
+   *                      from the controller restored
+   * @throws IllegalArgumentException snapshot is null, or isn't a snapshot of the current
+   *                                  version, or is of another world, or is damaged
+   */
+  void loadSnapshot(byte[] snapshot,
+                    BiFunction<Integer, AiActionControllerImpl, AiActionController> aiControllers)
+          throws IllegalArgumentException {
+    if (snapshot == null) {
+      throw new IllegalArgumentException("snapshot is null");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    int roomNumber = topology.getRoomNumber();
+    int itemNumber = topology.getItemNumber();
+    //everything is read and checked before the state is changed
+    try {
+      if (buffer.getInt() != SNAPSHOT_MAGIC) {
+        throw new IllegalArgumentException("data isn't a snapshot");
+      }
+      int version = buffer.getInt();
+      if (version != SNAPSHOT_VERSION) {
+        throw new IllegalArgumentException(String.format(
+                "snapshot version %d isn't supported, expected %d", version, SNAPSHOT_VERSION));
+      }
+      if (!topology.getContentHash().equals(readString(buffer))) {
+        throw new IllegalArgumentException("snapshot is of another world");
+      }
+      int newCurTurn = buffer.getInt();
+      int newCurPlayerIdx = buffer.getInt();
+      int newMaxTurn = buffer.getInt();
+      int newMaxItemNumCarried = buffer.getInt();
+      int targetRoomIdx = buffer.getInt();
+      int targetHealth = buffer.getInt();
+      int petRoomIdx = buffer.getInt();
+      //zero if not set yet, otherwise as setMaxTurn and setMaxItemCarried take them
+      if (newMaxTurn < 0 || newMaxItemNumCarried < 0 || newMaxItemNumCarried > itemNumber) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+      if ((targetRoomIdx < 0) != (targetCharacter == null) || (petRoomIdx < 0) != (pet == null)
+              || targetRoomIdx >= roomNumber || petRoomIdx >= roomNumber) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+      TargetCharacter newTargetCharacter = targetCharacter == null ? null
+              : new TargetCharacterImpl(topology.getTargetCharacterName(),
+              targetHealth, targetRoomIdx);
+      Pet newPet = pet == null ? null : new PetImpl(petRoomIdx, topology.getPetName());
+
+      //a player takes at least a name length, a room and a byte
+      int playerNumber = readLength(buffer, 2 * Integer.BYTES + 1);
+      List<Player> players = new ArrayList<>(playerNumber);
+      Set<String> names = new HashSet<>();
+      for (int i = 0; i < playerNumber; ++i) {
+        String name = readString(buffer);
+        //names are as setPlayers takes them
+        if (name.isBlank() || !names.add(name)) {
+          throw new IllegalArgumentException("snapshot is damaged");
+        }
+        int roomIdx = readIndex(buffer, roomNumber);
+        if (buffer.get() != 0) {
+          AiActionControllerImpl controller;
+          try {
+            controller = AiActionControllerImpl.loadState(buffer);
+          } catch (IllegalArgumentException iae) {
+            throw new IllegalArgumentException("snapshot is damaged");
+          }
+          players.add(new PlayerAiImpl(name, roomIdx, aiControllers.apply(i, controller)));
+        } else {
+          players.add(new PlayerHumanImpl(name, roomIdx));
+        }
+      }
+      if (newCurTurn < 1 || newCurPlayerIdx < 0
+              || newCurPlayerIdx >= Math.max(playerNumber, 1)) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+      List<List<Integer>> playerItems = new ArrayList<>(playerNumber);
+      BitSet carriedItems = new BitSet(itemNumber);
+      for (int i = 0; i < playerNumber; ++i) {
+        List<Integer> items = null;
+        int carriedNumber = buffer.getInt();
+        if (carriedNumber >= 0) {
+          checkLength(buffer, carriedNumber, Integer.BYTES);
+          items = new ArrayList<>(carriedNumber);
+          for (int j = 0; j < carriedNumber; ++j) {
+            int item = readIndex(buffer, itemNumber);
+            if (carriedItems.get(item)) {
+              throw new IllegalArgumentException("snapshot is damaged");
+            }
+            carriedItems.set(item);
+            items.add(item);
+          }
+        }
+        playerItems.add(items);
+      }
+      BitSet newPickedUpItems = readBits(buffer, itemNumber);
+      BitSet newUsedItems = readBits(buffer, itemNumber);
+      //an item picked up is either carried by one player or used, never both
+      BitSet ownedItems = (BitSet) carriedItems.clone();
+      ownedItems.or(newUsedItems);
+      if (carriedItems.intersects(newUsedItems) || !ownedItems.equals(newPickedUpItems)) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+
+      int newPetDfsStackSize = buffer.getInt();
+      if (newPetDfsStackSize < 0 || newPetDfsStackSize > roomNumber) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+      int[] newPetDfsStack = new int[roomNumber];
+      BitSet stackedRooms = new BitSet(roomNumber);
+      for (int i = 0; i < newPetDfsStackSize; ++i) {
+        newPetDfsStack[i] = readIndex(buffer, roomNumber);
+        if (stackedRooms.get(newPetDfsStack[i])) {
+          throw new IllegalArgumentException("snapshot is damaged");
+        }
+        stackedRooms.set(newPetDfsStack[i]);
+      }
+      BitSet newPetDfsVisited = readBits(buffer, roomNumber);
+      BitSet newPetDfsOnStack = readBits(buffer, roomNumber);
+      //a room is pushed once, and only if it isn't visited, so the stack never overflows
+      if (!stackedRooms.equals(newPetDfsOnStack) || stackedRooms.intersects(newPetDfsVisited)) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+
+      int[] events = new int[readLength(buffer, Integer.BYTES)];
+      if (events.length % 4 != 0) {
+        throw new IllegalArgumentException("snapshot is damaged");
+      }
+      buffer.asIntBuffer().get(events);
+      buffer.position(buffer.position() + events.length * Integer.BYTES);
+      for (int i = 0; i < events.length; i += 4) {
+        if (events[i] < 0 || events[i] >= TurnEventType.values().length) {
+          throw new IllegalArgumentException("snapshot is damaged");
+        }
+      }
+      boolean eventsFinished = buffer.get() != 0;
+      String newResultInfo = readString(buffer);
+
+      curTurn = newCurTurn;
+      curPlayerIdx = newCurPlayerIdx;
+      maxTurn = newMaxTurn;
+      maxItemNumCarried = newMaxItemNumCarried;
+      targetCharacter = newTargetCharacter;
+      pet = newPet;
+      playerList.clear();
+      playerList.addAll(players);
+      playerItemTable.clear();
+      clearRoomPlayers();
+      for (int i = 0; i < playerNumber; ++i) {
+        addPlayerToRoom(i, players.get(i).getRoomIdx());
+        if (playerItems.get(i) != null) {
+          playerItemTable.put(i, playerItems.get(i));
+        }
+      }
+      pickedUpItems.clear();
+      pickedUpItems.or(newPickedUpItems);
+      usedItems.clear();
+      usedItems.or(newUsedItems);
+      for (int r = 0; r < roomNumber; ++r) {
+        int size = 0;
+        for (int item : initialRoomItems[r]) {
+          if (!pickedUpItems.get(item)) {
+            roomItems[r][size++] = item;
+          }
+        }
+        roomItemNumber[r] = size;
+      }
+      petDfsStack = newPetDfsStack;
+      petDfsStackSize = newPetDfsStackSize;
+      petDfsVisited.clear();
+      petDfsVisited.or(newPetDfsVisited);
+      petDfsOnStack.clear();
+      petDfsOnStack.or(newPetDfsOnStack);
+      turnEvents.restore(events, eventsFinished);
+      resultInfo.setLength(0);
+      resultInfo.append(newResultInfo);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+      throw new IllegalArgumentException("snapshot is truncated");
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[readLength(buffer, 1)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+    long[] words = bits.toLongArray();
+    out.writeInt(words.length);
+    for (long word : words) {
+      out.writeLong(word);
+    }
+  }
+
+  private static BitSet readBits(ByteBuffer buffer, int bound) {
+    long[] words = new long[readLength(buffer, Long.BYTES)];
+    buffer.asLongBuffer().get(words);
+    buffer.position(buffer.position() + words.length * Long.BYTES);
+    BitSet bits = BitSet.valueOf(words);
+    if (bits.length() > bound) {
+      throw new IllegalArgumentException("snapshot is damaged");
+    }
+    return bits;
+  }
+
+  /**
+   * Read a number of elements, checked against the bytes left so that nothing bigger than
+   * the snapshot is allocated for them.
+   *
+   * @param buffer      the snapshot
+   * @param elementSize the fewest bytes an element takes
+   * @return the number of elements
+   */
+  private static int readLength(ByteBuffer buffer, int elementSize) {
+    int length = buffer.getInt();
+    checkLength(buffer, length, elementSize);
+    return length;
+  }
+
+  private static void checkLength(ByteBuffer buffer, int length, int elementSize) {
+    if (length < 0) {
+      throw new IllegalArgumentException("snapshot is damaged");
+    }
+    if ((long) length * elementSize > buffer.remaining()) {
+      throw new IllegalArgumentException("snapshot is truncated");
+    }
+  }
+
+  private static int readIndex(ByteBuffer buffer, int bound) {
+    int idx = buffer.getInt();
+    if (idx < 0 || idx >= bound) {
+      throw new IllegalArgumentException("snapshot is damaged");
+    }
+    return idx;
+  }
+
   /**
    * Get the width of the world.
    *
@@ -1345,7 +1595,7 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public int getWidth() {
-    return width;
+    return topology.getWidth();
   }
 
   /**
@@ -1355,7 +1605,7 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public int getHeight() {
-    return height;
+    return topology.getHeight();
   }
 
   /**
@@ -1365,6 +1615,11 @@ public class WorldModelImpl implements WorldModel {
    */
   @Override
   public String getName() {
-    return name;
+    return topology.getName();
+  }
+
+  @Override
+  public WorldTopology getTopology() {
+    return topology;
   }
 }
@@ -0,0 +1,108 @@
+package model;
+
+/**
+ * Represents the part of a world that never changes during or between games:
+ * the world's size and name, rooms and their adjacency, items and where they start,
+ * and the names of the target character and the pet.
+ * A topology is immutable, so any number of games, even on different threads,
+ * can share the same one.
+ */
+public interface WorldTopology {
+
+  /**
+   * Get the hash of the config the topology is parsed from.
+   * Topologies parsed from the same text have the same hash.
+   *
+   * @return the hash of the config
+   */
+  String getContentHash();
+
+  /**
+   * Get the name of the world.
+   *
+   * @return the name of the world
+   */
+  String getName();
+
+  /**
+   * Get the width of the world.
+   *
+   * @return the width of the world
+   */
+  int getWidth();
+
+  /**
+   * Get the height of the world.
+   *
+   * @return the height of the world
+   */
+  int getHeight();
+
+  /**
+   * Get the unit offset between neighbor rooms.
+   *
+   * @return the wall thickness
+   */
+  int getWallThickness();
+
+  /**
+   * Get the number of rooms.
+   *
+   * @return the number of rooms
+   */
+  int getRoomNumber();
+
+  /**
+   * Get the room of given index.
+   *
+   * @param roomIdx index of the room
+   * @return the room
+   * @throws IllegalArgumentException roomIdx is negative or exceeds max room index
+   */
+  Room getRoom(int roomIdx) throws IllegalArgumentException;
+
+  /**
+   * Get which rooms share a wall with which.
+   *
+   * @return the graph of the rooms
+   */
+  RoomGraph getRoomGraph();
+
+  /**
+   * Get the number of items.
+   *
+   * @return the number of items
+   */
+  int getItemNumber();
+
+  /**
+   * Get the item of given index. The room of the item is where it starts every game.
+   * Whether the item has been used belongs to a game, not to the topology.
+   *
+   * @param itemIdx index of the item
+   * @return the item
+   * @throws IllegalArgumentException itemIdx is negative or exceeds max item index
+   */
+  Item getItem(int itemIdx) throws IllegalArgumentException;
+
+  /**
+   * Get the name of the target character.
+   *
+   * @return the name of the target character, null if the config doesn't have one
+   */
+  String getTargetCharacterName();
+
+  /**
+   * Get the health of the target character when a game starts.
+   *
+   * @return the initial health of the target character
+   */
+  int getTargetCharacterHealth();
+
+  /**
+   * Get the name of the pet.
+   *
+   * @return the name of the pet, null if the config doesn't have one
+   */
+  String getPetName();
+}
@@ -0,0 +1,91 @@
+package model;
+
+import helper.Parser;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps topologies recently parsed, keyed by the hash of their config's text.
+ * Loading a config seen before reuses the topology already validated instead of parsing again.
+ * When the cache is full, the topology used least recently is dropped.
+ * All methods are safe to call from several threads.
+ */
+public class WorldTopologyCache {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final WorldTopologyCache instance = new WorldTopologyCache(DEFAULT_CAPACITY);
+
+  private final int capacity;
+  private final Map<String, WorldTopology> topologies;
+
+  /**
+   * Get the instance of WorldTopologyCache shared by the application.
+   *
+   * @return the instance of WorldTopologyCache
+   */
+  public static WorldTopologyCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity max number of topologies kept
+   * @throws IllegalArgumentException capacity is less than one
+   */
+  public WorldTopologyCache(int capacity) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity less than one");
+    }
+    this.capacity = capacity;
+    //access order, so the eldest entry is the one used least recently
+    this.topologies = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, WorldTopology> eldest) {
+        return size() > WorldTopologyCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Get the topology of a config, parsing it only if the same text isn't in the cache.
+   *
+   * @param readable a readable which contains information of the world specification
+   * @return the topology of the config
+   * @throws IllegalArgumentException readable is null, or any information within it is invalid
+   * @throws IllegalStateException    an item or a room has an invalid index, or reading fails
+   */
+  public WorldTopology getTopology(Readable readable)
+          throws IllegalArgumentException, IllegalStateException {
+    Parser.Tokenizer tokenizer = new Parser.Tokenizer(readable);
+    String hash = WorldTopologyImpl.hashConfig(tokenizer.getText());
+    synchronized (this) {
+      WorldTopology topology = topologies.get(hash);
+      if (topology != null) {
+        return topology;
+      }
+    }
+    //parse without holding the lock, an invalid config is never cached
+    WorldTopology topology = new WorldTopologyImpl(tokenizer, hash);
+    synchronized (this) {
+      WorldTopology cached = topologies.putIfAbsent(hash, topology);
+      return cached == null ? topology : cached;
+    }
+  }
+
+  /**
+   * Get the number of topologies in the cache.
+   *
+   * @return the number of topologies in the cache
+   */
+  public synchronized int getSize() {
+    return topologies.size();
+  }
+
+  /**
+   * Remove every topology from the cache.
+   */
+  public synchronized void clear() {
+    topologies.clear();
+  }
+}
@@ -0,0 +1,220 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles validated topologies into a binary file, and loads them back.
+ * Loading maps the file into memory and reads the arrays straight from it,
+ * and skips parsing, overlap checks and adjacency building, which all ran before compiling.
+ *
+ * <p>All numbers are big-endian ints. A string is its length in UTF-8 bytes followed by
+ * the bytes, a null string has length -1. The layout is:
+ * magic, version, content hash, name, width, height, wall thickness,
+ * target character's name and health, pet's name,
+ * room number, then top, left, bottom, right of every room,
+ * item number, then room index and attack of every item,
+ * the room graph's offsets and neighbors, then the names of the rooms and of the items.
+ */
+public class WorldTopologyCompiler {
+
+  /**
+   * The first four bytes of every compiled world, "WTOP".
+   */
+  public static final int MAGIC = 0x57544F50;
+
+  /**
+   * Version of the layout, bumped whenever the layout changes.
+   */
+  public static final int VERSION = 1;
+
+  private static final WorldTopologyCompiler instance = new WorldTopologyCompiler();
+
+  /**
+   * Get the instance of WorldTopologyCompiler.
+   * There is only one WorldTopologyCompiler for an application.
+   *
+   * @return the instance of WorldTopologyCompiler
+   */
+  public static WorldTopologyCompiler getInstance() {
+    return instance;
+  }
+
+  private WorldTopologyCompiler() {
+  }
+
+  /**
+   * Compile a topology into a binary file, an old file is replaced.
+   *
+   * @param topology the topology to be compiled
+   * @param path     path of the binary file
+   * @throws IllegalArgumentException any parameter is null
+   * @throws UncheckedIOException     writing the file fails
+   */
+  public void compile(WorldTopology topology, Path path)
+          throws IllegalArgumentException, UncheckedIOException {
+    if (topology == null || path == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, topology.getContentHash());
+      writeString(out, topology.getName());
+      out.writeInt(topology.getWidth());
+      out.writeInt(topology.getHeight());
+      out.writeInt(topology.getWallThickness());
+      writeString(out, topology.getTargetCharacterName());
+      out.writeInt(topology.getTargetCharacterHealth());
+      writeString(out, topology.getPetName());
+
+      int roomNumber = topology.getRoomNumber();
+      out.writeInt(roomNumber);
+      for (int i = 0; i < roomNumber; ++i) {
+        Room room = topology.getRoom(i);
+        int[] lt = room.getLeftTopCorner();
+        int[] rb = room.getRightBottomCorner();
+        out.writeInt(lt[0]);
+        out.writeInt(lt[1]);
+        out.writeInt(rb[0]);
+        out.writeInt(rb[1]);
+      }
+      int itemNumber = topology.getItemNumber();
+      out.writeInt(itemNumber);
+      for (int i = 0; i < itemNumber; ++i) {
+        Item item = topology.getItem(i);
+        out.writeInt(item.getRoomIdx());
+        out.writeInt(item.getAttack());
+      }
+
+      RoomGraph graph = topology.getRoomGraph();
+      int offset = 0;
+      out.writeInt(offset);
+      for (int i = 0; i < roomNumber; ++i) {
+        offset += graph.getNeighborNumber(i);
+        out.writeInt(offset);
+      }
+      for (int i = 0; i < roomNumber; ++i) {
+        for (int k = 0; k < graph.getNeighborNumber(i); ++k) {
+          out.writeInt(graph.getNeighbor(i, k));
+        }
+      }
+
+      for (int i = 0; i < roomNumber; ++i) {
+        writeString(out, topology.getRoom(i).getName());
+      }
+      for (int i = 0; i < itemNumber; ++i) {
+        writeString(out, topology.getItem(i).getName());
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Load a topology from a binary file made by compile.
+   *
+   * @param path path of the binary file
+   * @return the topology
+   * @throws IllegalArgumentException path is null, or the file isn't a compiled world
+   *                                  of the current version, or it is truncated
+   * @throws UncheckedIOException     reading the file fails
+   */
+  public WorldTopology load(Path path) throws IllegalArgumentException, UncheckedIOException {
+    if (path == null) {
+      throw new IllegalArgumentException("path is null");
+    }
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      //the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("file isn't a compiled world");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(String.format(
+                "compiled world version %d isn't supported, expected %d", version, VERSION));
+      }
+      String contentHash = readString(buffer);
+      String name = readString(buffer);
+      int width = buffer.getInt();
+      int height = buffer.getInt();
+      int wallThickness = buffer.getInt();
+      String targetName = readString(buffer);
+      int targetHealth = buffer.getInt();
+      String petName = readString(buffer);
+
+      int roomNumber = buffer.getInt();
+      int[] corners = readInts(buffer, roomNumber * 4);
+      int itemNumber = buffer.getInt();
+      int[] itemInfo = readInts(buffer, itemNumber * 2);
+      int[] offsets = readInts(buffer, roomNumber + 1);
+      int[] neighbors = readInts(buffer, offsets[roomNumber]);
+
+      List<Room> rooms = new ArrayList<>(roomNumber);
+      for (int i = 0; i < roomNumber; ++i) {
+        rooms.add(new RoomImpl(i, readString(buffer),
+                new int[]{corners[i * 4], corners[i * 4 + 1]},
+                new int[]{corners[i * 4 + 2], corners[i * 4 + 3]}));
+      }
+      List<Item> items = new ArrayList<>(itemNumber);
+      for (int i = 0; i < itemNumber; ++i) {
+        items.add(new ItemImpl(i, readString(buffer), itemInfo[i * 2 + 1], itemInfo[i * 2]));
+      }
+      return new WorldTopologyImpl(contentHash, name, width, height, wallThickness,
+              targetName, targetHealth, petName, rooms, items,
+              new RoomGraphImpl(offsets, neighbors));
+    } catch (BufferUnderflowException | IndexOutOfBoundsException
+             | NegativeArraySizeException ex) {
+      throw new IllegalArgumentException("compiled world is truncated");
+    }
+  }
+
+  private static int[] readInts(ByteBuffer buffer, int number) {
+    int[] ret = new int[number];
+    IntBuffer ints = buffer.asIntBuffer();
+    ints.get(ret);
+    buffer.position(buffer.position() + number * Integer.BYTES);
+    return ret;
+  }
+
+  private static void writeString(DataOutputStream out, String str) throws IOException {
+    if (str == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
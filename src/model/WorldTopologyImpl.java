@@ -0,0 +1,374 @@
+package model;
+
+import helper.Parser;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable topology parsed and validated from a world config.
+ * The grid index and the room graph are built once here and shared by every game.
+ */
+public class WorldTopologyImpl implements WorldTopology {
+
+  private final String contentHash;
+  private final String name;
+  private final int width;
+  private final int height;
+  private final int wallThickness;
+  private final String targetCharacterName;
+  private final int targetCharacterHealth;
+  private final String petName;
+  private final List<Room> roomList;
+  private final List<Item> itemList;
+  private final RoomGridIndex roomIndex;
+  private final RoomGraph roomGraph;
+
+  /**
+   * Constructor.
+   *
+   * @param readable a readable which contains information of the world specification
+   * @throws IllegalArgumentException readable is null, or any information within it is invalid
+   * @throws IllegalStateException    an item or a room has an invalid index, or reading fails
+   */
+  public WorldTopologyImpl(Readable readable)
+          throws IllegalArgumentException, IllegalStateException {
+    this(new Parser.Tokenizer(readable));
+  }
+
+  /**
+   * Constructor with the config already read.
+   *
+   * @param tokenizer tokenizer over the whole config, placed before the first line
+   * @throws IllegalArgumentException tokenizer is null, or any information within it is invalid
+   * @throws IllegalStateException    an item or a room has an invalid index
+   */
+  WorldTopologyImpl(Parser.Tokenizer tokenizer)
+          throws IllegalArgumentException, IllegalStateException {
+    this(tokenizer, hashConfig(tokenizer == null ? null : tokenizer.getText()));
+  }
+
+  /**
+   * Constructor with the config already read and hashed.
+   *
+   * @param tokenizer   tokenizer over the whole config, placed before the first line
+   * @param contentHash hash of the config, see hashConfig
+   * @throws IllegalArgumentException any parameter is null, or any information within the config
+   *                                  is invalid
+   * @throws IllegalStateException    an item or a room has an invalid index
+   */
+  WorldTopologyImpl(Parser.Tokenizer tokenizer, String contentHash)
+          throws IllegalArgumentException, IllegalStateException {
+    if (tokenizer == null || contentHash == null) {
+      throw new IllegalArgumentException("config invalid");
+    }
+
+    int worldColumn = 0;
+    int worldRow = 0;
+    String worldName = null;
+    TargetCharacter targetCharacter = null;
+    String petName = null;
+    List<Room> roomList = new ArrayList<>();
+    List<Item> itemList = new ArrayList<>();
+
+    int leastElement;
+
+    //read world's basic information
+    leastElement = 3;
+    if (tokenizer.nextLine()) {
+      checkElementNumber(tokenizer, leastElement);
+      worldRow = tokenizer.nextInt();
+      worldColumn = tokenizer.nextInt();
+      worldName = tokenizer.restOfLine();
+      if (worldRow <= 0) {
+        throw new IllegalArgumentException("world row should be positive");
+      }
+      if (worldColumn <= 0) {
+        throw new IllegalArgumentException("world column should be positive");
+      }
+      if (worldName.isEmpty()) {
+        throw new IllegalArgumentException("world name invalid");
+      }
+    }
+
+    //read target character's information
+    leastElement = 2;
+    if (tokenizer.nextLine()) {
+      checkElementNumber(tokenizer, leastElement);
+      int health = tokenizer.nextInt();
+      targetCharacter = new TargetCharacterImpl(tokenizer.restOfLine(), health, 0);
+    }
+
+    //read pet's information
+    if (tokenizer.nextLine()) {
+      petName = new PetImpl(0, tokenizer.restOfLine()).getName();
+    }
+
+    //read rooms' information
+    if (tokenizer.nextLine()) {
+      int roomNumber = readNumber(tokenizer);
+      leastElement = 5;
+      for (int it = 0; it < roomNumber; ++it) {
+        if (tokenizer.nextLine()) {
+          checkElementNumber(tokenizer, leastElement);
+          int top = tokenizer.nextInt();
+          int left = tokenizer.nextInt();
+          int bottom = tokenizer.nextInt();
+          int right = tokenizer.nextInt();
+          Room room = new RoomImpl(it, tokenizer.restOfLine(), new int[]{top, left},
+                  new int[]{bottom, right});
+          roomList.add(room);
+        }
+      }
+    }
+
+    //read items' information
+    if (tokenizer.nextLine()) {
+      int itemNumber = readNumber(tokenizer);
+      leastElement = 3;
+      for (int it = 0; it < itemNumber; ++it) {
+        if (tokenizer.nextLine()) {
+          checkElementNumber(tokenizer, leastElement);
+          int roomIdx = tokenizer.nextInt();
+          int attack = tokenizer.nextInt();
+          Item item = new ItemImpl(it, tokenizer.restOfLine(), attack, roomIdx);
+          itemList.add(item);
+        }
+      }
+    }
+
+    RoomGridIndex roomIndex = new RoomGridIndex(roomList);
+    checkRoomOverlap(roomList, roomIndex);
+
+    for (int i = 0; i < itemList.size(); ++i) {
+      if (itemList.get(i).getRoomIdx() >= roomList.size()) {
+        throw new IllegalStateException(String.format(
+                "item %s has an invalid room index %d",
+                itemList.get(i).getName(), itemList.get(i).getRoomIdx()));
+      }
+    }
+
+    for (int i = 0; i < roomList.size(); ++i) {
+      if (roomList.get(i).getIndex() >= roomList.size()) {
+        throw new IllegalStateException(String.format(
+                "room %s has an invalid index %d", roomList.get(i).getName(),
+                roomList.get(i).getIndex()));
+      }
+    }
+
+    this.contentHash = contentHash;
+    this.name = worldName;
+    this.width = worldColumn + 1;
+    this.height = worldRow + 1;
+    this.wallThickness = 1;
+    this.targetCharacterName = targetCharacter == null ? null : targetCharacter.getName();
+    this.targetCharacterHealth = targetCharacter == null ? 0 : targetCharacter.getHealth();
+    this.petName = petName;
+    this.roomList = Collections.unmodifiableList(roomList);
+    this.itemList = Collections.unmodifiableList(itemList);
+    this.roomIndex = roomIndex;
+    this.roomGraph = new RoomGraphImpl(roomList, roomIndex, wallThickness);
+  }
+
+  /**
+   * Constructor with everything already built and validated, e.g. loaded from a compiled world.
+   * Nothing is checked again, only the grid index is rebuilt from the rooms.
+   *
+   * @param contentHash           hash of the config the topology is compiled from
+   * @param name                  name of the world
+   * @param width                 width of the world
+   * @param height                height of the world
+   * @param wallThickness         the unit offset between neighbor rooms
+   * @param targetCharacterName   name of the target character, null if there isn't one
+   * @param targetCharacterHealth initial health of the target character
+   * @param petName               name of the pet, null if there isn't one
+   * @param rooms                 rooms of the world, a room's index is its position in the list
+   * @param items                 items of the world, an item's index is its position in the list
+   * @param roomGraph             graph of the same rooms
+   */
+  WorldTopologyImpl(String contentHash, String name, int width, int height, int wallThickness,
+                    String targetCharacterName, int targetCharacterHealth, String petName,
+                    List<Room> rooms, List<Item> items, RoomGraph roomGraph) {
+    this.contentHash = contentHash;
+    this.name = name;
+    this.width = width;
+    this.height = height;
+    this.wallThickness = wallThickness;
+    this.targetCharacterName = targetCharacterName;
+    this.targetCharacterHealth = targetCharacterHealth;
+    this.petName = petName;
+    this.roomList = Collections.unmodifiableList(rooms);
+    this.itemList = Collections.unmodifiableList(items);
+    this.roomIndex = new RoomGridIndex(rooms);
+    this.roomGraph = roomGraph;
+  }
+
+  private static void checkElementNumber(Parser.Tokenizer tokenizer, int leastElement) {
+    if (tokenizer.countTokens() < leastElement) {
+      throw new IllegalArgumentException(String.format("need at least %d elements in line %d",
+              leastElement, tokenizer.getLineNumber()));
+    }
+  }
+
+  private static int readNumber(Parser.Tokenizer tokenizer) {
+    int number = tokenizer.nextInt();
+    if (tokenizer.hasNextToken()) {
+      throw new IllegalArgumentException(String.format("line %d should only have a number",
+              tokenizer.getLineNumber()));
+    }
+    return number;
+  }
+
+  /**
+   * Hash the text of a config, configs with the same text have the same hash.
+   * The text is encoded piece by piece, so it isn't copied as a whole.
+   *
+   * @param config the text of the config
+   * @return SHA-256 of the text in UTF-8, as lowercase hex
+   * @throws IllegalArgumentException config is null
+   */
+  static String hashConfig(CharSequence config) throws IllegalArgumentException {
+    if (config == null) {
+      throw new IllegalArgumentException("config invalid");
+    }
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      //every Java platform is required to support SHA-256
+      throw new IllegalStateException(ex.getMessage());
+    }
+    CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CharBuffer in = CharBuffer.wrap(config);
+    ByteBuffer out = ByteBuffer.allocate(4096);
+    while (true) {
+      CoderResult result = encoder.encode(in, out, true);
+      out.flip();
+      digest.update(out);
+      out.clear();
+      if (result.isUnderflow()) {
+        break;
+      }
+    }
+    encoder.flush(out);
+    out.flip();
+    digest.update(out);
+
+    byte[] hash = digest.digest();
+    StringBuilder sb = new StringBuilder(hash.length * 2);
+    for (byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private static void checkRoomOverlap(List<Room> rooms, RoomGridIndex roomIndex) {
+    for (int j = 0; j < rooms.size(); ++j) {
+      Room room = rooms.get(j);
+      int[] lt = room.getLeftTopCorner();
+      int[] rb = room.getRightBottomCorner();
+      //candidates are sorted, so the first overlapped one is the earliest room
+      for (int i : roomIndex.findRoomsIntersecting(lt[0], lt[1], rb[0], rb[1])) {
+        if (i >= j) {
+          break;
+        }
+        if (RoomImpl.isRoomOverlapped(rooms.get(i), room)) {
+          throw new IllegalArgumentException(String.format(
+                  "room %s and room %s overlap!",
+                  rooms.get(i).toString(), room.toString()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the grid index of the rooms.
+   *
+   * @return the grid index of the rooms
+   */
+  RoomGridIndex getRoomIndex() {
+    return roomIndex;
+  }
+
+  @Override
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int getWallThickness() {
+    return wallThickness;
+  }
+
+  @Override
+  public int getRoomNumber() {
+    return roomList.size();
+  }
+
+  @Override
+  public Room getRoom(int roomIdx) throws IllegalArgumentException {
+    if (roomIdx < 0 || roomIdx >= roomList.size()) {
+      throw new IllegalArgumentException("room index invalid");
+    }
+    return roomList.get(roomIdx);
+  }
+
+  @Override
+  public RoomGraph getRoomGraph() {
+    return roomGraph;
+  }
+
+  @Override
+  public int getItemNumber() {
+    return itemList.size();
+  }
+
+  @Override
+  public Item getItem(int itemIdx) throws IllegalArgumentException {
+    if (itemIdx < 0 || itemIdx >= itemList.size()) {
+      throw new IllegalArgumentException("item index invalid");
+    }
+    return itemList.get(itemIdx);
+  }
+
+  @Override
+  public String getTargetCharacterName() {
+    return targetCharacterName;
+  }
+
+  @Override
+  public int getTargetCharacterHealth() {
+    return targetCharacterHealth;
+  }
+
+  @Override
+  public String getPetName() {
+    return petName;
+  }
+}
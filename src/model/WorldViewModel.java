@@ -6,32 +6,16 @@ import java.util.List;
 /**
  * Represents a single game of World.
  * The world consists of rooms, items, players and target player.
+ * What a view displays of it is in WorldDisplayModel.
  */
-public interface WorldViewModel {
+public interface WorldViewModel extends WorldDisplayModel {
 
   /**
-   * Get the number of players.
+   * Get the health of the target character.
    *
-   * @return number of players
+   * @return health of the target character, zero if it is killed
    */
-  int getPlayerNumber();
-
-  /**
-   * Get the name of player with given index.
-   * The index is determined by the player order.
-   *
-   * @param playerIdx index of the player in the player list
-   * @return name of the player
-   * @IllegalArgumentException playerIdx is out of range
-   */
-  String getPlayerName(int playerIdx);
-
-  /**
-   * Get the index of the room where the target character is in.
-   *
-   * @return index of the room
-   */
-  int getTargetCharacterRoomIdx();
+  int getTargetCharacterHealth();
 
   /**
    * Get the index of current player.
@@ -49,33 +33,6 @@ public interface WorldViewModel {
    */
   List<Integer> getCurPlayerCarryItems();
 
-  /**
-   * Get the attack of the item with given index.
-   *
-   * @param itemIdx index of the item in the item list
-   * @return attack of the item
-   * @IllegalArgumentException itemIdx is out of range
-   */
-  int getItemAttack(int itemIdx);
-
-  /**
-   * Get the name of the item with given index.
-   *
-   * @param itemIdx index of the item in the item list
-   * @return name of the item
-   * @IllegalArgumentException itemIdx is out of range
-   */
-  String getItemName(int itemIdx);
-
-  /**
-   * Get the room index of the player with given index.
-   *
-   * @param playerIdx index of the player in the player list
-   * @return room index of the player
-   * @IllegalArgumentException playerIdx is out of range
-   */
-  int getPlayerRoomIdx(int playerIdx);
-
   /**
    * Get the left top corner's coordinate of the room with given index.
    *
@@ -148,15 +105,6 @@ public interface WorldViewModel {
    */
   int getCurPlayerItemNum();
 
-  /**
-   * Get the room name of given index.
-   *
-   * @param roomIdx index of the room
-   * @return room name of given index
-   * @throws IllegalArgumentException roomIdx is negative or exceeds max room index
-   */
-  String getRoomName(int roomIdx) throws IllegalArgumentException;
-
   /**
    * Get the information of player of given order.
    *
@@ -191,27 +139,33 @@ public interface WorldViewModel {
   boolean isGameOver();
 
   /**
-   * Get the number of rooms.
+   * Get adjacent rooms' indexes of a given room.
    *
-   * @return the number of rooms
+   * @param roomIdx target room's index
+   * @return adjacent rooms' indexes of the target room
+   * @throws IllegalArgumentException index is negative,or over the number of the list
    */
-  int getRoomNumber();
+  List<Integer> getRoomNeighbors(int roomIdx) throws IllegalArgumentException;
 
   /**
-   * Get the number of items.
+   * Get the number of adjacent rooms of a given room.
+   * Together with getRoomNeighbor, neighbors can be visited without creating a list.
    *
-   * @return the number of items
+   * @param roomIdx target room's index
+   * @return the number of adjacent rooms
+   * @throws IllegalArgumentException index is negative,or over the number of the list
    */
-  int getItemNumber();
+  int getRoomNeighborNumber(int roomIdx) throws IllegalArgumentException;
 
   /**
-   * Get adjacent rooms' indexes of a given room.
+   * Get the adjacent room of a given room in the given order.
    *
    * @param roomIdx target room's index
-   * @return adjacent rooms' indexes of the target room
-   * @throws IllegalArgumentException index is negative,or over the number of the list
+   * @param order   order of the adjacent room, neighbors are sorted by index
+   * @return index of the adjacent room
+   * @throws IllegalArgumentException roomIdx or order is out of range
    */
-  List<Integer> getRoomNeighbors(int roomIdx) throws IllegalArgumentException;
+  int getRoomNeighbor(int roomIdx, int order) throws IllegalArgumentException;
 
   /**
    * Get items in the room.
@@ -231,25 +185,4 @@ public interface WorldViewModel {
    */
   String printRoomInfo(int roomIdx) throws IllegalArgumentException;
 
-  /**
-   * Get the width of the world.
-   *
-   * @return the width of the world
-   */
-  int getWidth();
-
-  /**
-   * Get the height of the world.
-   *
-   * @return the height of the world
-   */
-  int getHeight();
-
-  /**
-   * Get the name of the world.
-   *
-   * @return the name of the world
-   */
-  String getName();
-
 }
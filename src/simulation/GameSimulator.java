@@ -0,0 +1,27 @@
+package simulation;
+
+/**
+ * Plays complete games against a world model without any view.
+ * Every turn is driven directly through the model, so games run as fast as the model allows.
+ */
+public interface GameSimulator {
+
+  /**
+   * Reset the world, set up the players and play until the game is over.
+   *
+   * @return result and statistics of the game
+   * @throws IllegalStateException the world can't be set up with the given players
+   */
+  GameSummary runGame() throws IllegalStateException;
+
+  /**
+   * Reset the world, set up the players and play until the game is over.
+   * Every AI player gets its own random stream derived from the seed,
+   * so the same seed always plays the same game, whichever thread runs it.
+   *
+   * @param seed seed of the game
+   * @return result and statistics of the game
+   * @throws IllegalStateException the world can't be set up with the given players
+   */
+  GameSummary runGame(long seed) throws IllegalStateException;
+}
@@ -0,0 +1,207 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.AiActionController;
+import model.AiActionControllerImpl;
+import model.AiActionParam;
+import model.AiActionParamImpl;
+import model.PlayerActionType;
+import model.PlayerType;
+import model.WorldModel;
+
+/**
+ * Plays complete games against a world model without any view.
+ * AI players act through the model's own AI, and human players follow scripts
+ * written in the same form as pre-defined AI actions, e.g. "MOVE 3 LOOK_AROUND PICKUP_ITEM 5".
+ * A script restarts from its first action when it runs out.
+ */
+public class GameSimulatorImpl implements GameSimulator {
+
+  private final WorldModel world;
+  private final List<String> names;
+  private final List<Integer> rooms;
+  private final List<Boolean> isAi;
+  private final List<String[]> humanScripts;
+  private final int maxTurn;
+  private final int maxItemCarried;
+
+  /**
+   * Constructor.
+   * The world should have been initialized with a config, every game starts from that config.
+   *
+   * @param world          model to play the games with
+   * @param names          names of the players
+   * @param rooms          initial rooms of the players
+   * @param isAi           whether the players are AIs
+   * @param humanScripts   actions of the players, only used for human players
+   * @param maxTurn        max turn of every game
+   * @param maxItemCarried max item number each player can carry
+   * @throws IllegalArgumentException any parameter is null, or the lists are empty or of
+   *                                  different sizes, or a room index is out of range,
+   *                                  or a human player has no script,
+   *                                  or maxTurn or maxItemCarried is less than one
+   */
+  public GameSimulatorImpl(WorldModel world, List<String> names, List<Integer> rooms,
+                           List<Boolean> isAi, List<String> humanScripts,
+                           int maxTurn, int maxItemCarried) throws IllegalArgumentException {
+    if (world == null || names == null || rooms == null || isAi == null
+            || humanScripts == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    if (names.isEmpty()) {
+      throw new IllegalArgumentException("list is empty");
+    }
+    if (names.size() != rooms.size() || names.size() != isAi.size()
+            || names.size() != humanScripts.size()) {
+      throw new IllegalArgumentException("list is not of the same length");
+    }
+    if (maxTurn < 1) {
+      throw new IllegalArgumentException("max turn less than one");
+    }
+    if (maxItemCarried < 1) {
+      throw new IllegalArgumentException("max item carried less than one");
+    }
+    for (int room : rooms) {
+      if (room < 0 || room >= world.getRoomNumber()) {
+        throw new IllegalArgumentException(String.format(
+                "room index should be between 0 and %d", world.getRoomNumber() - 1));
+      }
+    }
+    this.humanScripts = new ArrayList<>();
+    for (int i = 0; i < names.size(); ++i) {
+      if (isAi.get(i)) {
+        this.humanScripts.add(null);
+        continue;
+      }
+      String script = humanScripts.get(i);
+      if (script == null || script.isBlank()) {
+        throw new IllegalArgumentException(String.format(
+                "human player %s has no script", names.get(i)));
+      }
+      String[] tokens = script.trim().split("\\s+");
+      //fail early on a malformed script instead of in the middle of a game
+      new AiActionControllerImpl(tokens);
+      this.humanScripts.add(tokens);
+    }
+    this.world = world;
+    this.names = new ArrayList<>(names);
+    this.rooms = new ArrayList<>(rooms);
+    this.isAi = new ArrayList<>(isAi);
+    this.maxTurn = maxTurn;
+    this.maxItemCarried = maxItemCarried;
+  }
+
+  @Override
+  public GameSummary runGame() throws IllegalStateException {
+    try {
+      resetWorld();
+      world.setPlayers(names, rooms, isAi);
+    } catch (IllegalArgumentException iae) {
+      throw new IllegalStateException(iae.getMessage());
+    }
+    return play();
+  }
+
+  @Override
+  public GameSummary runGame(long seed) throws IllegalStateException {
+    try {
+      resetWorld();
+      world.setPlayers(names, rooms, isAi, seed);
+    } catch (IllegalArgumentException iae) {
+      throw new IllegalStateException(iae.getMessage());
+    }
+    return play();
+  }
+
+  private void resetWorld() {
+    world.reinitializeWithCurrentConfig();
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+  }
+
+  private GameSummary play() {
+    List<AiActionController> scripts = new ArrayList<>();
+    for (String[] tokens : humanScripts) {
+      scripts.add(tokens == null ? null : new AiActionControllerImpl(tokens));
+    }
+
+    int turnsPlayed = 0;
+    int itemsPickedUp = 0;
+    int itemsUsed = 0;
+    int attackAttempts = 0;
+    int successfulAttacks = 0;
+    int invalidActions = 0;
+    while (!world.isGameOver()) {
+      int healthBefore = world.getTargetCharacterHealth();
+      AiActionParam ap;
+      if (world.getCurPlayerType() == PlayerType.AI) {
+        ap = world.aiPlayerDoAction();
+      } else {
+        ap = scripts.get(world.getCurPlayerIdx()).getPredefinedAction();
+        if (!doHumanAction(ap)) {
+          invalidActions++;
+          world.curHumanPlayerDisplayNeighborRooms();
+          ap = new AiActionParamImpl(PlayerActionType.LOOK_AROUND, 0);
+        }
+      }
+      turnsPlayed++;
+      switch (ap.getActionType()) {
+        case PICKUP_ITEM:
+          itemsPickedUp++;
+          break;
+        case ATTACK:
+          attackAttempts++;
+          if (ap.getActionParameter() >= 0) {
+            itemsUsed++;
+          }
+          if (world.getTargetCharacterHealth() < healthBefore) {
+            successfulAttacks++;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    int winnerIdx = -1;
+    String winnerName = null;
+    if (world.getTargetCharacterHealth() == 0) {
+      //the turn isn't passed on once the target character is killed
+      winnerIdx = world.getCurPlayerIdx();
+      winnerName = world.getCurPlayerName();
+    }
+    return new GameSummaryImpl(winnerIdx, winnerName, turnsPlayed,
+            world.getTargetCharacterHealth(), itemsPickedUp, itemsUsed, attackAttempts,
+            successfulAttacks, invalidActions, world.getGameResultMsg());
+  }
+
+  private boolean doHumanAction(AiActionParam ap) {
+    try {
+      switch (ap.getActionType()) {
+        case MOVE:
+          world.curHumanPlayerMove(ap.getActionParameter());
+          return true;
+        case PICKUP_ITEM:
+          world.curHumanPlayerPickupItem(ap.getActionParameter());
+          return true;
+        case LOOK_AROUND:
+          world.curHumanPlayerDisplayNeighborRooms();
+          return true;
+        case MOVE_PET:
+          world.curHumanPlayerMovePet(ap.getActionParameter());
+          return true;
+        case ATTACK:
+          if (world.getCurPlayerRoomIdx() != world.getTargetCharacterRoomIdx()) {
+            return false;
+          }
+          world.curHumanPlayerAttackTargetCharacter(ap.getActionParameter());
+          return true;
+        default:
+          return false;
+      }
+    } catch (IllegalArgumentException | IllegalStateException ex) {
+      return false;
+    }
+  }
+}
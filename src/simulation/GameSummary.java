@@ -0,0 +1,85 @@
+package simulation;
+
+/**
+ * Result and statistics of a single game that has been played to the end.
+ */
+public interface GameSummary {
+
+  /**
+   * Whether the target character is killed.
+   *
+   * @return true if the target character is killed, false if it slipped away
+   */
+  boolean isTargetKilled();
+
+  /**
+   * Get the order of the player who killed the target character.
+   *
+   * @return order of the winner, -1 if nobody wins
+   */
+  int getWinnerIdx();
+
+  /**
+   * Get the name of the player who killed the target character.
+   *
+   * @return name of the winner, null if nobody wins
+   */
+  String getWinnerName();
+
+  /**
+   * Get the number of turns played before the game ended.
+   *
+   * @return the number of turns played
+   */
+  int getTurnsPlayed();
+
+  /**
+   * Get the health the target character had left.
+   *
+   * @return health of the target character at the end of the game
+   */
+  int getTargetHealthLeft();
+
+  /**
+   * Get the number of items picked up by all players.
+   *
+   * @return the number of items picked up
+   */
+  int getItemsPickedUp();
+
+  /**
+   * Get the number of items used in attacks by all players.
+   *
+   * @return the number of items used
+   */
+  int getItemsUsed();
+
+  /**
+   * Get the number of attack attempts by all players.
+   *
+   * @return the number of attack attempts
+   */
+  int getAttackAttempts();
+
+  /**
+   * Get the number of attacks that hurt the target character.
+   *
+   * @return the number of successful attacks
+   */
+  int getSuccessfulAttacks();
+
+  /**
+   * Get the number of scripted human actions that were invalid when they were due.
+   * An invalid action is replaced by looking around.
+   *
+   * @return the number of invalid scripted actions
+   */
+  int getInvalidActions();
+
+  /**
+   * Get the game result message from the model.
+   *
+   * @return game result message
+   */
+  String getResultMsg();
+}
@@ -0,0 +1,124 @@
+package simulation;
+
+/**
+ * Result and statistics of a single game that has been played to the end.
+ */
+public class GameSummaryImpl implements GameSummary {
+
+  private final int winnerIdx;
+  private final String winnerName;
+  private final int turnsPlayed;
+  private final int targetHealthLeft;
+  private final int itemsPickedUp;
+  private final int itemsUsed;
+  private final int attackAttempts;
+  private final int successfulAttacks;
+  private final int invalidActions;
+  private final String resultMsg;
+
+  /**
+   * Constructor.
+   *
+   * @param winnerIdx         order of the winner, -1 if nobody wins
+   * @param winnerName        name of the winner, null if nobody wins
+   * @param turnsPlayed       the number of turns played
+   * @param targetHealthLeft  health of the target character at the end of the game
+   * @param itemsPickedUp     the number of items picked up
+   * @param itemsUsed         the number of items used in attacks
+   * @param attackAttempts    the number of attack attempts
+   * @param successfulAttacks the number of attacks that hurt the target character
+   * @param invalidActions    the number of invalid scripted actions
+   * @param resultMsg         game result message
+   * @throws IllegalArgumentException any count is negative, or resultMsg is null
+   */
+  public GameSummaryImpl(int winnerIdx, String winnerName, int turnsPlayed, int targetHealthLeft,
+                         int itemsPickedUp, int itemsUsed, int attackAttempts,
+                         int successfulAttacks, int invalidActions, String resultMsg)
+          throws IllegalArgumentException {
+    if (turnsPlayed < 0 || targetHealthLeft < 0 || itemsPickedUp < 0 || itemsUsed < 0
+            || attackAttempts < 0 || successfulAttacks < 0 || invalidActions < 0) {
+      throw new IllegalArgumentException("counts shouldn't be negative!");
+    }
+    if (resultMsg == null) {
+      throw new IllegalArgumentException("resultMsg is null");
+    }
+    this.winnerIdx = winnerIdx;
+    this.winnerName = winnerName;
+    this.turnsPlayed = turnsPlayed;
+    this.targetHealthLeft = targetHealthLeft;
+    this.itemsPickedUp = itemsPickedUp;
+    this.itemsUsed = itemsUsed;
+    this.attackAttempts = attackAttempts;
+    this.successfulAttacks = successfulAttacks;
+    this.invalidActions = invalidActions;
+    this.resultMsg = resultMsg;
+  }
+
+  @Override
+  public boolean isTargetKilled() {
+    return targetHealthLeft == 0;
+  }
+
+  @Override
+  public int getWinnerIdx() {
+    return winnerIdx;
+  }
+
+  @Override
+  public String getWinnerName() {
+    return winnerName;
+  }
+
+  @Override
+  public int getTurnsPlayed() {
+    return turnsPlayed;
+  }
+
+  @Override
+  public int getTargetHealthLeft() {
+    return targetHealthLeft;
+  }
+
+  @Override
+  public int getItemsPickedUp() {
+    return itemsPickedUp;
+  }
+
+  @Override
+  public int getItemsUsed() {
+    return itemsUsed;
+  }
+
+  @Override
+  public int getAttackAttempts() {
+    return attackAttempts;
+  }
+
+  @Override
+  public int getSuccessfulAttacks() {
+    return successfulAttacks;
+  }
+
+  @Override
+  public int getInvalidActions() {
+    return invalidActions;
+  }
+
+  @Override
+  public String getResultMsg() {
+    return resultMsg;
+  }
+
+  /**
+   * Get the summary in a single line.
+   *
+   * @return the summary in a single line
+   */
+  @Override
+  public String toString() {
+    return String.format("Winner:%s. Turns:%d. Target health left:%d. Items picked up:%d. "
+                    + "Items used:%d. Attacks:%d. Successful attacks:%d. Invalid actions:%d.\n",
+            winnerName == null ? "nobody" : winnerName, turnsPlayed, targetHealthLeft,
+            itemsPickedUp, itemsUsed, attackAttempts, successfulAttacks, invalidActions);
+  }
+}
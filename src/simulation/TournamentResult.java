@@ -0,0 +1,67 @@
+package simulation;
+
+/**
+ * Aggregated statistics of many games played on the same config.
+ */
+public interface TournamentResult {
+
+  /**
+   * Get the number of games played.
+   *
+   * @return the number of games played
+   */
+  int getGameNumber();
+
+  /**
+   * Get the number of games in which the target character is killed.
+   *
+   * @return the number of games with a winner
+   */
+  int getKillNumber();
+
+  /**
+   * Get the number of games won by the player of the given order.
+   *
+   * @param playerIdx order of the player
+   * @return the number of games won by the player
+   * @throws IllegalArgumentException playerIdx is out of range
+   */
+  int getWinNumber(int playerIdx) throws IllegalArgumentException;
+
+  /**
+   * Get the share of games won by the player of the given order.
+   *
+   * @param playerIdx order of the player
+   * @return win rate of the player, between 0 and 1
+   * @throws IllegalArgumentException playerIdx is out of range
+   */
+  double getWinRate(int playerIdx) throws IllegalArgumentException;
+
+  /**
+   * Get the average number of turns played in games where the target character is killed.
+   *
+   * @return average turns to kill, 0 if the target character is never killed
+   */
+  double getAverageTurnsToKill();
+
+  /**
+   * Get the average number of items picked up per game.
+   *
+   * @return average items picked up per game
+   */
+  double getAverageItemsPickedUp();
+
+  /**
+   * Get the average number of items used in attacks per game.
+   *
+   * @return average items used per game
+   */
+  double getAverageItemsUsed();
+
+  /**
+   * Get the share of attack attempts that hurt the target character.
+   *
+   * @return attack success rate, between 0 and 1
+   */
+  double getAttackSuccessRate();
+}
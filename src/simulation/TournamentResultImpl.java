@@ -0,0 +1,164 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated statistics of many games played on the same config.
+ * Only integer totals are kept, so merging partial results in any order
+ * gives exactly the same statistics.
+ */
+public class TournamentResultImpl implements TournamentResult {
+
+  private final int gameNumber;
+  private final int killNumber;
+  private final int[] winNumbers;
+  private final long turnsToKill;
+  private final long itemsPickedUp;
+  private final long itemsUsed;
+  private final long attackAttempts;
+  private final long successfulAttacks;
+
+  /**
+   * Constructor of an empty result.
+   *
+   * @param playerNumber the number of players in every game
+   * @throws IllegalArgumentException playerNumber is less than one
+   */
+  public TournamentResultImpl(int playerNumber) throws IllegalArgumentException {
+    this(0, 0, new int[checkPlayerNumber(playerNumber)], 0, 0, 0, 0, 0);
+  }
+
+  private TournamentResultImpl(int gameNumber, int killNumber, int[] winNumbers,
+                               long turnsToKill, long itemsPickedUp, long itemsUsed,
+                               long attackAttempts, long successfulAttacks) {
+    this.gameNumber = gameNumber;
+    this.killNumber = killNumber;
+    this.winNumbers = winNumbers;
+    this.turnsToKill = turnsToKill;
+    this.itemsPickedUp = itemsPickedUp;
+    this.itemsUsed = itemsUsed;
+    this.attackAttempts = attackAttempts;
+    this.successfulAttacks = successfulAttacks;
+  }
+
+  private static int checkPlayerNumber(int playerNumber) {
+    if (playerNumber < 1) {
+      throw new IllegalArgumentException("player number less than one");
+    }
+    return playerNumber;
+  }
+
+  /**
+   * Get a new result with one more game counted.
+   *
+   * @param summary summary of the game
+   * @return a new result including the game
+   * @throws IllegalArgumentException summary is null, or its winner is out of range
+   */
+  public TournamentResultImpl add(GameSummary summary) throws IllegalArgumentException {
+    if (summary == null) {
+      throw new IllegalArgumentException("summary is null");
+    }
+    int[] wins = Arrays.copyOf(winNumbers, winNumbers.length);
+    if (summary.isTargetKilled()) {
+      if (summary.getWinnerIdx() < 0 || summary.getWinnerIdx() >= wins.length) {
+        throw new IllegalArgumentException("winner index invalid");
+      }
+      wins[summary.getWinnerIdx()]++;
+    }
+    return new TournamentResultImpl(gameNumber + 1,
+            killNumber + (summary.isTargetKilled() ? 1 : 0), wins,
+            turnsToKill + (summary.isTargetKilled() ? summary.getTurnsPlayed() : 0),
+            itemsPickedUp + summary.getItemsPickedUp(), itemsUsed + summary.getItemsUsed(),
+            attackAttempts + summary.getAttackAttempts(),
+            successfulAttacks + summary.getSuccessfulAttacks());
+  }
+
+  /**
+   * Get a new result with the games of both results counted.
+   *
+   * @param other the other result
+   * @return a new result including games of both
+   * @throws IllegalArgumentException other is null, or has a different player number
+   */
+  public TournamentResultImpl merge(TournamentResultImpl other) throws IllegalArgumentException {
+    if (other == null) {
+      throw new IllegalArgumentException("other is null");
+    }
+    if (other.winNumbers.length != winNumbers.length) {
+      throw new IllegalArgumentException("player numbers are different");
+    }
+    int[] wins = new int[winNumbers.length];
+    for (int i = 0; i < wins.length; ++i) {
+      wins[i] = winNumbers[i] + other.winNumbers[i];
+    }
+    return new TournamentResultImpl(gameNumber + other.gameNumber,
+            killNumber + other.killNumber, wins, turnsToKill + other.turnsToKill,
+            itemsPickedUp + other.itemsPickedUp, itemsUsed + other.itemsUsed,
+            attackAttempts + other.attackAttempts, successfulAttacks + other.successfulAttacks);
+  }
+
+  @Override
+  public int getGameNumber() {
+    return gameNumber;
+  }
+
+  @Override
+  public int getKillNumber() {
+    return killNumber;
+  }
+
+  @Override
+  public int getWinNumber(int playerIdx) throws IllegalArgumentException {
+    if (playerIdx < 0 || playerIdx >= winNumbers.length) {
+      throw new IllegalArgumentException("player index invalid");
+    }
+    return winNumbers[playerIdx];
+  }
+
+  @Override
+  public double getWinRate(int playerIdx) throws IllegalArgumentException {
+    int wins = getWinNumber(playerIdx);
+    return gameNumber == 0 ? 0 : (double) wins / gameNumber;
+  }
+
+  @Override
+  public double getAverageTurnsToKill() {
+    return killNumber == 0 ? 0 : (double) turnsToKill / killNumber;
+  }
+
+  @Override
+  public double getAverageItemsPickedUp() {
+    return gameNumber == 0 ? 0 : (double) itemsPickedUp / gameNumber;
+  }
+
+  @Override
+  public double getAverageItemsUsed() {
+    return gameNumber == 0 ? 0 : (double) itemsUsed / gameNumber;
+  }
+
+  @Override
+  public double getAttackSuccessRate() {
+    return attackAttempts == 0 ? 0 : (double) successfulAttacks / attackAttempts;
+  }
+
+  /**
+   * Get the statistics in string form.
+   *
+   * @return the statistics in string form
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("Games:%d. Kills:%d. Average turns to kill:%.2f.\n",
+            gameNumber, killNumber, getAverageTurnsToKill()));
+    sb.append(String.format("Average items picked up:%.2f. Average items used:%.2f. "
+                    + "Attack success rate:%.2f.\n",
+            getAverageItemsPickedUp(), getAverageItemsUsed(), getAttackSuccessRate()));
+    for (int i = 0; i < winNumbers.length; ++i) {
+      sb.append(String.format("Player %d wins %d game(s), win rate %.4f.\n",
+              i, winNumbers[i], getWinRate(i)));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,23 @@
+package simulation;
+
+/**
+ * Plays a large number of independent games on a config in parallel
+ * and aggregates their statistics.
+ */
+public interface TournamentRunner {
+
+  /**
+   * Play games on the given config.
+   * Game i is seeded from the master seed and i alone, so the result
+   * doesn't depend on how many threads play the games.
+   *
+   * @param config     content of the world specification
+   * @param gameNumber the number of games to play
+   * @param masterSeed seed of the whole tournament
+   * @return aggregated statistics of the games
+   * @throws IllegalArgumentException config is null or invalid, or gameNumber is negative
+   * @throws IllegalStateException    the players can't be set up in the world
+   */
+  TournamentResult run(String config, int gameNumber, long masterSeed)
+          throws IllegalArgumentException, IllegalStateException;
+}
@@ -0,0 +1,136 @@
+package simulation;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import model.AiActionControllerImpl;
+import model.WorldModel;
+import model.WorldModelImpl;
+import model.WorldTopology;
+import model.WorldTopologyCache;
+
+/**
+ * Plays tournaments on a work-stealing pool.
+ * The range of games is split in halves until it is small enough, then every piece
+ * is played by one worker with a world model of its own, so no game state is shared.
+ */
+public class TournamentRunnerImpl implements TournamentRunner {
+
+  private static final int GAMES_PER_TASK = 16;
+
+  private final int parallelism;
+  private final List<String> names;
+  private final List<Integer> rooms;
+  private final List<Boolean> isAi;
+  private final List<String> humanScripts;
+  private final int maxTurn;
+  private final int maxItemCarried;
+
+  /**
+   * Constructor.
+   * The players are the same in every game, see GameSimulatorImpl.
+   *
+   * @param parallelism    the number of worker threads
+   * @param names          names of the players
+   * @param rooms          initial rooms of the players
+   * @param isAi           whether the players are AIs
+   * @param humanScripts   actions of the players, only used for human players
+   * @param maxTurn        max turn of every game
+   * @param maxItemCarried max item number each player can carry
+   * @throws IllegalArgumentException parallelism is less than one, or any list is null,
+   *                                  empty or of a different size
+   */
+  public TournamentRunnerImpl(int parallelism, List<String> names, List<Integer> rooms,
+                              List<Boolean> isAi, List<String> humanScripts,
+                              int maxTurn, int maxItemCarried) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism less than one");
+    }
+    if (names == null || rooms == null || isAi == null || humanScripts == null) {
+      throw new IllegalArgumentException("parameter is null");
+    }
+    if (names.isEmpty()) {
+      throw new IllegalArgumentException("list is empty");
+    }
+    if (names.size() != rooms.size() || names.size() != isAi.size()
+            || names.size() != humanScripts.size()) {
+      throw new IllegalArgumentException("list is not of the same length");
+    }
+    this.parallelism = parallelism;
+    this.names = new ArrayList<>(names);
+    this.rooms = new ArrayList<>(rooms);
+    this.isAi = new ArrayList<>(isAi);
+    this.humanScripts = new ArrayList<>(humanScripts);
+    this.maxTurn = maxTurn;
+    this.maxItemCarried = maxItemCarried;
+  }
+
+  @Override
+  public TournamentResult run(String config, int gameNumber, long masterSeed)
+          throws IllegalArgumentException, IllegalStateException {
+    if (config == null) {
+      throw new IllegalArgumentException("config is null");
+    }
+    if (gameNumber < 0) {
+      throw new IllegalArgumentException("game number shouldn't be negative");
+    }
+    //parse the config once, every game on every thread shares the same topology
+    WorldTopology topology =
+            WorldTopologyCache.getInstance().getTopology(new StringReader(config));
+    //validate the players once before spreading the games
+    newSimulator(topology);
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.invoke(new GameRangeTask(topology, 0, gameNumber, masterSeed));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private GameSimulator newSimulator(WorldTopology topology) {
+    WorldModel world = WorldModelImpl.fromTopology(topology);
+    return new GameSimulatorImpl(world, names, rooms, isAi, humanScripts,
+            maxTurn, maxItemCarried);
+  }
+
+  /**
+   * Plays games [begin, end) of a tournament.
+   */
+  private class GameRangeTask extends RecursiveTask<TournamentResultImpl> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final WorldTopology topology;
+    private final int begin;
+    private final int end;
+    private final long masterSeed;
+
+    GameRangeTask(WorldTopology topology, int begin, int end, long masterSeed) {
+      this.topology = topology;
+      this.begin = begin;
+      this.end = end;
+      this.masterSeed = masterSeed;
+    }
+
+    @Override
+    protected TournamentResultImpl compute() {
+      if (end - begin <= GAMES_PER_TASK) {
+        GameSimulator simulator = newSimulator(topology);
+        TournamentResultImpl result = new TournamentResultImpl(names.size());
+        for (int i = begin; i < end; ++i) {
+          result = result.add(simulator.runGame(AiActionControllerImpl.deriveSeed(masterSeed, i)));
+        }
+        return result;
+      }
+      int mid = (begin + end) >>> 1;
+      GameRangeTask left = new GameRangeTask(topology, begin, mid, masterSeed);
+      GameRangeTask right = new GameRangeTask(topology, mid, end, masterSeed);
+      left.fork();
+      TournamentResultImpl rightResult = right.compute();
+      return left.join().merge(rightResult);
+    }
+  }
+}
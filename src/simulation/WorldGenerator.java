@@ -0,0 +1,28 @@
+package simulation;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Generates world configs in the same format as the hand-written ones, e.g. GravityFalls.txt,
+ * so parsing, adjacency building and rendering can be tested at any scale.
+ */
+public interface WorldGenerator {
+
+  /**
+   * Write a whole config, line by line, so even a world of millions of rooms
+   * is never held in memory.
+   * The same generator always writes the same text.
+   *
+   * @param out where the config is written
+   * @throws IllegalArgumentException out is null
+   * @throws UncheckedIOException     writing fails
+   */
+  void generate(Appendable out) throws IllegalArgumentException, UncheckedIOException;
+
+  /**
+   * Generate the whole config as a string, only for worlds small enough to hold in memory.
+   *
+   * @return the text of the config
+   */
+  String generate();
+}
@@ -0,0 +1,131 @@
+package simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates worlds whose rooms are laid out on a grid of square slots, row by row,
+ * each room taking the top left corner of its slot so rooms never overlap.
+ * A room either fills its slot to the right, sharing a wall with the next room of the row,
+ * or stops short of it, and the same for the room below.
+ * So an inner room has 4 * wallRatio neighbors on average, and rooms are of different sizes.
+ * Items are placed in random rooms, with random attacks.
+ */
+public class WorldGeneratorImpl implements WorldGenerator {
+
+  /**
+   * Probability that a room shares a wall with the next room, about three neighbors a room.
+   */
+  public static final double DEFAULT_WALL_RATIO = 0.75;
+
+  private static final int SLOT_SIZE = 6;
+  private static final int MIN_ROOM_SIZE = 3;
+  private static final int MAX_ATTACK = 10;
+
+  private final int roomNumber;
+  private final int itemNumber;
+  private final int targetHealth;
+  private final double wallRatio;
+  private final long seed;
+
+  /**
+   * Constructor, rooms share walls with DEFAULT_WALL_RATIO.
+   *
+   * @param roomNumber   number of rooms
+   * @param itemNumber   number of items
+   * @param targetHealth initial health of the target character
+   * @param seed         seed of the layout and the items
+   * @throws IllegalArgumentException roomNumber or targetHealth is less than one,
+   *                                  or itemNumber is negative
+   */
+  public WorldGeneratorImpl(int roomNumber, int itemNumber, int targetHealth, long seed)
+          throws IllegalArgumentException {
+    this(roomNumber, itemNumber, targetHealth, DEFAULT_WALL_RATIO, seed);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param roomNumber   number of rooms
+   * @param itemNumber   number of items
+   * @param targetHealth initial health of the target character
+   * @param wallRatio    probability that a room shares a wall with the next room of its row,
+   *                     and with the room below it
+   * @param seed         seed of the layout and the items
+   * @throws IllegalArgumentException roomNumber or targetHealth is less than one,
+   *                                  or itemNumber is negative,
+   *                                  or wallRatio isn't between 0 and 1
+   */
+  public WorldGeneratorImpl(int roomNumber, int itemNumber, int targetHealth, double wallRatio,
+                            long seed) throws IllegalArgumentException {
+    if (roomNumber < 1) {
+      throw new IllegalArgumentException("room number less than one");
+    }
+    if (itemNumber < 0) {
+      throw new IllegalArgumentException("item number is negative");
+    }
+    if (targetHealth < 1) {
+      throw new IllegalArgumentException("target health less than one");
+    }
+    if (!(wallRatio >= 0 && wallRatio <= 1)) {
+      throw new IllegalArgumentException("wall ratio should be between 0 and 1");
+    }
+    this.roomNumber = roomNumber;
+    this.itemNumber = itemNumber;
+    this.targetHealth = targetHealth;
+    this.wallRatio = wallRatio;
+    this.seed = seed;
+  }
+
+  @Override
+  public void generate(Appendable out) throws IllegalArgumentException, UncheckedIOException {
+    if (out == null) {
+      throw new IllegalArgumentException("out is null");
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    int columns = (int) Math.ceil(Math.sqrt(roomNumber));
+    int rows = (roomNumber + columns - 1) / columns;
+    StringBuilder line = new StringBuilder();
+    try {
+      line.append(rows * SLOT_SIZE).append(' ').append(columns * SLOT_SIZE)
+              .append(" Generated World ").append(roomNumber).append('\n');
+      line.append(targetHealth).append(" Bravo Mabel\n");
+      line.append("Fortune the Cat\n");
+      line.append(roomNumber).append('\n');
+      out.append(line);
+
+      for (int i = 0; i < roomNumber; ++i) {
+        int top = i / columns * SLOT_SIZE;
+        int left = i % columns * SLOT_SIZE;
+        int height = random.nextDouble() < wallRatio
+                ? SLOT_SIZE : random.nextInt(MIN_ROOM_SIZE, SLOT_SIZE);
+        int width = random.nextDouble() < wallRatio
+                ? SLOT_SIZE : random.nextInt(MIN_ROOM_SIZE, SLOT_SIZE);
+        line.setLength(0);
+        line.append(top).append(' ').append(left).append(' ').append(top + height - 1)
+                .append(' ').append(left + width - 1).append(" Room ").append(i).append('\n');
+        out.append(line);
+      }
+
+      line.setLength(0);
+      line.append(itemNumber).append('\n');
+      out.append(line);
+      for (int i = 0; i < itemNumber; ++i) {
+        line.setLength(0);
+        line.append(random.nextInt(roomNumber)).append(' ')
+                .append(random.nextInt(MAX_ATTACK) + 1).append(" Item ").append(i).append('\n');
+        out.append(line);
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  @Override
+  public String generate() {
+    StringBuilder sb = new StringBuilder();
+    generate(sb);
+    return sb.toString();
+  }
+}
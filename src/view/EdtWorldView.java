@@ -0,0 +1,286 @@
+package view;
+
+import controller.WorldFeatureController;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import model.FrozenWorldDisplayModel;
+import model.WorldDisplayModel;
+
+/**
+ * A view that hands every call over to the Swing event dispatch thread,
+ * for commands executed on another thread.
+ * Calls made from the event dispatch thread run at once, the others are queued
+ * with SwingUtilities.invokeLater, so they run in the order they are made.
+ * By the time a queued call runs, the command thread may have changed the model again,
+ * so the view never reads the model itself: a call reading it gets a FrozenWorldDisplayModel,
+ * copied on the calling thread when the call is made.
+ * Lists given to the view are copied, so they can be changed after the call returns.
+ * Input is locked as soon as a command is submitted, and the lock the commands asked for
+ * is only applied once every command submitted is done.
+ * Since the calls are queued, an error found by the view is thrown on the event dispatch thread
+ * and not to the caller.
+ */
+public class EdtWorldView implements WorldView {
+
+  private final WorldView view;
+  private final AtomicInteger pendingCommands;
+  private WorldDisplayModel viewModel;
+  //the lock asked for by the commands, only used on the command thread
+  private boolean lockGameInput;
+  private boolean lockTurnInput;
+
+  /**
+   * Constructor of EdtWorldView.
+   *
+   * @param view the view updated on the event dispatch thread
+   * @throws IllegalArgumentException view is null
+   */
+  public EdtWorldView(WorldView view) throws IllegalArgumentException {
+    if (view == null) {
+      throw new IllegalArgumentException("view is null");
+    }
+    this.view = view;
+    this.pendingCommands = new AtomicInteger();
+    this.viewModel = null;
+    //a new view takes no input until a game starts
+    this.lockGameInput = true;
+    this.lockTurnInput = true;
+  }
+
+  /**
+   * Lock input because a command is submitted, at once when called on the event dispatch
+   * thread, so no input is taken while the command waits or runs.
+   */
+  public void commandSubmitted() {
+    pendingCommands.incrementAndGet();
+    runOnEdt(() -> view.setViewLock(true, true));
+  }
+
+  /**
+   * Called on the command thread when a command is done, whether it failed or not.
+   * Once no command is left, the view takes the lock the commands asked for last.
+   */
+  public void commandDone() {
+    if (pendingCommands.decrementAndGet() > 0) {
+      return;
+    }
+    boolean game = lockGameInput;
+    boolean turn = lockTurnInput;
+    runOnEdt(() -> {
+      //a command submitted meanwhile keeps input locked
+      if (pendingCommands.get() == 0) {
+        view.setViewLock(game, turn);
+      }
+    });
+  }
+
+  /**
+   * Copy what the view reads from the model, on the calling thread.
+   *
+   * @return the copy, null if no model is set
+   */
+  private WorldDisplayModel freezeModel() {
+    return viewModel == null ? null : new FrozenWorldDisplayModel(viewModel);
+  }
+
+  /**
+   * Run a call reading the model on the event dispatch thread, with a copy of the model
+   * taken now.
+   *
+   * @param runnable the call
+   */
+  private void runOnEdtWithModel(Runnable runnable) {
+    WorldDisplayModel frozen = freezeModel();
+    runOnEdt(() -> {
+      if (frozen != null) {
+        view.setViewModel(frozen);
+      }
+      runnable.run();
+    });
+  }
+
+  private void runOnEdt(Runnable runnable) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      runnable.run();
+    } else {
+      SwingUtilities.invokeLater(runnable);
+    }
+  }
+
+  private static <T> List<T> copyOf(List<T> list) {
+    return list == null ? null : new ArrayList<>(list);
+  }
+
+  @Override
+  public void showTurnInfo(String str) {
+    runOnEdt(() -> view.showTurnInfo(str));
+  }
+
+  @Override
+  public void showTurnResult(String str) {
+    runOnEdt(() -> view.showTurnResult(str));
+  }
+
+  @Override
+  public void showPrompt(String str) {
+    runOnEdt(() -> view.showPrompt(str));
+  }
+
+  @Override
+  public void showWarning(String str) {
+    runOnEdt(() -> view.showWarning(str));
+  }
+
+  @Override
+  public void showGameResult(String str) {
+    runOnEdt(() -> view.showGameResult(str));
+  }
+
+  @Override
+  public void movePlayerTo(int playerIdx, int roomIdx) {
+    runOnEdt(() -> view.movePlayerTo(playerIdx, roomIdx));
+  }
+
+  @Override
+  public void moveTargetCharacterTo(int roomIdx) {
+    runOnEdt(() -> view.moveTargetCharacterTo(roomIdx));
+  }
+
+  @Override
+  public void showPlayerInfo(String str) {
+    runOnEdt(() -> view.showPlayerInfo(str));
+  }
+
+  @Override
+  public void resetAllInfo() {
+    runOnEdt(view::resetAllInfo);
+  }
+
+  @Override
+  public void resetAllData() {
+    //the view locks input itself
+    lockGameInput = true;
+    lockTurnInput = true;
+    runOnEdt(view::resetAllData);
+  }
+
+  @Override
+  public void initMap(String mapImgFilePath, List<int[]> roomBounds,
+                      List<String> playerIcons, String targetIcon) {
+    List<int[]> bounds = copyOf(roomBounds);
+    List<String> icons = copyOf(playerIcons);
+    runOnEdtWithModel(() -> view.initMap(mapImgFilePath, bounds, icons, targetIcon));
+  }
+
+  @Override
+  public void initMap(BufferedImage mapImage, List<int[]> roomBounds,
+                      List<String> playerIcons, String targetIcon) {
+    List<int[]> bounds = copyOf(roomBounds);
+    List<String> icons = copyOf(playerIcons);
+    runOnEdtWithModel(() -> view.initMap(mapImage, bounds, icons, targetIcon));
+  }
+
+  @Override
+  public void initTiledMap(int imgScale, List<int[]> roomBounds,
+                           List<String> playerIcons, String targetIcon) {
+    List<int[]> bounds = copyOf(roomBounds);
+    List<String> icons = copyOf(playerIcons);
+    runOnEdtWithModel(() -> view.initTiledMap(imgScale, bounds, icons, targetIcon));
+  }
+
+  @Override
+  public void showInitPlayerPanel(int maxPlayerNum) {
+    runOnEdtWithModel(() -> view.showInitPlayerPanel(maxPlayerNum));
+  }
+
+  @Override
+  public void closeInitPlayerPanel() {
+    runOnEdt(view::closeInitPlayerPanel);
+  }
+
+  @Override
+  public void showInitMaxItemCarriedPanel() {
+    runOnEdtWithModel(view::showInitMaxItemCarriedPanel);
+  }
+
+  @Override
+  public void closeInitMaxItemCarriedPanel() {
+    runOnEdt(view::closeInitMaxItemCarriedPanel);
+  }
+
+  @Override
+  public void showInitMaxTurnPanel() {
+    runOnEdtWithModel(view::showInitMaxTurnPanel);
+  }
+
+  @Override
+  public void closeInitMaxTurnPanel() {
+    runOnEdt(view::closeInitMaxTurnPanel);
+  }
+
+  @Override
+  public void showPickupItemPanel(List<Integer> items) {
+    List<Integer> copy = copyOf(items);
+    runOnEdtWithModel(() -> view.showPickupItemPanel(copy));
+  }
+
+  @Override
+  public void closePickupItemPanel() {
+    runOnEdt(view::closePickupItemPanel);
+  }
+
+  @Override
+  public void showMovePetPanel() {
+    runOnEdtWithModel(view::showMovePetPanel);
+  }
+
+  @Override
+  public void closeMovePetPanel() {
+    runOnEdt(view::closeMovePetPanel);
+  }
+
+  @Override
+  public void showUseItemPanel(List<Integer> items) {
+    List<Integer> copy = copyOf(items);
+    runOnEdtWithModel(() -> view.showUseItemPanel(copy));
+  }
+
+  @Override
+  public void closeUseItemPanel() {
+    runOnEdt(view::closeUseItemPanel);
+  }
+
+  /**
+   * Ask for a lock of the view, which is applied once every command submitted is done.
+   *
+   * @param lockGameInput lock input of the game
+   * @param lockTurnInput lock input of a turn
+   */
+  @Override
+  public void setViewLock(boolean lockGameInput, boolean lockTurnInput) {
+    this.lockGameInput = lockGameInput;
+    this.lockTurnInput = lockTurnInput;
+  }
+
+  /**
+   * Set the model copied for the calls reading it, the view itself never gets this model.
+   *
+   * @param m the model
+   * @throws IllegalArgumentException m is null
+   */
+  @Override
+  public void setViewModel(WorldDisplayModel m) throws IllegalArgumentException {
+    if (m == null) {
+      throw new IllegalArgumentException("model is null");
+    }
+    viewModel = m;
+  }
+
+  @Override
+  public void setFeatures(WorldFeatureController f) {
+    runOnEdt(() -> view.setFeatures(f));
+  }
+}
@@ -0,0 +1,104 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which players are in which room on the map, so the players sharing a room can be laid out
+ * around each other without going through every player.
+ */
+class RoomOccupancy {
+
+  //indices of the players in every room, in ascending order
+  private final Map<Integer, List<Integer>> roomOccupants;
+  //room of every player, -1 before the player is put on the map
+  private final List<Integer> playerRooms;
+
+  /**
+   * Constructor, with no player.
+   */
+  RoomOccupancy() {
+    roomOccupants = new HashMap<>();
+    playerRooms = new ArrayList<>();
+  }
+
+  /**
+   * Forget every player, then take the given number of players, none of them on the map.
+   *
+   * @param playerNumber number of players
+   * @throws IllegalArgumentException playerNumber is negative
+   */
+  void reset(int playerNumber) throws IllegalArgumentException {
+    if (playerNumber < 0) {
+      throw new IllegalArgumentException("player number is negative");
+    }
+    roomOccupants.clear();
+    playerRooms.clear();
+    for (int i = 0; i < playerNumber; ++i) {
+      playerRooms.add(-1);
+    }
+  }
+
+  /**
+   * Put a player in a room, taking it out of the room it was in.
+   *
+   * @param playerIdx index of the player
+   * @param roomIdx   index of the room
+   * @return the players in the room, the moved one included, in ascending order
+   * @throws IllegalArgumentException playerIdx is out of range, or roomIdx is negative
+   */
+  List<Integer> move(int playerIdx, int roomIdx) throws IllegalArgumentException {
+    checkPlayer(playerIdx);
+    if (roomIdx < 0) {
+      throw new IllegalArgumentException("room index is negative");
+    }
+    int oldRoomIdx = playerRooms.get(playerIdx);
+    if (oldRoomIdx >= 0) {
+      List<Integer> oldOccupants = roomOccupants.get(oldRoomIdx);
+      oldOccupants.remove(Integer.valueOf(playerIdx));
+      if (oldOccupants.isEmpty()) {
+        roomOccupants.remove(oldRoomIdx);
+      }
+    }
+    playerRooms.set(playerIdx, roomIdx);
+    List<Integer> occupants = roomOccupants.computeIfAbsent(roomIdx, k -> new ArrayList<>());
+    int pos = 0;
+    while (pos < occupants.size() && occupants.get(pos) < playerIdx) {
+      ++pos;
+    }
+    occupants.add(pos, playerIdx);
+    return Collections.unmodifiableList(occupants);
+  }
+
+  /**
+   * Get the room of a player.
+   *
+   * @param playerIdx index of the player
+   * @return index of the room, -1 if the player isn't on the map
+   * @throws IllegalArgumentException playerIdx is out of range
+   */
+  int getRoom(int playerIdx) throws IllegalArgumentException {
+    checkPlayer(playerIdx);
+    return playerRooms.get(playerIdx);
+  }
+
+  /**
+   * Get the players in a room.
+   *
+   * @param roomIdx index of the room
+   * @return the players in the room in ascending order, empty if there is none
+   */
+  List<Integer> getOccupants(int roomIdx) {
+    List<Integer> occupants = roomOccupants.get(roomIdx);
+    return occupants == null ? List.of() : Collections.unmodifiableList(occupants);
+  }
+
+  private void checkPlayer(int playerIdx) throws IllegalArgumentException {
+    if (playerIdx < 0 || playerIdx >= playerRooms.size()) {
+      throw new IllegalArgumentException("player index out of range");
+    }
+  }
+}
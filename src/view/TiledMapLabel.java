@@ -0,0 +1,110 @@
+package view;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import model.WorldDisplayModel;
+
+/**
+ * Label showing the map, either as a whole image or tile by tile.
+ * In tiles, only the tiles inside the area being painted are drawn, which in a scroll pane
+ * is the viewport, and the tiles drawn most recently are kept up to a fixed number,
+ * so a map of any size takes the same memory.
+ */
+class TiledMapLabel extends JLabel {
+
+  private static final long serialVersionUID = 1L;
+  private static final int TILE_SIZE = 256;
+  private static final int TILE_CAPACITY = 96;
+
+  private final Map<Long, BufferedImage> tiles;
+  private WorldDisplayModel viewModel;
+  private int imgScale;
+  private int mapWidth;
+  private int mapHeight;
+
+  /**
+   * Constructor.
+   */
+  TiledMapLabel() {
+    //access order, so the eldest entry is the tile drawn least recently
+    tiles = new LinkedHashMap<>(TILE_CAPACITY * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+        return size() > TILE_CAPACITY;
+      }
+    };
+    viewModel = null;
+  }
+
+  /**
+   * Show the map as a whole image.
+   *
+   * @param map the map
+   */
+  void showImage(BufferedImage map) {
+    viewModel = null;
+    tiles.clear();
+    setPreferredSize(null);
+    setIcon(new ImageIcon(map));
+    setBounds(new Rectangle(0, 0, map.getWidth(), map.getHeight()));
+  }
+
+  /**
+   * Show the map tile by tile, each tile drawn by the model when it is first painted.
+   *
+   * @param viewModel the model drawing the tiles
+   * @param imgScale  how much the map is scaled
+   * @param mapWidth  width of the whole map in pixels
+   * @param mapHeight height of the whole map in pixels
+   */
+  void showTiles(WorldDisplayModel viewModel, int imgScale, int mapWidth, int mapHeight) {
+    this.viewModel = viewModel;
+    this.imgScale = imgScale;
+    this.mapWidth = mapWidth;
+    this.mapHeight = mapHeight;
+    tiles.clear();
+    setIcon(null);
+    setPreferredSize(new Dimension(mapWidth, mapHeight));
+    setBounds(new Rectangle(0, 0, mapWidth, mapHeight));
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    if (viewModel == null) {
+      return;
+    }
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, mapWidth, mapHeight);
+    }
+    int colBegin = Math.max(0, clip.x / TILE_SIZE);
+    int rowBegin = Math.max(0, clip.y / TILE_SIZE);
+    int colEnd = Math.min((mapWidth - 1) / TILE_SIZE, (clip.x + clip.width - 1) / TILE_SIZE);
+    int rowEnd = Math.min((mapHeight - 1) / TILE_SIZE, (clip.y + clip.height - 1) / TILE_SIZE);
+    for (int row = rowBegin; row <= rowEnd; ++row) {
+      for (int col = colBegin; col <= colEnd; ++col) {
+        g.drawImage(getTile(row, col), col * TILE_SIZE, row * TILE_SIZE, null);
+      }
+    }
+  }
+
+  private BufferedImage getTile(int row, int col) {
+    long key = ((long) row << 32) | col;
+    BufferedImage tile = tiles.get(key);
+    if (tile == null) {
+      int x = col * TILE_SIZE;
+      int y = row * TILE_SIZE;
+      tile = viewModel.renderMapTile(imgScale, x, y,
+              Math.min(TILE_SIZE, mapWidth - x), Math.min(TILE_SIZE, mapHeight - y));
+      tiles.put(key, tile);
+    }
+    return tile;
+  }
+}
@@ -2,8 +2,9 @@ package view;
 
 import controller.WorldFeatureController;
 import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 import java.util.List;
-import model.WorldViewModel;
+import model.WorldDisplayModel;
 
 /**
  * This is the interface for the view in the game.
@@ -119,6 +120,40 @@ public interface WorldView {
                List<String> playerIcons, String targetIcon)
           throws IllegalArgumentException;
 
+  /**
+   * This is used to initialize the world map as well as rooms' bounds in the map,
+   * with the map already drawn in memory, so no image file is written or read.
+   *
+   * @param mapImage    the map image
+   * @param roomBounds  the rooms' bounds in the map
+   * @param playerIcons file paths of the players' images
+   * @param targetIcon  file path of the target character's image
+   * @throws IllegalArgumentException mapImage is null, or roomBounds
+   *                                  is null, or playerIcons is null,
+   *                                  or targetIcon is null or empty
+   */
+  void initMap(BufferedImage mapImage, List<int[]> roomBounds,
+               List<String> playerIcons, String targetIcon)
+          throws IllegalArgumentException;
+
+  /**
+   * This is used to initialize the world map as well as rooms' bounds in the map,
+   * with the map drawn by the model tile by tile, only where the map is scrolled to.
+   * This is for maps too big to be drawn as a whole.
+   *
+   * @param imgScale    how much the map is scaled
+   * @param roomBounds  the rooms' bounds in the map
+   * @param playerIcons file paths of the players' images
+   * @param targetIcon  file path of the target character's image
+   * @throws IllegalArgumentException imgScale is less than two, or roomBounds
+   *                                  is null, or playerIcons is null,
+   *                                  or targetIcon is null or empty
+   * @throws IllegalStateException    the view model isn't set
+   */
+  void initTiledMap(int imgScale, List<int[]> roomBounds,
+                    List<String> playerIcons, String targetIcon)
+          throws IllegalArgumentException, IllegalStateException;
+
   /**
    * This is used to show the dialog that allows users to specify information of the players.
    *
@@ -219,7 +254,7 @@ public interface WorldView {
    * @param m view model
    * @throws IllegalArgumentException view model is null
    */
-  void setViewModel(WorldViewModel m) throws IllegalArgumentException;
+  void setViewModel(WorldDisplayModel m) throws IllegalArgumentException;
 
   /**
    * This is used to set the feature controller for the view.
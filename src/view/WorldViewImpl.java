@@ -4,6 +4,7 @@ import static javax.swing.SwingConstants.CENTER;
 
 import controller.AttemptAttackStep1Command;
 import controller.AttemptAttackStep2Command;
+import controller.AutoPlayCommand;
 import controller.ClickPlayerCommand;
 import controller.ClickRoomCommand;
 import controller.ExitGameCommand;
@@ -22,7 +23,6 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Image;
-import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
@@ -38,6 +38,7 @@ import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -53,7 +54,7 @@ import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
 import javax.swing.OverlayLayout;
 import javax.swing.ScrollPaneLayout;
-import model.WorldViewModel;
+import model.WorldDisplayModel;
 
 
 /**
@@ -62,20 +63,25 @@ import model.WorldViewModel;
  */
 public class WorldViewImpl extends JFrame implements WorldView {
 
+  private static final int MAX_TILED_MAP_VIEW_WIDTH = 1000;
+  private static final int MAX_TILED_MAP_VIEW_HEIGHT = 900;
+
   private final JMenu topMenu;
   private final JMenuItem menuItem1;
   private final JMenuItem menuItem2;
   private final JMenuItem menuItem3;
+  private final JCheckBoxMenuItem menuItemAutoPlay;
   private final JFileChooser fileChooser;
 
   private final JTabbedPane paneRoot;
 
   private final JSplitPane paneGame;
 
+  private final JScrollPane paneMap;
   private final JPanel panelMap;
   private final JLayeredPane layeredPane;
 
-  private final JLabel labelMap;
+  private final TiledMapLabel labelMap;
 
   private final JTextArea textAreaRightTop;
   private final JTextArea textAreaRightMiddle;
@@ -87,9 +93,10 @@ public class WorldViewImpl extends JFrame implements WorldView {
   private final List<JLabel> labelPlayerNames;
   private final List<JLabel> labelRooms;
   private final List<Rectangle> roomBounds;
+  private final RoomOccupancy occupancy;
 
   private WorldFeatureController featureController;
-  private WorldViewModel viewModel;
+  private WorldDisplayModel viewModel;
 
   private DialogView curDialog;
 
@@ -126,10 +133,13 @@ public class WorldViewImpl extends JFrame implements WorldView {
     menuItem1 = new JMenuItem("New Game with current config");
     menuItem2 = new JMenuItem("New Game with new config...");
     menuItem3 = new JMenuItem("Quit");
+    //when selected, all the AI turns in a row are played at once
+    menuItemAutoPlay = new JCheckBoxMenuItem("Auto-play AI turns");
 
     topMenu = new JMenu("Options");
     topMenu.add(menuItem1);
     topMenu.add(menuItem2);
+    topMenu.add(menuItemAutoPlay);
     topMenu.add(menuItem3);
     JMenuBar topMenuBar = new JMenuBar();
     topMenuBar.add(topMenu);
@@ -185,11 +195,11 @@ public class WorldViewImpl extends JFrame implements WorldView {
     paneGameRight.setMinimumSize(new Dimension(200, 300));
 
     //left
-    JScrollPane paneGameLeft = new JScrollPane();
-    paneGameLeft.setLayout(new ScrollPaneLayout());
+    paneMap = new JScrollPane();
+    paneMap.setLayout(new ScrollPaneLayout());
 
     paneGame = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
-            paneGameLeft, paneGameRight);
+            paneMap, paneGameRight);
 
     paneRoot = new JTabbedPane();
     paneRoot.addTab("Welcome Page", paneWelcome);
@@ -197,12 +207,12 @@ public class WorldViewImpl extends JFrame implements WorldView {
     this.getContentPane().add(paneRoot);
 
 
-    labelMap = new JLabel();
+    labelMap = new TiledMapLabel();
     labelMap.setOpaque(false);
     panelMap = new JPanel();
     panelMap.setLayout(new OverlayLayout(panelMap));
     panelMap.add(labelMap);
-    paneGameLeft.setViewportView(panelMap);
+    paneMap.setViewportView(panelMap);
     layeredPane = new JLayeredPane();
     layeredPane.setOpaque(false);
     labelMap.add(layeredPane);
@@ -213,6 +223,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
     labelPlayerNames = new ArrayList<>();
     labelRooms = new ArrayList<>();
     roomBounds = new ArrayList<>();
+    occupancy = new RoomOccupancy();
 
     viewModel = null;
     featureController = null;
@@ -327,12 +338,58 @@ public class WorldViewImpl extends JFrame implements WorldView {
   @Override
   public void initMap(String mapImgFilePath, List<int[]> roomBounds,
                       List<String> playerIcons, String targetIcon) {
+    if (mapImgFilePath == null || mapImgFilePath.isEmpty()) {
+      throw new IllegalArgumentException("mapImgFilePath invalid");
+    }
+    try {
+      initMap(ImageIO.read(new File(mapImgFilePath)), roomBounds, playerIcons, targetIcon);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+  }
+
+  @Override
+  public void initMap(BufferedImage mapImage, List<int[]> roomBounds,
+                      List<String> playerIcons, String targetIcon) {
     if (paneRoot.getTabCount() == 1) {
       paneRoot.addTab("Game", paneGame);
     }
-    if (mapImgFilePath == null || mapImgFilePath.isEmpty()) {
-      throw new IllegalArgumentException("mapImgFilePath invalid");
+    if (mapImage == null) {
+      throw new IllegalArgumentException("mapImage is null");
     }
+    checkMapParams(roomBounds, playerIcons, targetIcon);
+    paneRoot.setSelectedIndex(1);
+    loadMap(mapImage);
+    initMapObjects(roomBounds, playerIcons, targetIcon);
+  }
+
+  @Override
+  public void initTiledMap(int imgScale, List<int[]> roomBounds,
+                           List<String> playerIcons, String targetIcon) {
+    if (viewModel == null) {
+      throw new IllegalStateException("view model isn't set");
+    }
+    if (paneRoot.getTabCount() == 1) {
+      paneRoot.addTab("Game", paneGame);
+    }
+    if (imgScale <= 1) {
+      throw new IllegalArgumentException("imgScale should be at least 2");
+    }
+    checkMapParams(roomBounds, playerIcons, targetIcon);
+    paneRoot.setSelectedIndex(1);
+    //the same size as the whole map, see WorldDisplayModel.renderMapTile
+    int width = imgScale * (viewModel.getWidth() + 1);
+    int height = imgScale * (viewModel.getHeight() + 1);
+    labelMap.showTiles(viewModel, imgScale, width, height);
+    layeredPane.setSize(new Dimension(width, height));
+    //don't let pack make the window as big as the whole map
+    paneMap.setPreferredSize(new Dimension(Math.min(width, MAX_TILED_MAP_VIEW_WIDTH),
+            Math.min(height, MAX_TILED_MAP_VIEW_HEIGHT)));
+    initMapObjects(roomBounds, playerIcons, targetIcon);
+  }
+
+  private void checkMapParams(List<int[]> roomBounds, List<String> playerIcons,
+                              String targetIcon) {
     if (roomBounds == null) {
       throw new IllegalArgumentException("roomBounds is null");
     }
@@ -342,8 +399,10 @@ public class WorldViewImpl extends JFrame implements WorldView {
     if (targetIcon == null || targetIcon.isEmpty()) {
       throw new IllegalArgumentException("targetIcon invalid");
     }
-    paneRoot.setSelectedIndex(1);
-    loadMap(mapImgFilePath);
+  }
+
+  private void initMapObjects(List<int[]> roomBounds, List<String> playerIcons,
+                              String targetIcon) {
     initRooms(roomBounds);
     initPlayers(playerIcons);
     initTargetCharacter(targetIcon);
@@ -351,16 +410,11 @@ public class WorldViewImpl extends JFrame implements WorldView {
     setLocationRelativeTo(null);
   }
 
-  private void loadMap(String mapImgFilePath) {
-    try {
-      BufferedImage myPicture = ImageIO.read(new File(mapImgFilePath));
-      labelMap.setIcon(new ImageIcon(myPicture));
-      labelMap.setHorizontalAlignment(CENTER);
-      labelMap.setBounds(new Rectangle(0, 0, myPicture.getWidth(), myPicture.getHeight()));
-      layeredPane.setSize(new Dimension(myPicture.getWidth(), myPicture.getHeight()));
-    } catch (IOException ioe) {
-      throw new IllegalStateException(ioe.getMessage());
-    }
+  private void loadMap(BufferedImage myPicture) {
+    paneMap.setPreferredSize(null);
+    labelMap.showImage(myPicture);
+    labelMap.setHorizontalAlignment(CENTER);
+    layeredPane.setSize(new Dimension(myPicture.getWidth(), myPicture.getHeight()));
   }
 
   private void initRooms(List<int[]> bounds) {
@@ -407,6 +461,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
     if (iconPath == null) {
       throw new IllegalArgumentException("player icon path invalid");
     }
+    occupancy.reset(iconPath.size());
     for (int i = 0; i < iconPath.size(); ++i) {
       try {
         String path = iconPath.get(i);
@@ -500,26 +555,17 @@ public class WorldViewImpl extends JFrame implements WorldView {
                     ln.getPreferredSize().width,
                     ln.getPreferredSize().height));
 
-    JLabel room = labelRooms.get(roomIdx);
-    var roomBounds = room.getBounds();
-    List<JLabel> sameRoomLabels = new ArrayList<>();
-    List<JLabel> sameRoomLabelNames = new ArrayList<>();
-    for (int i = 0; i < labelPlayers.size(); ++i) {
-      if (!labelPlayers.get(i).equals(l)) {
-        var b = labelPlayers.get(i).getBounds();
-        var center = new Point(b.x + b.width / 2, b.y + b.height / 2);
-        if (center.x > roomBounds.x && center.x < roomBounds.x + roomBounds.width
-                && center.y > roomBounds.y && center.y < roomBounds.y + roomBounds.height) {
-          sameRoomLabels.add(labelPlayers.get(i));
-          sameRoomLabelNames.add(labelPlayerNames.get(i));
-        }
-      }
-    }
-    if (sameRoomLabels.size() > 0) {
+    //the players already in the room are laid out around the one moving in
+    List<Integer> occupants = occupancy.move(playerIdx, roomIdx);
+    if (occupants.size() > 1) {
       int flipIdx = 1;
       int count = 1;
-      for (int i = 0; i < sameRoomLabels.size(); ++i) {
-        var label = sameRoomLabels.get(i);
+      int i = 0;
+      for (int occupant : occupants) {
+        if (occupant == playerIdx) {
+          continue;
+        }
+        var label = labelPlayers.get(occupant);
         Rectangle ppb = new Rectangle(
                 pb.x + (int) (count * flipIdx * label.getIcon().getIconWidth()
                         * sameRoomPlayerOffsetPercent),
@@ -527,7 +573,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
                 label.getIcon().getIconWidth(),
                 label.getIcon().getIconHeight());
         label.setBounds(ppb);
-        var labelName = sameRoomLabelNames.get(i);
+        var labelName = labelPlayerNames.get(occupant);
         labelName.setBounds(new Rectangle(
                 ppb.x + (ppb.width - labelName.getPreferredSize().width) / 2,
                 ppb.y - (int) (ppb.height * labelNameOffsetPercent),
@@ -535,6 +581,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
                 labelName.getPreferredSize().height));
         flipIdx *= -1;
         count = i % 2 > 0 ? (count + 1) : count;
+        ++i;
       }
     }
   }
@@ -736,7 +783,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
 
         switch (keyChar) {
           case 'c':
-            cmd = new TurnStartCommand();
+            cmd = menuItemAutoPlay.isSelected() ? new AutoPlayCommand() : new TurnStartCommand();
             break;
           case 'p':
             if (!lockTurnInput) {
@@ -782,7 +829,7 @@ public class WorldViewImpl extends JFrame implements WorldView {
   }
 
   @Override
-  public void setViewModel(WorldViewModel m) throws IllegalArgumentException {
+  public void setViewModel(WorldDisplayModel m) throws IllegalArgumentException {
     if (m == null) {
       throw new IllegalArgumentException("view model is null!");
     }
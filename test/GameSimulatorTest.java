@@ -0,0 +1,216 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import model.WorldModel;
+import model.WorldModelImpl;
+import org.junit.Before;
+import org.junit.Test;
+import simulation.GameSimulator;
+import simulation.GameSimulatorImpl;
+import simulation.GameSummary;
+import simulation.TournamentResult;
+import simulation.TournamentRunner;
+import simulation.TournamentRunnerImpl;
+import simulation.WorldGenerator;
+import simulation.WorldGeneratorImpl;
+
+
+/**
+ * Test for the headless game simulator.
+ */
+public class GameSimulatorTest {
+
+  private WorldModel world;
+  private List<String> names;
+  private List<Integer> rooms;
+  private List<Boolean> isAi;
+  private List<String> scripts;
+
+  /**
+   * Build necessary instance variables for testing.
+   */
+  @Before
+  public void setUp() {
+    try {
+      world = new WorldModelImpl(new FileReader("GravityFalls.txt"));
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    names = new ArrayList<>();
+    rooms = new ArrayList<>();
+    isAi = new ArrayList<>();
+    scripts = new ArrayList<>();
+  }
+
+  @Test
+  public void scriptedHumanAttack() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(false);
+    scripts.add("ATTACK -1");
+    GameSimulator simulator = new GameSimulatorImpl(world, names, rooms, isAi, scripts, 5, 2);
+    GameSummary summary = simulator.runGame();
+    assertEquals(false, summary.isTargetKilled());
+    assertEquals(-1, summary.getWinnerIdx());
+    assertEquals(null, summary.getWinnerName());
+    assertEquals(5, summary.getTurnsPlayed());
+    assertEquals(49, summary.getTargetHealthLeft());
+    assertEquals(1, summary.getAttackAttempts());
+    assertEquals(1, summary.getSuccessfulAttacks());
+    assertEquals(0, summary.getItemsUsed());
+    //the target character leaves after the first turn, so later attacks are invalid
+    assertEquals(4, summary.getInvalidActions());
+    assertEquals("Target character slipped away! Nobody wins.\n", summary.getResultMsg());
+  }
+
+  @Test
+  public void scriptedHumanPickupAndMove() {
+    names.add("Phi");
+    rooms.add(1);
+    isAi.add(false);
+    scripts.add("PICKUP_ITEM 8 MOVE 0 LOOK_AROUND");
+    GameSimulator simulator = new GameSimulatorImpl(world, names, rooms, isAi, scripts, 3, 2);
+    GameSummary summary = simulator.runGame();
+    assertEquals(3, summary.getTurnsPlayed());
+    assertEquals(1, summary.getItemsPickedUp());
+    assertEquals(0, summary.getInvalidActions());
+    assertEquals(0, world.getPlayerRoomIdx(0));
+  }
+
+  @Test
+  public void gamesAreIndependent() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(false);
+    scripts.add("ATTACK -1");
+    names.add("Wil");
+    rooms.add(5);
+    isAi.add(true);
+    scripts.add(null);
+    GameSimulator simulator = new GameSimulatorImpl(world, names, rooms, isAi, scripts, 20, 2);
+    for (int i = 0; i < 10; ++i) {
+      GameSummary summary = simulator.runGame();
+      assertEquals(true, world.isGameOver());
+      assertEquals(true, summary.getTurnsPlayed() <= 20);
+      assertEquals(true, summary.getSuccessfulAttacks() >= 1);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void humanWithoutScript() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(false);
+    scripts.add(null);
+    new GameSimulatorImpl(world, names, rooms, isAi, scripts, 5, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void malformedScript() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(false);
+    scripts.add("MOVE");
+    new GameSimulatorImpl(world, names, rooms, isAi, scripts, 5, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void listsOfDifferentSizes() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(true);
+    new GameSimulatorImpl(world, names, rooms, isAi, scripts, 5, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void maxTurnZero() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(true);
+    scripts.add(null);
+    new GameSimulatorImpl(world, names, rooms, isAi, scripts, 0, 2);
+  }
+
+  @Test
+  public void sameSeedSameGame() {
+    names.add("Phi");
+    names.add("Alex");
+    rooms.add(0);
+    rooms.add(5);
+    isAi.add(true);
+    isAi.add(true);
+    scripts.add(null);
+    scripts.add(null);
+    GameSimulator simulator = new GameSimulatorImpl(world, names, rooms, isAi, scripts, 30, 2);
+    GameSummary first = simulator.runGame(7);
+    GameSummary second = simulator.runGame(7);
+    assertEquals(first.toString(), second.toString());
+  }
+
+  @Test
+  public void tournamentSameResultOnAnyThreadNumber() throws IOException {
+    names.add("Phi");
+    names.add("Alex");
+    rooms.add(0);
+    rooms.add(5);
+    isAi.add(true);
+    isAi.add(true);
+    scripts.add(null);
+    scripts.add(null);
+    String config = Files.readString(Paths.get("GravityFalls.txt"));
+    TournamentRunner single = new TournamentRunnerImpl(1, names, rooms, isAi, scripts, 30, 2);
+    TournamentRunner multiple = new TournamentRunnerImpl(4, names, rooms, isAi, scripts, 30, 2);
+    TournamentResult expected = single.run(config, 100, 42);
+    TournamentResult actual = multiple.run(config, 100, 42);
+    assertEquals(100, actual.getGameNumber());
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tournamentZeroThread() {
+    names.add("Phi");
+    rooms.add(0);
+    isAi.add(true);
+    scripts.add(null);
+    new TournamentRunnerImpl(0, names, rooms, isAi, scripts, 30, 2);
+  }
+
+  @Test
+  public void generatedWorldLoads() {
+    WorldGenerator generator = new WorldGeneratorImpl(1000, 300, 30, 7);
+    WorldModel generated = new WorldModelImpl(new StringReader(generator.generate()));
+    assertEquals(1000, generated.getRoomNumber());
+    assertEquals(300, generated.getItemNumber());
+    assertEquals(30, generated.getTargetCharacterHealth());
+    assertEquals(generator.generate(), new WorldGeneratorImpl(1000, 300, 30, 7).generate());
+
+    names.add("Phi");
+    rooms.add(999);
+    isAi.add(true);
+    scripts.add(null);
+    GameSimulator simulator = new GameSimulatorImpl(generated, names, rooms, isAi, scripts,
+            50, 2);
+    assertEquals(50, simulator.runGame(3).getTurnsPlayed());
+  }
+
+  @Test
+  public void generatedWorldWallRatio() {
+    WorldModel separated = new WorldModelImpl(new StringReader(
+            new WorldGeneratorImpl(100, 0, 30, 0, 7).generate()));
+    WorldModel connected = new WorldModelImpl(new StringReader(
+            new WorldGeneratorImpl(100, 0, 30, 1, 7).generate()));
+    assertEquals(0, separated.getRoomNeighborNumber(55));
+    assertEquals(4, connected.getRoomNeighborNumber(55));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void generatorNoRoom() {
+    new WorldGeneratorImpl(0, 10, 30, 7);
+  }
+}
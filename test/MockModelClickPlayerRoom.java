@@ -1,3 +1,4 @@
+import java.awt.image.BufferedImage;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -5,6 +6,7 @@ import model.AiActionParam;
 import model.Player;
 import model.PlayerType;
 import model.WorldModel;
+import model.WorldTopology;
 
 /**
  * Mock WorldModel for testing controller.
@@ -42,6 +44,14 @@ public class MockModelClickPlayerRoom implements WorldModel {
             .append("\n");
   }
 
+  @Override
+  public void setPlayers(List<String> name, List<Integer> roomIdx, List<Boolean> isAi,
+                         long seed) {
+    log.append("setPlayers: ").append(uniqueCode)
+            .append(",").append(name).append(",").append(roomIdx).append(",").append(isAi)
+            .append(",").append(seed).append("\n");
+  }
+
   @Override
   public void setPlayers(List<Player> players) throws IllegalArgumentException {
     log.append("setPlayers: ").append(uniqueCode)
@@ -106,6 +116,33 @@ public class MockModelClickPlayerRoom implements WorldModel {
             .append(imgScale).append("\n");
   }
 
+  @Override
+  public BufferedImage renderMapImage(int imgScale) throws IllegalArgumentException {
+    log.append("renderMapImage: ").append(uniqueCode).append(",").append(imgScale).append("\n");
+    return new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR);
+  }
+
+  @Override
+  public byte[] saveSnapshot() {
+    log.append("saveSnapshot: ").append(uniqueCode).append("\n");
+    return new byte[0];
+  }
+
+  @Override
+  public void loadSnapshot(byte[] snapshot) throws IllegalArgumentException {
+    log.append("loadSnapshot: ").append(uniqueCode).append(",").append(snapshot.length)
+            .append("\n");
+  }
+
+  @Override
+  public BufferedImage renderMapTile(int imgScale, int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    log.append("renderMapTile: ").append(uniqueCode).append(",").append(imgScale).append(",")
+            .append(x).append(",").append(y).append(",").append(width).append(",")
+            .append(height).append("\n");
+    return new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+  }
+
   @Override
   public int getPlayerNumber() {
     log.append("getPlayerNumber: ").append(uniqueCode).append("\n");
@@ -125,6 +162,12 @@ public class MockModelClickPlayerRoom implements WorldModel {
     return 0;
   }
 
+  @Override
+  public int getTargetCharacterHealth() {
+    log.append("getTargetCharacterHealth: ").append(uniqueCode).append("\n");
+    return 0;
+  }
+
   @Override
   public int getCurPlayerIdx() {
     log.append("getCurPlayerIdx: ").append(uniqueCode).append("\n");
@@ -266,6 +309,20 @@ public class MockModelClickPlayerRoom implements WorldModel {
     return neighbors;
   }
 
+  @Override
+  public int getRoomNeighborNumber(int roomIdx) throws IllegalArgumentException {
+    log.append("getRoomNeighborNumber: ").append(uniqueCode).append(",").append(roomIdx)
+            .append("\n");
+    return 1;
+  }
+
+  @Override
+  public int getRoomNeighbor(int roomIdx, int order) throws IllegalArgumentException {
+    log.append("getRoomNeighbor: ").append(uniqueCode).append(",").append(roomIdx)
+            .append(",").append(order).append("\n");
+    return 1;
+  }
+
   @Override
   public List<Integer> getRoomItems(int roomIdx) throws IllegalArgumentException {
     log.append("getRoomItems: ").append(uniqueCode).append(",").append(roomIdx).append("\n");
@@ -297,4 +354,10 @@ public class MockModelClickPlayerRoom implements WorldModel {
     log.append("getName: ").append(uniqueCode).append("\n");
     return null;
   }
+
+  @Override
+  public WorldTopology getTopology() {
+    log.append("getTopology: ").append(uniqueCode).append("\n");
+    return null;
+  }
 }
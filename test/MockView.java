@@ -1,6 +1,7 @@
 import controller.WorldFeatureController;
+import java.awt.image.BufferedImage;
 import java.util.List;
-import model.WorldViewModel;
+import model.WorldDisplayModel;
 import view.WorldView;
 
 /**
@@ -81,6 +82,23 @@ public class MockView implements WorldView {
             .append(playerIcons).append(",").append(targetIcon).append("\n");
   }
 
+  @Override
+  public void initTiledMap(int imgScale, List<int[]> roomBounds,
+                           List<String> playerIcons, String targetIcon) {
+    log.append("initTiledMap: ").append(uniqueCode).append(",")
+            .append(imgScale).append(",").append(roomBounds).append(",")
+            .append(playerIcons).append(",").append(targetIcon).append("\n");
+  }
+
+  @Override
+  public void initMap(BufferedImage mapImage, List<int[]> roomBounds,
+                      List<String> playerIcons, String targetIcon) {
+    log.append("initMap: ").append(uniqueCode).append(",")
+            .append(mapImage.getWidth()).append("x").append(mapImage.getHeight()).append(",")
+            .append(roomBounds).append(",")
+            .append(playerIcons).append(",").append(targetIcon).append("\n");
+  }
+
   @Override
   public void showInitPlayerPanel(int maxPlayerNum) {
     log.append("showInitPlayerPanel: ").append(uniqueCode)
@@ -152,7 +170,7 @@ public class MockView implements WorldView {
   }
 
   @Override
-  public void setViewModel(WorldViewModel m) throws IllegalArgumentException {
+  public void setViewModel(WorldDisplayModel m) throws IllegalArgumentException {
     log.append("setViewModel: " + uniqueCode + "\n");
   }
 
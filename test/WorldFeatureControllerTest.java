@@ -1,7 +1,10 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import controller.AttemptAttackStep1Command;
 import controller.AttemptAttackStep2Command;
+import controller.AutoPlayCommand;
 import controller.ClickPlayerCommand;
 import controller.ClickRoomCommand;
 import controller.LookAroundCommand;
@@ -17,9 +20,17 @@ import controller.WorldCommand;
 import controller.WorldFeatureController;
 import controller.WorldFeatureControllerImpl;
 import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import model.FrozenWorldDisplayModel;
+import model.WorldDisplayModel;
 import model.WorldModel;
+import model.WorldModelImpl;
 import org.junit.Test;
 import view.WorldView;
 
@@ -69,6 +80,99 @@ public class WorldFeatureControllerTest {
     controller.executeCommand(cmd, null);
   }
 
+  @Test
+  public void executeCommandAsynchronously() throws Exception {
+    StringBuilder mockLog = new StringBuilder();
+    int uniqCode = 3;
+    CountDownLatch unlocked = new CountDownLatch(1);
+    WorldView v = new MockView(mockLog, uniqCode) {
+      @Override
+      public void setViewLock(boolean lockInput, boolean lockTurnActionListener) {
+        super.setViewLock(lockInput, lockTurnActionListener);
+        if (!lockInput) {
+          unlocked.countDown();
+        }
+      }
+    };
+    WorldModel m = new MockModel(mockLog, uniqCode);
+    WorldFeatureController controller = new WorldFeatureControllerImpl(m, true);
+    controller.setView(v);
+    boolean[] onEdt = {true, false};
+    CountDownLatch submitted = new CountDownLatch(1);
+    controller.executeCommand((world, view, param) -> {
+      onEdt[0] = SwingUtilities.isEventDispatchThread();
+      try {
+        submitted.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      view.showPrompt("first");
+      view.movePlayerTo(0, 2);
+    }, null);
+    controller.executeCommand((world, view, param) -> {
+      view.showPrompt("second");
+      view.setViewLock(false, true);
+    }, null);
+    submitted.countDown();
+    assertTrue(unlocked.await(5, TimeUnit.SECONDS));
+    //the view is updated on the event dispatch thread, after everything queued before
+    SwingUtilities.invokeAndWait(() -> onEdt[1] = SwingUtilities.isEventDispatchThread());
+    assertFalse(onEdt[0]);
+    assertTrue(onEdt[1]);
+    //input is locked as soon as a command is submitted,
+    //and takes the lock asked for only when every command is done
+    String expected = "setFeatures: 3\n"
+            + "setViewLock: 3,true,true\n"
+            + "setViewLock: 3,true,true\n"
+            + "showPrompt: 3,first\n"
+            + "movePlayerTo: 3,0,2\n"
+            + "showPrompt: 3,second\n"
+            + "setViewLock: 3,false,true\n";
+    assertEquals(expected, mockLog.toString());
+  }
+
+  @Test
+  public void executeCommandAsynchronouslyFreezesModel() throws Exception {
+    StringBuilder mockLog = new StringBuilder();
+    int uniqCode = 3;
+    List<WorldDisplayModel> viewModels = new ArrayList<>();
+    int[] shownRoom = {-1};
+    CountDownLatch shown = new CountDownLatch(1);
+    WorldView v = new MockView(mockLog, uniqCode) {
+      @Override
+      public void setViewModel(WorldDisplayModel m) {
+        super.setViewModel(m);
+        viewModels.add(m);
+      }
+
+      @Override
+      public void showMovePetPanel() {
+        super.showMovePetPanel();
+        shownRoom[0] = viewModels.get(viewModels.size() - 1).getPlayerRoomIdx(0);
+        shown.countDown();
+      }
+    };
+    WorldModel m = new WorldModelImpl(new FileReader("GravityFalls.txt"));
+    m.setPlayers(List.of("aa"), List.of(0), List.of(false));
+    m.setMaxTurn(10);
+    WorldFeatureController controller = new WorldFeatureControllerImpl(m, true);
+    controller.setView(v);
+    CountDownLatch moved = new CountDownLatch(1);
+    controller.executeCommand((world, view, param) -> {
+      view.showMovePetPanel();
+      //the model goes on before the view reads it
+      world.curHumanPlayerMove(1);
+      moved.countDown();
+    }, null);
+    assertTrue(moved.await(5, TimeUnit.SECONDS));
+    assertTrue(shown.await(5, TimeUnit.SECONDS));
+    assertEquals(1, viewModels.size());
+    assertTrue(viewModels.get(0) instanceof FrozenWorldDisplayModel);
+    assertEquals(0, shownRoom[0]);
+    assertEquals(m.getRoomNumber(), viewModels.get(0).getRoomNumber());
+    assertEquals(m.getRoomName(3), viewModels.get(0).getRoomName(3));
+  }
+
   @Test
   public void cmdNewGameNullParam() {
     StringBuilder mockLog = new StringBuilder();
@@ -321,13 +425,15 @@ public class WorldFeatureControllerTest {
                     + "getPlayerNumber: 5\n"
                     + "getMaxTurn: 5\n"
                     + "getMaxItemNumCarried: 5\n"
-                    + "outputMapImage: 5runtime_res/map.png,40\n"
+                    + "getWidth: 5\n"
+                    + "getHeight: 5\n"
+                    + "renderMapImage: 5,40\n"
                     + "resetAllInfo: 5\n"
                     + "getRoomNumber: 5\n"
                     + "getPlayerNumber: 5\n"
                     + "getPlayerNumber: 5\n"
                     + "getPlayerNumber: 5\n"
-                    + "initMap: 5,runtime_res/map.png,[],"
+                    + "initMap: 5,1x1,[],"
                     + "[runtime_res/character/001.png, runtime_res/character/002.png],"
                     + "runtime_res/character/boss.png\n"
                     + "showPrompt: 5,Press 'C' to start game\n"
@@ -1196,4 +1302,97 @@ public class WorldFeatureControllerTest {
     assertEquals(expected, mockLog.toString());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void cmdAutoPlayHumanTurn() {
+    StringBuilder mockLog = new StringBuilder();
+    int uniqCode = 3;
+    WorldView v = new MockView(mockLog, uniqCode);
+    WorldModel m = new MockModel(mockLog, uniqCode);
+    WorldCommand cmd = new AutoPlayCommand();
+    cmd.execute(m, v, null);
+    String expected = "isGameOver: 3\n"
+            + "getCurPlayerType: 3\n"
+            + "isGameOver: 3\n"
+            + "getCurPlayerType: 3\n"
+            + "setViewLock: 3,false,false\n"
+            + "resetAllInfo: 3\n"
+            + "getCurTurnInfo: 3\n"
+            + "showTurnInfo: 3,null\n"
+            + "showPrompt: 3,"
+            + "Click a neighbor room to move to\n"
+            + "Press 'P' to pick up an item in the room\n"
+            + "Press 'L' to look around\n"
+            + "Press 'A' to attempt an attack on the target\n"
+            + "Press 'M' to move the pet\n"
+            + "Please make your choice\n\n";
+    assertEquals(expected, mockLog.toString());
+  }
+
+  @Test
+  public void cmdAutoPlayGameOver() {
+    StringBuilder mockLog = new StringBuilder();
+    int uniqCode = 3;
+    WorldView v = new MockView(mockLog, uniqCode);
+    WorldModel m = new MockModelGameOver(mockLog, uniqCode);
+    WorldCommand cmd = new AutoPlayCommand();
+    cmd.execute(m, v, null);
+    String expected = "isGameOver: 3\n"
+            + "isGameOver: 3\n"
+            + "setViewLock: 3,true,true\n"
+            + "getGameResultMsg: 3\n"
+            + "showWarning: 3,null\n";
+    assertEquals(expected, mockLog.toString());
+  }
+
+  @Test
+  public void cmdAutoPlayUntilHumanTurn() throws IOException {
+    WorldModel m = new WorldModelImpl(new FileReader("GravityFalls.txt"));
+    m.setMaxTurn(20);
+    m.setMaxItemCarried(2);
+    m.setPlayers(List.of("Bot0", "Bot1", "Dipper", "Bot3"), List.of(0, 1, 2, 3),
+            List.of(true, true, false, true), 7);
+    StringBuilder mockLog = new StringBuilder();
+    WorldView v = new MockView(mockLog, 3);
+    WorldCommand cmd = new AutoPlayCommand();
+    cmd.execute(m, v, null);
+    assertEquals(2, m.getCurPlayerIdx());
+    assertFalse(m.isGameOver());
+    //both AI turns are shown at once, before the human turn
+    String expectedBegin = "setViewLock: 3,true,true\n"
+            + "resetAllInfo: 3\n"
+            + "moveTargetCharacterTo: 3,2\n"
+            + "setViewLock: 3,false,false\n"
+            + "showTurnInfo: 3,2 AI turns played:\n";
+    String expectedEnd = "showPrompt: 3,"
+            + "Click a neighbor room to move to\n"
+            + "Press 'P' to pick up an item in the room\n"
+            + "Press 'L' to look around\n"
+            + "Press 'A' to attempt an attack on the target\n"
+            + "Press 'M' to move the pet\n"
+            + "Please make your choice\n\n";
+    assertTrue(mockLog.toString().startsWith(expectedBegin));
+    assertTrue(mockLog.toString().endsWith(expectedEnd));
+  }
+
+  @Test
+  public void cmdAutoPlayAllAi() throws IOException {
+    WorldModel m = new WorldModelImpl(new FileReader("GravityFalls.txt"));
+    m.setMaxTurn(20);
+    m.setMaxItemCarried(2);
+    m.setPlayers(List.of("Bot0", "Bot1"), List.of(0, 1), List.of(true, true), 7);
+    StringBuilder mockLog = new StringBuilder();
+    WorldView v = new MockView(mockLog, 3);
+    WorldCommand cmd = new AutoPlayCommand();
+    cmd.execute(m, v, null);
+    assertTrue(m.isGameOver());
+    //every player moved is put in its last room once
+    String expectedBegin = "setViewLock: 3,true,true\n"
+            + "movePlayerTo: 3,0," + m.getPlayerRoomIdx(0) + "\n"
+            + "movePlayerTo: 3,1," + m.getPlayerRoomIdx(1) + "\n"
+            + "resetAllInfo: 3\n"
+            + "showTurnResult: 3,20 AI turns played:\n";
+    String expectedEnd = "showWarning: 3," + m.getGameResultMsg() + "\n";
+    assertTrue(mockLog.toString().startsWith(expectedBegin));
+    assertTrue(mockLog.toString().endsWith(expectedEnd));
+  }
+}
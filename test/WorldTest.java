@@ -1,21 +1,42 @@
 import static org.junit.Assert.assertEquals;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
+import javax.imageio.ImageIO;
 import model.AiActionControllerImpl;
 import model.AiActionParam;
+import model.FrozenWorldDisplayModel;
+import model.JournaledWorldModel;
+import model.MapImageCache;
 import model.Player;
 import model.PlayerActionType;
 import model.PlayerAiImpl;
 import model.PlayerHumanImpl;
 import model.PlayerType;
+import model.WorldDisplayModel;
 import model.WorldModel;
+import model.WorldJournal;
+import model.WorldJournalImpl;
 import model.WorldModelImpl;
+import model.WorldTopology;
+import model.WorldTopologyCache;
+import model.WorldTopologyCompiler;
+import model.WorldTopologyImpl;
 import org.junit.Before;
 import org.junit.Test;
+import simulation.WorldGeneratorImpl;
 
 
 /**
@@ -124,6 +145,23 @@ public class WorldTest {
     WorldModel world = new WorldModelImpl(sr);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverlappedRoomFarApartInList() {
+    StringReader sr = new StringReader(
+            "20 28 Gravity Falls\n"
+                    + "50 Bravo Mabel\n"
+                    + "Fortune the Cat\n"
+                    + "4\n"
+                    + " 0  0  3  3 Tombstone\n"
+                    + " 0  4  3  8 Kitchen\n"
+                    + "10 10 15 15 Garden\n"
+                    + " 2  2  5  5 Hell's Kitchen\n"
+                    + "2\n"
+                    + "0 3 Crepe Pan\n"
+                    + "1 2 Letter Opener\n");
+    WorldModel world = new WorldModelImpl(sr);
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testInvalidConstructorNoHeight() {
     StringReader sr = new StringReader(
@@ -687,6 +725,69 @@ public class WorldTest {
     assertEquals(true, neighborRooms.containsAll(expected));
   }
 
+  @Test
+  public void getAdjacentRoomIdxByOrder() {
+    FileReader fileReader = null;
+    try {
+      fileReader = new FileReader(filePath);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    WorldModel world = new WorldModelImpl(fileReader);
+    for (int roomIdx = 0; roomIdx < world.getRoomNumber(); ++roomIdx) {
+      List<Integer> neighborRooms = world.getRoomNeighbors(roomIdx);
+      assertEquals(neighborRooms.size(), world.getRoomNeighborNumber(roomIdx));
+      for (int i = 0; i < neighborRooms.size(); ++i) {
+        assertEquals((int) neighborRooms.get(i), world.getRoomNeighbor(roomIdx, i));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getAdjacentRoomIdxOrderOutOfRange() {
+    FileReader fileReader = null;
+    try {
+      fileReader = new FileReader(filePath);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    WorldModel world = new WorldModelImpl(fileReader);
+    world.getRoomNeighbor(0, world.getRoomNeighborNumber(0));
+  }
+
+  @Test
+  public void getAdjacentRoomIdxLargeWorld() {
+    int side = 40;
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%d %d Grid World\n", side * 3, side * 3));
+    sb.append("50 Bravo Mabel\n");
+    sb.append("Fortune the Cat\n");
+    sb.append(side * side).append("\n");
+    for (int r = 0; r < side; ++r) {
+      for (int c = 0; c < side; ++c) {
+        sb.append(String.format("%d %d %d %d Room%d\n",
+                r * 3, c * 3, r * 3 + 2, c * 3 + 2, r * side + c));
+      }
+    }
+    sb.append("1\n");
+    sb.append("0 3 Crepe Pan\n");
+    WorldModel world = new WorldModelImpl(new StringReader(sb.toString()));
+    assertEquals(side * side, world.getRoomNumber());
+
+    List<Integer> expected = new ArrayList<>();
+    expected.add(1);
+    expected.add(side);
+    assertEquals(expected, world.getRoomNeighbors(0));
+
+    int center = side + 1;
+    expected.clear();
+    expected.add(1);
+    expected.add(side);
+    expected.add(side + 2);
+    expected.add(side * 2 + 1);
+    assertEquals(expected, world.getRoomNeighbors(center));
+  }
+
   @Test
   public void getItemsInRoomMultiple() {
     FileReader fileReader = null;
@@ -1559,6 +1660,80 @@ public class WorldTest {
     assertEquals(expected, info);
   }
 
+  @Test
+  public void attackVisibilityFollowsMoves() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    SplittableRandom random = new SplittableRandom(7);
+    List<String> names = List.of("aa", "bb", "cc", "dd");
+    //several players start in one room
+    world.setMaxTurn(1000);
+    world.setMaxItemCarried(3);
+    world.setPlayers(names, List.of(0, 0, 1, 5), List.of(false, false, false, false));
+    int seenNum = 0;
+    int unseenNum = 0;
+    for (int turn = 1; turn <= 3000; ++turn) {
+      if (world.isGameOver() || turn % 400 == 0) {
+        //every counter starts again, from players put anywhere, some in the same room
+        if (world.isGameOver() || turn % 800 == 0) {
+          world.reinitializeWithCurrentConfig();
+          world.setMaxTurn(1000);
+          world.setMaxItemCarried(3);
+        }
+        List<Integer> rooms = new ArrayList<>();
+        for (int i = 0; i < names.size(); ++i) {
+          rooms.add(random.nextInt(world.getRoomNumber() / 2));
+        }
+        world.setPlayers(names, rooms, List.of(false, false, false, false));
+      }
+      int roomIdx = world.getCurPlayerRoomIdx();
+      int neighborNum = world.getRoomNeighborNumber(roomIdx);
+      if (roomIdx == world.getTargetCharacterRoomIdx()) {
+        boolean seen = expectSeen(world);
+        world.curHumanPlayerAttackTargetCharacter(-1);
+        assertEquals(seen, world.getLastTurnMsg().contains("failed for being seen"));
+        if (seen) {
+          ++seenNum;
+        } else {
+          ++unseenNum;
+        }
+      } else if (random.nextInt(10) == 0) {
+        world.curHumanPlayerMovePet(random.nextInt(world.getRoomNumber()));
+      } else if (neighborNum == 0) {
+        world.curHumanPlayerDisplayNeighborRooms();
+      } else {
+        //moves into and out of the neighbors of other players
+        world.curHumanPlayerMove(world.getRoomNeighbor(roomIdx, random.nextInt(neighborNum)));
+      }
+    }
+    assertEquals(true, seenNum > 20);
+    assertEquals(true, unseenNum > 20);
+  }
+
+  /**
+   * Tell if the current player is seen when attacking, from where every player and the pet is.
+   * Players in the same room always see the current player, players in neighbor rooms see it
+   * unless the pet is in its room.
+   */
+  private static boolean expectSeen(WorldModel world) {
+    int roomIdx = world.getCurPlayerRoomIdx();
+    List<Integer> neighbors = world.getRoomNeighbors(roomIdx);
+    boolean sameRoom = false;
+    boolean neighborRoom = false;
+    for (int i = 0; i < world.getPlayerNumber(); ++i) {
+      int playerRoomIdx = world.getPlayerRoomIdx(i);
+      if (i == world.getCurPlayerIdx()) {
+        continue;
+      }
+      if (playerRoomIdx == roomIdx) {
+        sameRoom = true;
+      } else if (neighbors.contains(playerRoomIdx)) {
+        neighborRoom = true;
+      }
+    }
+    boolean petHere = world.printRoomInfo(roomIdx).contains("--Pet is in the room");
+    return sameRoom || (neighborRoom && !petHere);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testAttackWithInvalidItem() {
     FileReader fileReader = null;
@@ -2349,5 +2524,1087 @@ public class WorldTest {
     world.curHumanPlayerMove(2);
   }
 
+  @Test
+  public void gamesSharingTopologyAreIndependent() {
+    WorldTopology topology;
+    try {
+      topology = new WorldTopologyImpl(new FileReader(filePath));
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    WorldModel first = WorldModelImpl.fromTopology(topology);
+    WorldModel second = WorldModelImpl.fromTopology(topology);
+    List<String> names = new ArrayList<>();
+    List<Integer> rooms = new ArrayList<>();
+    List<Boolean> ais = new ArrayList<>();
+    names.add("aa");
+    rooms.add(1);
+    ais.add(false);
+    first.setPlayers(names, rooms, ais);
+    first.setMaxTurn(30);
+    first.setMaxItemCarried(3);
+    second.setPlayers(names, rooms, ais);
+    second.setMaxTurn(30);
+    second.setMaxItemCarried(3);
+
+    first.curHumanPlayerPickupItem(8);
+    assertEquals(0, first.getRoomItems(1).size());
+    assertEquals(1, first.getCurPlayerItemNum());
+    assertEquals(1, first.getTargetCharacterRoomIdx());
+    assertEquals(1, second.getRoomItems(1).size());
+    assertEquals(0, second.getCurPlayerItemNum());
+    assertEquals(0, second.getTargetCharacterRoomIdx());
+
+    first.reinitializeWithCurrentConfig();
+    assertEquals(1, first.getRoomItems(1).size());
+    assertEquals(0, first.getTargetCharacterRoomIdx());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromTopologyNull() {
+    WorldModelImpl.fromTopology(null);
+  }
+
+  @Test
+  public void topologyCacheReusesSameConfig() {
+    String config1 = "10 10 One\n10 Target\nPet\n1\n0 0 2 2 Room\n1\n0 3 Item\n";
+    String config2 = "10 10 Two\n10 Target\nPet\n1\n0 0 2 2 Room\n1\n0 3 Item\n";
+    String config3 = "10 10 Three\n10 Target\nPet\n1\n0 0 2 2 Room\n1\n0 3 Item\n";
+    WorldTopologyCache cache = new WorldTopologyCache(2);
+    WorldTopology topology1 = cache.getTopology(new StringReader(config1));
+    assertEquals(true, topology1 == cache.getTopology(new StringReader(config1)));
+    WorldTopology topology2 = cache.getTopology(new StringReader(config2));
+    assertEquals(false, topology1 == topology2);
+    assertEquals(false, topology1.getContentHash().equals(topology2.getContentHash()));
+    assertEquals(2, cache.getSize());
+
+    //config1 is used more recently than config2, so config2 is dropped
+    cache.getTopology(new StringReader(config1));
+    cache.getTopology(new StringReader(config3));
+    assertEquals(2, cache.getSize());
+    assertEquals(true, topology1 == cache.getTopology(new StringReader(config1)));
+    assertEquals(false, topology2 == cache.getTopology(new StringReader(config2)));
+  }
+
+  @Test
+  public void topologyCacheSkipsInvalidConfig() {
+    WorldTopologyCache cache = new WorldTopologyCache(2);
+    try {
+      cache.getTopology(new StringReader("10 10 One\n10 Target\nPet\n1\n0 0 2 Room\n"));
+    } catch (IllegalArgumentException iae) {
+      //the room line misses a column
+    }
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void topologyCacheZeroCapacity() {
+    new WorldTopologyCache(0);
+  }
+
+  @Test
+  public void configWithCarriageReturnsAndExtraSpaces() {
+    String config = "10 10  Small   World \r\n10\tTarget\r\nPet\r\n2\r\n"
+            + " 0 0 2 2   First  Room\r\n3 0 5 2 Second\r\n1\r\n1  3 Item\r\n";
+    WorldModel world = new WorldModelImpl(new StringReader(config));
+    assertEquals("Small World", world.getName());
+    assertEquals(2, world.getRoomNumber());
+    assertEquals("First Room", world.getRoomName(0));
+    assertEquals(1, world.getRoomNeighborNumber(0));
+    assertEquals("Item", world.getItemName(0));
+    assertEquals(1, world.getRoomItems(1).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void configRoomNumberWithText() {
+    new WorldModelImpl(new StringReader("10 10 World\n10 Target\nPet\n1 room\n"
+            + "0 0 2 2 Room\n0\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void configRoomCornerNotInt() {
+    new WorldModelImpl(new StringReader("10 10 World\n10 Target\nPet\n1\n"
+            + "0 0 2 2x Room\n0\n"));
+  }
+
+  @Test
+  public void compiledWorldSameAsConfig() throws IOException {
+    WorldTopology topology = new WorldTopologyImpl(new FileReader(filePath));
+    File file = File.createTempFile("world", ".bin");
+    file.deleteOnExit();
+    WorldTopologyCompiler.getInstance().compile(topology, file.toPath());
+    WorldTopology loaded = WorldTopologyCompiler.getInstance().load(file.toPath());
+    assertEquals(topology.getContentHash(), loaded.getContentHash());
+    assertEquals(topology.getName(), loaded.getName());
+    assertEquals(topology.getWidth(), loaded.getWidth());
+    assertEquals(topology.getHeight(), loaded.getHeight());
+    assertEquals(topology.getTargetCharacterName(), loaded.getTargetCharacterName());
+    assertEquals(topology.getTargetCharacterHealth(), loaded.getTargetCharacterHealth());
+    assertEquals(topology.getPetName(), loaded.getPetName());
+    assertEquals(topology.getRoomNumber(), loaded.getRoomNumber());
+    for (int i = 0; i < topology.getRoomNumber(); ++i) {
+      assertEquals(topology.getRoom(i), loaded.getRoom(i));
+      assertEquals(topology.getRoomGraph().getNeighbors(i), loaded.getRoomGraph().getNeighbors(i));
+    }
+    assertEquals(topology.getItemNumber(), loaded.getItemNumber());
+    for (int i = 0; i < topology.getItemNumber(); ++i) {
+      assertEquals(topology.getItem(i), loaded.getItem(i));
+    }
+
+    WorldModel world = WorldModelImpl.fromCompiledWorld(file.toPath());
+    assertEquals("Gravity Falls", world.getName());
+    assertEquals(20, world.getRoomNumber());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void compiledWorldNotBinary() throws IOException {
+    File file = File.createTempFile("world", ".bin");
+    file.deleteOnExit();
+    Files.writeString(file.toPath(), "20 28 Gravity Falls\n");
+    WorldTopologyCompiler.getInstance().load(file.toPath());
+  }
+
+  @Test
+  public void petStaysInRoomWithoutNeighbors() {
+    WorldModel world = new WorldModelImpl(new StringReader(
+            "10 10 World\n10 Target\nPet\n1\n0 0 2 2 Room\n1\n0 3 Item\n"));
+    List<String> names = new ArrayList<>();
+    List<Integer> rooms = new ArrayList<>();
+    List<Boolean> ais = new ArrayList<>();
+    names.add("aa");
+    rooms.add(0);
+    ais.add(false);
+    world.setPlayers(names, rooms, ais);
+    world.setMaxTurn(3);
+    world.setMaxItemCarried(1);
+    world.curHumanPlayerDisplayNeighborRooms();
+    world.curHumanPlayerPickupItem(0);
+    assertEquals(false, world.isGameOver());
+    assertEquals(true, world.printRoomInfo(0).contains("--Pet is in the room:"));
+  }
+
+  /**
+   * Start a game of GravityFalls with a human player in each of the rooms given.
+   */
+  private WorldModel startHumanGame(List<Integer> rooms) throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    List<String> names = List.of("aa", "bb", "cc").subList(0, rooms.size());
+    List<Boolean> ais = new ArrayList<>();
+    for (int i = 0; i < rooms.size(); ++i) {
+      ais.add(false);
+    }
+    world.setPlayers(names, rooms, ais);
+    world.setMaxTurn(100);
+    world.setMaxItemCarried(3);
+    return world;
+  }
+
+  @Test
+  public void turnMsgLookedAroundKeepsRoomsOfTheAction() throws IOException {
+    WorldModel world = startHumanGame(List.of(0, 4, 13));
+    world.curHumanPlayerDisplayNeighborRooms();
+    //the target character and the pet have left the room since
+    String expected = "The room current player is in:\n"
+            + "Room index:0. Name:Tombstone.\n"
+            + "--1 items are in the room:\n"
+            + "\tIndex:4. Name:Revolver. RoomIdx:0. Attack:3.\n"
+            + "--Target character is in the room:\n"
+            + "\tName:Bravo Mabel. RoomIdx:0. Health:50.\n"
+            + "--Pet is in the room:\n"
+            + "\tFortune the Cat\n"
+            + "--1 players are in the room:\n"
+            + "\taa\n"
+            + "--1 adjacent rooms:\n"
+            + "\tRoom index:1. Name:Hell's Kitchen.\n"
+            + "Neighbor rooms:\n"
+            + "Room index:1. Name:Hell's Kitchen.\n"
+            + "--1 items are in the room:\n"
+            + "\tIndex:8. Name:Billiard Cue. RoomIdx:1. Attack:2.\n"
+            + "--3 adjacent rooms:\n"
+            + "\tRoom index:0. Name:Tombstone.\n"
+            + "\tRoom index:2. Name:Kill Devil Hills.\n"
+            + "\tRoom index:5. Name:Deadwood.\n"
+            + "Target player moves from 0-indexed room to 1-indexed room.\n"
+            + "Round 1 finish.\n";
+    assertEquals(expected, world.getLastTurnMsg());
+    assertEquals(false, world.printRoomInfo(0).contains("--Target character"));
+    assertEquals(false, world.printRoomInfo(0).contains("--Pet"));
+    //a finished turn is shown until the next one
+    assertEquals(expected, world.getLastTurnMsg());
+    world.curHumanPlayerMovePet(13);
+    expected = "Pet Fortune the Cat is moved to 13-indexed room Cape Fear by player bb.\n"
+            + "Target player moves from 1-indexed room to 2-indexed room.\n"
+            + "Round 2 finish.\n";
+    assertEquals(expected, world.getLastTurnMsg());
+  }
+
+  @Test
+  public void turnMsgOfEveryAction() throws IOException {
+    WorldModel world = startHumanGame(List.of(0, 4, 13));
+    world.curHumanPlayerDisplayNeighborRooms();
+    world.curHumanPlayerMovePet(13);
+    world.curHumanPlayerPickupItem(14);
+    assertEquals("2-indexed Player cc picks up 14-indexed item Bad Cream (atk:2) "
+            + "from 13-indexed room Cape Fear\n"
+            + "Target player moves from 2-indexed room to 3-indexed room.\n"
+            + "Round 3 finish.\n", world.getLastTurnMsg());
+    world.curHumanPlayerMove(1);
+    assertEquals("0-indexed Player aa moves from 0-indexed room Tombstone "
+            + "to 1-indexed room Hell's Kitchen.\n"
+            + "Target player moves from 3-indexed room to 4-indexed room.\n"
+            + "Round 4 finish.\n", world.getLastTurnMsg());
+    world.curHumanPlayerAttackTargetCharacter(-1);
+    assertEquals("Player bb pokes Bravo Mabel's eyes successfully.\n"
+            + "Target character's health, reduced by 1 points, now is 49.\n"
+            + "Target player moves from 4-indexed room to 5-indexed room.\n"
+            + "Round 5 finish.\n", world.getLastTurnMsg());
+    while (world.getCurPlayerIdx() != 2
+            || world.getCurPlayerRoomIdx() != world.getTargetCharacterRoomIdx()) {
+      world.curHumanPlayerDisplayNeighborRooms();
+    }
+    world.curHumanPlayerAttackTargetCharacter(14);
+    assertEquals("Player cc attempts attack with item Bad Cream successfully.\n"
+            + "Target character's health, reduced by 2 points, now is 47.\n"
+            + "Item Bad Cream is removed from the game.\n"
+            + "Target player moves from 13-indexed room to 14-indexed room.\n"
+            + "Round 54 finish.\n", world.getLastTurnMsg());
+  }
+
+  @Test
+  public void turnMsgAttackFailed() throws IOException {
+    WorldModel world = startHumanGame(List.of(0, 0));
+    world.curHumanPlayerAttackTargetCharacter(-1);
+    assertEquals("Player aa's attack attempt failed for being seen by others.\n"
+            + "Target player moves from 0-indexed room to 1-indexed room.\n"
+            + "Round 1 finish.\n", world.getLastTurnMsg());
+  }
+
+  @Test
+  public void turnMsgNoNeighbor() {
+    WorldModel world = new WorldModelImpl(new StringReader(
+            "10 10 World\n10 Target\nPet\n1\n0 0 2 2 Room\n1\n0 3 Item\n"));
+    world.setPlayers(List.of("aa"), List.of(0), List.of(false));
+    world.setMaxTurn(3);
+    world.setMaxItemCarried(1);
+    world.curHumanPlayerDisplayNeighborRooms();
+    assertEquals("No neighbor rooms.\n"
+            + "Target player moves from 0-indexed room to 0-indexed room.\n"
+            + "Round 1 finish.\n", world.getLastTurnMsg());
+  }
+
+  @Test
+  public void randomCandidateInRange() {
+    AiActionControllerImpl first = new AiActionControllerImpl(new SplittableRandom(3));
+    AiActionControllerImpl second = new AiActionControllerImpl(new SplittableRandom(3));
+    int[] candidates = new int[]{7, 8, 9, 10, 11};
+    for (int i = 0; i < 100; ++i) {
+      int picked = first.getRandomNumber(candidates, 1, 4);
+      assertEquals(true, picked >= 8 && picked <= 10);
+      assertEquals(picked, second.getRandomNumber(candidates, 1, 4));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void randomCandidateEmptyRange() {
+    new AiActionControllerImpl(new SplittableRandom(3)).getRandomNumber(new int[]{1, 2}, 1, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void randomCandidatePredefinedAction() {
+    new AiActionControllerImpl("LOOK_AROUND").getRandomNumber(new int[]{1, 2}, 0, 2);
+  }
+
+  @Test
+  public void sameSeedSameAiActions() throws InterruptedException {
+    List<String> names = new ArrayList<>();
+    List<Integer> rooms = new ArrayList<>();
+    List<Boolean> ais = new ArrayList<>();
+    names.add("aa");
+    rooms.add(1);
+    ais.add(true);
+    names.add("bb");
+    rooms.add(3);
+    ais.add(true);
+    List<String> first = new ArrayList<>();
+    List<String> second = new ArrayList<>();
+    playSeededAiGame(names, rooms, ais, 42, first);
+    //the same seed plays the same game on another thread
+    Thread thread = new Thread(() -> playSeededAiGame(names, rooms, ais, 42, second));
+    thread.start();
+    thread.join();
+    assertEquals(first, second);
+    assertEquals(40, first.size());
+  }
+
+  private void playSeededAiGame(List<String> names, List<Integer> rooms, List<Boolean> ais,
+                                long seed, List<String> messages) {
+    WorldModel world;
+    try {
+      world = new WorldModelImpl(new FileReader(filePath));
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    world.setPlayers(names, rooms, ais, seed);
+    world.setMaxTurn(40);
+    world.setMaxItemCarried(3);
+    for (int i = 0; i < 40 && !world.isGameOver(); ++i) {
+      AiActionParam ap = world.aiPlayerDoAction();
+      messages.add(ap.getActionType() + " " + ap.getActionParameter() + "\n"
+              + world.getLastTurnMsg());
+    }
+  }
+
+  @Test
+  public void renderMapImageSameAsFile() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    BufferedImage rendered = world.renderMapImage(30);
+    world.outputMapImage("testOutputMap.png", 30);
+    BufferedImage written = ImageIO.read(new File("testOutputMap.png"));
+    assertEquals(written.getWidth(), rendered.getWidth());
+    assertEquals(written.getHeight(), rendered.getHeight());
+    for (int y = 0; y < rendered.getHeight(); ++y) {
+      for (int x = 0; x < rendered.getWidth(); ++x) {
+        assertEquals(written.getRGB(x, y), rendered.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void renderMapImageScaleOdd() throws IOException {
+    new WorldModelImpl(new FileReader(filePath)).renderMapImage(83);
+  }
+
+  @Test
+  public void mapImageCacheReusesSameWorld() throws IOException {
+    WorldModel first = new WorldModelImpl(new FileReader(filePath));
+    WorldModel second = new WorldModelImpl(new FileReader(filePath));
+    BufferedImage image = first.renderMapImage(30);
+    assertEquals(true, image == second.renderMapImage(30));
+    assertEquals(false, image == second.renderMapImage(40));
+  }
+
+  @Test
+  public void mapImageCacheOnDisk() throws IOException {
+    WorldTopology topology = new WorldTopologyImpl(new FileReader(filePath));
+    File directory = Files.createTempDirectory("maps").toFile();
+    MapImageCache cache = new MapImageCache(1);
+    cache.setDiskDirectory(directory.toPath());
+    BufferedImage drawn = cache.getImage(topology, 30);
+    assertEquals(1, directory.listFiles().length);
+
+    cache.clear();
+    BufferedImage read = cache.getImage(topology, 30);
+    assertEquals(false, drawn == read);
+    assertEquals(drawn.getWidth(), read.getWidth());
+    assertEquals(drawn.getRGB(drawn.getWidth() / 2, 15), read.getRGB(drawn.getWidth() / 2, 15));
+    assertEquals(1, cache.getSize());
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void mapImageCacheNullTopology() {
+    new MapImageCache(1).getImage(null, 30);
+  }
+
+  @Test
+  public void renderMapTileSameAsWholeMap() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    assertTilesSameAsWholeMap(world, 30, 64);
+    assertTilesSameAsWholeMap(new WorldModelImpl(new StringReader(
+            new WorldGeneratorImpl(150, 0, 30, 0.5, 3).generate())), 12, 50);
+    //a name far wider than its room still reaches into the tiles next to it
+    WorldModel narrow = new WorldModelImpl(new StringReader("4 30 Narrow\n10 Target\nPet\n2\n"
+            + "2 14 3 15 A room with a name much wider than the room itself\n"
+            + "0 0 1 1 Corner\n0\n"));
+    assertTilesSameAsWholeMap(narrow, 30, 20);
+  }
+
+  private void assertTilesSameAsWholeMap(WorldModel world, int imgScale, int tileSize) {
+    assertTilesSameAsWholeMap(world.renderMapImage(imgScale), world, imgScale, tileSize);
+  }
+
+  private void assertTilesSameAsWholeMap(BufferedImage whole, WorldDisplayModel world,
+                                         int imgScale, int tileSize) {
+    for (int y = 0; y < whole.getHeight(); y += tileSize) {
+      for (int x = 0; x < whole.getWidth(); x += tileSize) {
+        int width = Math.min(tileSize, whole.getWidth() - x);
+        int height = Math.min(tileSize, whole.getHeight() - y);
+        BufferedImage tile = world.renderMapTile(imgScale, x, y, width, height);
+        for (int ty = 0; ty < height; ++ty) {
+          for (int tx = 0; tx < width; ++tx) {
+            assertEquals(whole.getRGB(x + tx, y + ty), tile.getRGB(tx, ty));
+          }
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void renderMapTileNegativePosition() throws IOException {
+    new WorldModelImpl(new FileReader(filePath)).renderMapTile(30, -1, 0, 10, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void renderMapTileEmpty() throws IOException {
+    new WorldModelImpl(new FileReader(filePath)).renderMapTile(30, 0, 0, 0, 10);
+  }
+
+  @Test
+  public void frozenDisplayModelKeepsPlayers() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName),
+            List.of(firstPlayerRoomIdx, secondPlayerRoomIdx), List.of(false, false));
+    world.setMaxTurn(maxTurn);
+    FrozenWorldDisplayModel frozen = new FrozenWorldDisplayModel(world);
+    int targetRoomIdx = world.getTargetCharacterRoomIdx();
+    world.curHumanPlayerMove(world.getRoomNeighbors(firstPlayerRoomIdx).get(0));
+    assertEquals(true, world.getPlayerRoomIdx(0) != firstPlayerRoomIdx);
+    assertEquals(2, frozen.getPlayerNumber());
+    assertEquals(secondPlayerName, frozen.getPlayerName(1));
+    assertEquals(firstPlayerRoomIdx, frozen.getPlayerRoomIdx(0));
+    assertEquals(targetRoomIdx, frozen.getTargetCharacterRoomIdx());
+    //what never changes is read from the same topology
+    assertEquals(true, world.getTopology() == frozen.getTopology());
+    assertEquals(world.getRoomName(3), frozen.getRoomName(3));
+    assertEquals(world.getItemName(2), frozen.getItemName(2));
+    assertEquals(world.getItemAttack(2), frozen.getItemAttack(2));
+    assertEquals(world.getWidth(), frozen.getWidth());
+    assertEquals(world.getName(), frozen.getName());
+    assertTilesSameAsWholeMap(world.renderMapImage(30), frozen, 30, 64);
+    String msg = "";
+    try {
+      frozen.getPlayerName(2);
+    } catch (IllegalArgumentException iae) {
+      msg = iae.getMessage();
+    }
+    assertEquals("player index out of range", msg);
+  }
+
+  @Test
+  public void parallelMapSameAsSerial() {
+    WorldTopology topology = new WorldTopologyImpl(new StringReader(
+            new WorldGeneratorImpl(400, 0, 30, 5).generate()));
+    BufferedImage serial = new MapImageCache(1, 1).getImage(topology, 12);
+    BufferedImage parallel = new MapImageCache(1, 4).getImage(topology, 12);
+    assertEquals(serial.getWidth(), parallel.getWidth());
+    assertEquals(serial.getHeight(), parallel.getHeight());
+    for (int y = 0; y < serial.getHeight(); ++y) {
+      for (int x = 0; x < serial.getWidth(); ++x) {
+        assertEquals(serial.getRGB(x, y), parallel.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void mapImageCacheZeroParallelism() {
+    new MapImageCache(1, 0);
+  }
+
+  /**
+   * Play a game with two humans and two AI players for some turns.
+   */
+  private void playTurns(WorldModel world, int turnNum) {
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName, thirdPlayerName, "Bot"),
+            List.of(firstPlayerRoomIdx, secondPlayerRoomIdx, thirdPlayerRoomIdx, 0),
+            List.of(false, true, false, true), 11);
+    continueTurns(world, turnNum);
+  }
+
+  /**
+   * Play some more turns of the current game.
+   */
+  private void continueTurns(WorldModel world, int turnNum) {
+    for (int i = 0; i < turnNum && !world.isGameOver(); ++i) {
+      if (world.getCurPlayerType() == PlayerType.AI) {
+        world.aiPlayerDoAction();
+      } else if (world.getCurPlayerRoomIdx() == world.getTargetCharacterRoomIdx()) {
+        world.curHumanPlayerAttackTargetCharacter(-1);
+      } else if (!world.getRoomItems(world.getCurPlayerRoomIdx()).isEmpty()
+              && world.getCurPlayerItemNum() < maxItemCarried) {
+        world.curHumanPlayerPickupItem(world.getRoomItems(world.getCurPlayerRoomIdx()).get(0));
+      } else if (i % 5 == 0) {
+        world.curHumanPlayerDisplayNeighborRooms();
+      } else {
+        world.curHumanPlayerMove(world.getRoomNeighbor(world.getCurPlayerRoomIdx(), 0));
+      }
+    }
+  }
+
+  private static String describeGame(WorldModel world) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(world.getCurPlayerIdx()).append(' ').append(world.getTargetCharacterRoomIdx())
+            .append(' ').append(world.getTargetCharacterHealth()).append(' ')
+            .append(world.isGameOver()).append('\n').append(world.getLastTurnMsg());
+    for (int i = 0; i < world.getPlayerNumber(); ++i) {
+      sb.append(world.printPlayerInfo(i));
+    }
+    for (int i = 0; i < world.getRoomNumber(); ++i) {
+      sb.append(world.printRoomInfo(i));
+    }
+    if (world.isGameOver()) {
+      sb.append(world.getGameResultMsg());
+    }
+    return sb.toString();
+  }
+
+  private static int recordNumber(Path path) {
+    int[] recordNum = {0};
+    WorldJournalImpl.forEachRecord(path, record -> ++recordNum[0]);
+    return recordNum[0];
+  }
 
-}
\ No newline at end of file
+  @Test
+  public void journalRecoversGame() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    //a game thrown away by a reset isn't replayed
+    playTurns(world, 7);
+    world.reinitializeWithCurrentConfig();
+    playTurns(world, 25);
+    String expected = describeGame(world);
+    world.close();
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(expected, describeGame(recovered));
+    //the recovered game goes on, and is recorded after the replayed one
+    playTurns(recovered, 3);
+    String afterRecovery = describeGame(recovered);
+    recovered.close();
+    JournaledWorldModel recoveredAgain =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(afterRecovery, describeGame(recoveredAgain));
+    recoveredAgain.close();
+    Files.delete(path);
+  }
+
+  @Test
+  public void journalDropsCutRecord() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    playTurns(world, 10);
+    world.flush();
+    String expected = describeGame(world);
+    int recordNum = recordNumber(path);
+    world.close();
+    //a crash in the middle of writing a record
+    Files.write(path, new byte[]{0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+    assertEquals(recordNum, recordNumber(path));
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(expected, describeGame(recovered));
+    recovered.setMaxTurn(maxTurn);
+    recovered.close();
+    assertEquals(recordNum + 1, recordNumber(path));
+    Files.delete(path);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void journalNotAJournal() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    path.toFile().deleteOnExit();
+    Files.write(path, "not a journal".getBytes());
+    WorldJournalImpl.forEachRecord(path, record -> { });
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void journalOfAnotherConfig() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    path.toFile().deleteOnExit();
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    world.setMaxTurn(maxTurn);
+    world.setPlayers(List.of(firstPlayerName), List.of(thirdPlayerRoomIdx), List.of(false));
+    world.close();
+    JournaledWorldModel.recover(new WorldModelImpl(new StringReader(
+            new WorldGeneratorImpl(4, 0, 30, 5).generate())), path);
+  }
+
+  @Test
+  public void journalResetOfAnotherWorld() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    path.toFile().deleteOnExit();
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    //nothing recorded after the reset would fail on another world
+    world.reinitializeWithCurrentConfig();
+    world.setMaxTurn(maxTurn);
+    world.close();
+    String message = null;
+    try {
+      JournaledWorldModel.recover(new WorldModelImpl(new StringReader(
+              new WorldGeneratorImpl(4, 0, 30, 5).generate())), path);
+    } catch (IllegalStateException ise) {
+      message = ise.getMessage();
+    }
+    assertEquals("journal doesn't match the config: journal is of another world", message);
+    JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path).close();
+  }
+
+  @Test
+  public void snapshotRestoresGame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    playTurns(world, 13);
+    byte[] snapshot = world.saveSnapshot();
+    WorldModel restored = new WorldModelImpl(new FileReader(filePath));
+    restored.loadSnapshot(snapshot);
+    assertEquals(describeGame(world), describeGame(restored));
+    assertEquals(world.getCurPlayerCarryItems(), restored.getCurPlayerCarryItems());
+    assertEquals(world.getMaxTurn(), restored.getMaxTurn());
+    assertEquals(world.getMaxItemNumCarried(), restored.getMaxItemNumCarried());
+    //the same snapshot is saved again
+    assertEquals(true, Arrays.equals(snapshot, restored.saveSnapshot()));
+  }
+
+  @Test
+  public void snapshotGameGoesOnTheSame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName),
+            List.of(firstPlayerRoomIdx, thirdPlayerRoomIdx), List.of(false, false));
+    continueTurns(world, 9);
+    WorldModel restored = new WorldModelImpl(new FileReader(filePath));
+    restored.loadSnapshot(world.saveSnapshot());
+    //the pet goes on wandering from where it was, and the items left are the same
+    continueTurns(world, 20);
+    continueTurns(restored, 20);
+    assertEquals(describeGame(world), describeGame(restored));
+  }
+
+  @Test
+  public void snapshotOfAnotherWorld() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    playTurns(world, 5);
+    WorldModel other = new WorldModelImpl(new StringReader(
+            new WorldGeneratorImpl(30, 5, 30, 5).generate()));
+    String before = describeGame(other);
+    String message = null;
+    try {
+      other.loadSnapshot(world.saveSnapshot());
+    } catch (IllegalArgumentException iae) {
+      message = iae.getMessage();
+    }
+    assertEquals("snapshot is of another world", message);
+    assertEquals(before, describeGame(other));
+  }
+
+  @Test
+  public void snapshotTruncatedLeavesGame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    playTurns(world, 5);
+    byte[] snapshot = world.saveSnapshot();
+    WorldModel other = new WorldModelImpl(new FileReader(filePath));
+    playTurns(other, 8);
+    String before = describeGame(other);
+    String message = null;
+    try {
+      other.loadSnapshot(Arrays.copyOf(snapshot, snapshot.length - 3));
+    } catch (IllegalArgumentException iae) {
+      message = iae.getMessage();
+    }
+    assertEquals("snapshot is truncated", message);
+    assertEquals(before, describeGame(other));
+  }
+
+  @Test
+  public void snapshotHugeLengthLeavesGame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    playTurns(world, 5);
+    byte[] snapshot = world.saveSnapshot();
+    //the length of the world's hash claims far more bytes than the snapshot has
+    ByteBuffer.wrap(snapshot).putInt(2 * Integer.BYTES, 0x7ff00000);
+    String before = describeGame(world);
+    String message = null;
+    try {
+      world.loadSnapshot(snapshot);
+    } catch (IllegalArgumentException iae) {
+      message = iae.getMessage();
+    }
+    assertEquals("snapshot is truncated", message);
+    assertEquals(before, describeGame(world));
+  }
+
+  @Test
+  public void snapshotInconsistentItemsLeavesGame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    int roomIdx = 0;
+    while (world.getRoomItems(roomIdx).isEmpty()) {
+      ++roomIdx;
+    }
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(firstPlayerName), List.of(roomIdx), List.of(false));
+    int item = world.getRoomItems(roomIdx).get(0);
+    world.curHumanPlayerPickupItem(item);
+    byte[] snapshot = world.saveSnapshot();
+    int offset = pickedUpItemsOffset(snapshot);
+    assertEquals(1, ByteBuffer.wrap(snapshot).getInt(offset));
+    String before = describeGame(world);
+
+    //an item carried but not picked up, and an item picked up but carried by nobody
+    long[] pickedUpWords = {0, (1L << item) | (1L << (item == 0 ? 1 : 0))};
+    for (long word : pickedUpWords) {
+      byte[] damaged = snapshot.clone();
+      ByteBuffer.wrap(damaged).putLong(offset + Integer.BYTES, word);
+      String message = null;
+      try {
+        world.loadSnapshot(damaged);
+      } catch (IllegalArgumentException iae) {
+        message = iae.getMessage();
+      }
+      assertEquals("snapshot is damaged", message);
+      assertEquals(before, describeGame(world));
+    }
+  }
+
+  /**
+   * Find where the players start in a snapshot, following its layout.
+   */
+  private static int playersOffset(byte[] snapshot) {
+    int hashLength = ByteBuffer.wrap(snapshot).getInt(2 * Integer.BYTES);
+    return 3 * Integer.BYTES + hashLength + 7 * Integer.BYTES;
+  }
+
+  /**
+   * Find where the items picked up start in a snapshot, following its layout.
+   */
+  private static int pickedUpItemsOffset(byte[] snapshot) {
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    buffer.position(playersOffset(snapshot));
+    int playerNumber = buffer.getInt();
+    for (int i = 0; i < playerNumber; ++i) {
+      int nameLength = buffer.getInt();
+      buffer.position(buffer.position() + nameLength + Integer.BYTES);
+      if (buffer.get() != 0) {
+        //the state of the AI player's controller
+        byte kind = buffer.get();
+        if (kind == 1) {
+          buffer.position(buffer.position() + 2 * Long.BYTES);
+        } else if (kind == 2) {
+          int actionNumber = buffer.getInt();
+          buffer.position(buffer.position() + (2 * actionNumber + 1) * Integer.BYTES);
+        }
+      }
+    }
+    for (int i = 0; i < playerNumber; ++i) {
+      int carriedNumber = buffer.getInt();
+      buffer.position(buffer.position() + Math.max(carriedNumber, 0) * Integer.BYTES);
+    }
+    return buffer.position();
+  }
+
+  /**
+   * Find where the pet's DFS stack starts in a snapshot, following its layout.
+   */
+  private static int petDfsStackOffset(byte[] snapshot) {
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    buffer.position(pickedUpItemsOffset(snapshot));
+    for (int i = 0; i < 2; ++i) {
+      int wordNumber = buffer.getInt();
+      buffer.position(buffer.position() + wordNumber * Long.BYTES);
+    }
+    return buffer.position();
+  }
+
+  private static void assertSnapshotDamaged(WorldModel world, byte[] snapshot) {
+    String before = describeGame(world);
+    String message = null;
+    try {
+      world.loadSnapshot(snapshot);
+    } catch (IllegalArgumentException iae) {
+      message = iae.getMessage();
+    }
+    assertEquals("snapshot is damaged", message);
+    assertEquals(before, describeGame(world));
+  }
+
+  @Test
+  public void snapshotLimitsOutOfRange() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName),
+            List.of(firstPlayerRoomIdx, thirdPlayerRoomIdx), List.of(false, false));
+    continueTurns(world, 3);
+    byte[] snapshot = world.saveSnapshot();
+    //max turn and max item carried follow the current turn and player
+    int maxTurnOffset = playersOffset(snapshot) - 5 * Integer.BYTES;
+    assertEquals(maxTurn, ByteBuffer.wrap(snapshot).getInt(maxTurnOffset));
+    assertEquals(maxItemCarried,
+            ByteBuffer.wrap(snapshot).getInt(maxTurnOffset + Integer.BYTES));
+
+    byte[] damaged = snapshot.clone();
+    ByteBuffer.wrap(damaged).putInt(maxTurnOffset, -1);
+    assertSnapshotDamaged(world, damaged);
+    damaged = snapshot.clone();
+    ByteBuffer.wrap(damaged).putInt(maxTurnOffset + Integer.BYTES, -1);
+    assertSnapshotDamaged(world, damaged);
+    damaged = snapshot.clone();
+    ByteBuffer.wrap(damaged).putInt(maxTurnOffset + Integer.BYTES, world.getItemNumber() + 1);
+    assertSnapshotDamaged(world, damaged);
+  }
+
+  @Test
+  public void snapshotSamePlayerNames() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn);
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName),
+            List.of(firstPlayerRoomIdx, thirdPlayerRoomIdx), List.of(false, false));
+    byte[] snapshot = world.saveSnapshot();
+    //both names have the same length, the second one is written over with the first one
+    byte[] name = firstPlayerName.getBytes(StandardCharsets.UTF_8);
+    int secondNameOffset = playersOffset(snapshot) + 2 * Integer.BYTES + name.length
+            + Integer.BYTES + 1 + Integer.BYTES;
+    assertEquals(name.length, ByteBuffer.wrap(snapshot).getInt(secondNameOffset - Integer.BYTES));
+    System.arraycopy(name, 0, snapshot, secondNameOffset, name.length);
+    assertSnapshotDamaged(world, snapshot);
+  }
+
+  @Test
+  public void snapshotPetDfsStackInconsistent() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(firstPlayerName, secondPlayerName),
+            List.of(firstPlayerRoomIdx, thirdPlayerRoomIdx), List.of(false, false));
+    continueTurns(world, 3);
+    byte[] snapshot = world.saveSnapshot();
+    int offset = petDfsStackOffset(snapshot);
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    int stackSize = buffer.getInt(offset);
+    assertEquals(true, stackSize >= 2);
+    List<Integer> stack = new ArrayList<>();
+    for (int i = 0; i < stackSize; ++i) {
+      stack.add(buffer.getInt(offset + (i + 1) * Integer.BYTES));
+    }
+
+    //a room twice on the stack, which could push the stack past the number of rooms
+    byte[] damaged = snapshot.clone();
+    ByteBuffer.wrap(damaged).putInt(offset + 2 * Integer.BYTES, stack.get(0));
+    assertSnapshotDamaged(world, damaged);
+    //a room on the stack which isn't marked so
+    int otherRoom = 0;
+    while (stack.contains(otherRoom)) {
+      ++otherRoom;
+    }
+    damaged = snapshot.clone();
+    ByteBuffer.wrap(damaged).putInt(offset + Integer.BYTES, otherRoom);
+    assertSnapshotDamaged(world, damaged);
+  }
+
+  @Test
+  public void snapshotAiPlayersGoOnTheSame() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn * 3);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(List.of(
+            new PlayerHumanImpl(firstPlayerName, firstPlayerRoomIdx),
+            new PlayerAiImpl(secondPlayerName, secondPlayerRoomIdx,
+                    new AiActionControllerImpl(AiActionControllerImpl.deriveSeed(5, 1))),
+            new PlayerAiImpl(thirdPlayerName, thirdPlayerRoomIdx, new AiActionControllerImpl(
+                    "LOOK_AROUND", "MOVE_PET", "4", "LOOK_AROUND", "MOVE_PET", "9")),
+            new PlayerAiImpl("Bot", 0, new AiActionControllerImpl(7L))));
+    continueTurns(world, 14);
+    WorldModel restored = new WorldModelImpl(new FileReader(filePath));
+    restored.loadSnapshot(world.saveSnapshot());
+    //the seeded players draw where they were, and the scripted one takes its next action
+    assertGoesOnTheSame(world, restored, 40);
+  }
+
+  /**
+   * Play both games turn by turn, checking they go on the same.
+   */
+  private void assertGoesOnTheSame(WorldModel expected, WorldModel actual, int turnNum) {
+    for (int i = 0; i < turnNum && !expected.isGameOver(); ++i) {
+      if (expected.getCurPlayerType() == PlayerType.AI) {
+        AiActionParam action = expected.aiPlayerDoAction();
+        AiActionParam actualAction = actual.aiPlayerDoAction();
+        assertEquals(action.getActionType(), actualAction.getActionType());
+        assertEquals(action.getActionParameter(), actualAction.getActionParameter());
+      } else {
+        continueTurns(expected, 1);
+        continueTurns(actual, 1);
+      }
+      assertEquals(describeGame(expected), describeGame(actual));
+    }
+  }
+
+  @Test
+  public void snapshotControllerOfGivenGenerator() throws IOException {
+    WorldModel world = new WorldModelImpl(new FileReader(filePath));
+    world.setMaxTurn(maxTurn);
+    world.setPlayers(List.of(new PlayerHumanImpl(firstPlayerName, firstPlayerRoomIdx),
+            new PlayerAiImpl("Bot", 0, new AiActionControllerImpl(new SplittableRandom(3)))));
+    String message = null;
+    try {
+      world.saveSnapshot();
+    } catch (IllegalStateException ise) {
+      message = ise.getMessage();
+    }
+    assertEquals("controller of AI player Bot can't be saved", message);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void snapshotNull() throws IOException {
+    new WorldModelImpl(new FileReader(filePath)).loadSnapshot(null);
+  }
+
+  @Test
+  public void journalRecoversLoadedSnapshot() throws IOException {
+    WorldModel saved = new WorldModelImpl(new FileReader(filePath));
+    playTurns(saved, 6);
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    playTurns(world, 3);
+    world.loadSnapshot(saved.saveSnapshot());
+    continueTurns(world, 15);
+    String expected = describeGame(world);
+    world.close();
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(expected, describeGame(recovered));
+    recovered.close();
+    Files.delete(path);
+  }
+
+  @Test
+  public void journalRecoversSeededGameTurnByTurn() throws IOException {
+    WorldModel uninterrupted = new WorldModelImpl(new FileReader(filePath));
+    playTurns(uninterrupted, 12);
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    playTurns(world, 12);
+    //killed mid-run: what was synced is all there is, and the journal is never closed
+    world.flush();
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(describeGame(uninterrupted), describeGame(recovered));
+    //the seeded AI player draws on where it was
+    assertGoesOnTheSame(uninterrupted, recovered, 40);
+    recovered.close();
+    Files.delete(path);
+  }
+
+  private List<Player> scriptedPlayers() {
+    return List.of(new PlayerHumanImpl(firstPlayerName, firstPlayerRoomIdx),
+            new PlayerAiImpl(secondPlayerName, secondPlayerRoomIdx,
+                    new AiActionControllerImpl(AiActionControllerImpl.deriveSeed(5, 1))),
+            new PlayerAiImpl(thirdPlayerName, thirdPlayerRoomIdx, new AiActionControllerImpl(
+                    "LOOK_AROUND", "MOVE_PET", "4", "LOOK_AROUND", "MOVE_PET", "9")));
+  }
+
+  @Test
+  public void journalRecoversScriptedPlayers() throws IOException {
+    WorldModel uninterrupted = new WorldModelImpl(new FileReader(filePath));
+    uninterrupted.setMaxTurn(maxTurn * 3);
+    uninterrupted.setMaxItemCarried(maxItemCarried);
+    uninterrupted.setPlayers(scriptedPlayers());
+    continueTurns(uninterrupted, 9);
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    world.setMaxTurn(maxTurn * 3);
+    world.setMaxItemCarried(maxItemCarried);
+    world.setPlayers(scriptedPlayers());
+    continueTurns(world, 9);
+    world.flush();
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    //the scripted player takes its next action instead of acting at random
+    assertGoesOnTheSame(uninterrupted, recovered, 40);
+    recovered.close();
+    Files.delete(path);
+  }
+
+  @Test
+  public void journalControllerOfGivenGenerator() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    path.toFile().deleteOnExit();
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    String message = null;
+    try {
+      world.setPlayers(List.of(new PlayerHumanImpl(firstPlayerName, firstPlayerRoomIdx),
+              new PlayerAiImpl("Bot", 0, new AiActionControllerImpl(new SplittableRandom(3)))));
+    } catch (IllegalArgumentException iae) {
+      message = iae.getMessage();
+    }
+    assertEquals("controller of AI player Bot can't be journaled", message);
+    world.close();
+  }
+
+  @Test
+  public void journalStartsOverAtResetAndSnapshot() throws IOException {
+    WorldModel saved = new WorldModelImpl(new FileReader(filePath));
+    playTurns(saved, 6);
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    JournaledWorldModel world = new JournaledWorldModel(
+            new WorldModelImpl(new FileReader(filePath)), new WorldJournalImpl(path));
+    playTurns(world, 10);
+    world.reinitializeWithCurrentConfig();
+    world.setMaxTurn(maxTurn);
+    world.flush();
+    //the reset and what follows it
+    assertEquals(2, recordNumber(path));
+    playTurns(world, 4);
+    world.loadSnapshot(saved.saveSnapshot());
+    world.flush();
+    assertEquals(1, recordNumber(path));
+    assertEquals(false, Files.exists(path.resolveSibling(path.getFileName() + ".new")));
+    //the journal goes on after being replaced
+    continueTurns(world, 5);
+    String expected = describeGame(world);
+    world.close();
+
+    JournaledWorldModel recovered =
+            JournaledWorldModel.recover(new WorldModelImpl(new FileReader(filePath)), path);
+    assertEquals(expected, describeGame(recovered));
+    recovered.close();
+    Files.delete(path);
+  }
+
+  @Test
+  public void journalReadsRecordsBiggerThanBuffer() throws IOException {
+    Path path = Files.createTempFile("world", ".journal");
+    Files.delete(path);
+    WorldJournal journal = new WorldJournalImpl(path);
+    List<byte[]> records = new ArrayList<>();
+    for (int i = 0; i < 3; ++i) {
+      byte[] record = new byte[100000 + i];
+      Arrays.fill(record, (byte) i);
+      records.add(record);
+      journal.append(record);
+    }
+    journal.close();
+    List<byte[]> read = new ArrayList<>();
+    WorldJournalImpl.forEachRecord(path, read::add);
+    assertEquals(records.size(), read.size());
+    for (int i = 0; i < records.size(); ++i) {
+      assertEquals(true, Arrays.equals(records.get(i), read.get(i)));
+    }
+    Files.delete(path);
+  }
+}
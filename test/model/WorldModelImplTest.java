@@ -0,0 +1,108 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Test for the actions WorldModelImpl draws for AI players,
+ * which are only drawn among the actions valid in the player's room.
+ */
+public class WorldModelImplTest {
+
+  //two players share every room they are in, so they never attack unseen
+  private static final List<String> NAMES = List.of("aa", "bb");
+  private static final List<Boolean> AIS = List.of(true, true);
+
+  private static WorldModel oneRoomWorld() {
+    return new WorldModelImpl(new StringReader(
+            "10 10 Shack\n"
+                    + "50 Bravo Mabel\n"
+                    + "Fortune the Cat\n"
+                    + "1\n"
+                    + " 0  0  3  3 Gift Shop\n"
+                    + "5\n"
+                    + "0 3 Crepe Pan\n"
+                    + "0 2 Letter Opener\n"
+                    + "0 4 Chain Saw\n"
+                    + "0 1 Sharp Knife\n"
+                    + "0 2 Broom\n"));
+  }
+
+  /**
+   * Play turns of AI players, seeded so the actions are the same on every run.
+   *
+   * @return the actions taken by each player
+   */
+  private static List<List<PlayerActionType>> playAiTurns(WorldModel world, List<Integer> rooms,
+                                                          int maxItemCarried, int turnNum) {
+    world.setPlayers(NAMES, rooms, AIS, 17);
+    world.setMaxTurn(turnNum);
+    world.setMaxItemCarried(maxItemCarried);
+    List<List<PlayerActionType>> actions = List.of(new ArrayList<>(), new ArrayList<>());
+    while (!world.isGameOver()) {
+      int playerIdx = world.getCurPlayerIdx();
+      actions.get(playerIdx).add(world.aiPlayerDoAction().getActionType());
+    }
+    return actions;
+  }
+
+  private static Set<PlayerActionType> allOf(List<List<PlayerActionType>> actions) {
+    Set<PlayerActionType> set = EnumSet.noneOf(PlayerActionType.class);
+    for (List<PlayerActionType> list : actions) {
+      set.addAll(list);
+    }
+    return set;
+  }
+
+  @Test
+  public void aiNeverMovesPetInOneRoomWorld() {
+    List<List<PlayerActionType>> actions = playAiTurns(oneRoomWorld(), List.of(0, 0), 5, 200);
+    Set<PlayerActionType> taken = allOf(actions);
+    assertEquals(false, taken.contains(PlayerActionType.MOVE_PET));
+    assertEquals(false, taken.contains(PlayerActionType.MOVE));
+    assertEquals(EnumSet.of(PlayerActionType.PICKUP_ITEM, PlayerActionType.LOOK_AROUND), taken);
+  }
+
+  @Test
+  public void aiNeverPicksUpAtCarryLimit() {
+    WorldModel world = oneRoomWorld();
+    List<List<PlayerActionType>> actions = playAiTurns(world, List.of(0, 0), 1, 200);
+    for (List<PlayerActionType> playerActions : actions) {
+      int pickups = 0;
+      for (PlayerActionType action : playerActions) {
+        if (action == PlayerActionType.PICKUP_ITEM) {
+          ++pickups;
+        }
+      }
+      assertEquals(1, pickups);
+    }
+    //items are left in the room, only the limit keeps the players from picking them up
+    assertEquals(3, world.getRoomItems(0).size());
+  }
+
+  @Test
+  public void aiNeverMovesOrPicksUpInEmptyIsolatedRoom() {
+    //the second room has no neighbor and no item
+    WorldModel world = new WorldModelImpl(new StringReader(
+            "10 10 Shack\n"
+                    + "50 Bravo Mabel\n"
+                    + "Fortune the Cat\n"
+                    + "2\n"
+                    + " 0  0  3  3 Gift Shop\n"
+                    + " 6  6  8  8 Attic\n"
+                    + "2\n"
+                    + "0 3 Crepe Pan\n"
+                    + "0 2 Letter Opener\n"));
+    List<List<PlayerActionType>> actions = playAiTurns(world, List.of(1, 1), 2, 200);
+    Set<PlayerActionType> taken = allOf(actions);
+    assertEquals(EnumSet.of(PlayerActionType.LOOK_AROUND, PlayerActionType.MOVE_PET), taken);
+    assertEquals(1, world.getPlayerRoomIdx(0));
+    assertEquals(1, world.getPlayerRoomIdx(1));
+  }
+}
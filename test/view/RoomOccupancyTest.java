@@ -0,0 +1,130 @@
+package view;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for class RoomOccupancy.
+ */
+public class RoomOccupancyTest {
+  private RoomOccupancy occupancy;
+
+  @Before
+  public void setUp() {
+    occupancy = new RoomOccupancy();
+    occupancy.reset(3);
+  }
+
+  @Test
+  public void resetPutsNoPlayerOnMap() {
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(-1, occupancy.getRoom(i));
+    }
+    assertEquals(List.of(), occupancy.getOccupants(0));
+  }
+
+  @Test
+  public void moveAddsPlayerToRoom() {
+    assertEquals(List.of(1), occupancy.move(1, 4));
+    assertEquals(4, occupancy.getRoom(1));
+    assertEquals(List.of(1), occupancy.getOccupants(4));
+  }
+
+  @Test
+  public void moveTakesPlayerOutOfOldRoom() {
+    occupancy.move(0, 4);
+    assertEquals(List.of(0, 1), occupancy.move(1, 4));
+    assertEquals(List.of(1), occupancy.move(1, 2));
+    assertEquals(List.of(0), occupancy.getOccupants(4));
+    occupancy.move(0, 2);
+    assertEquals(List.of(), occupancy.getOccupants(4));
+    assertEquals(List.of(0, 1), occupancy.getOccupants(2));
+    assertEquals(2, occupancy.getRoom(0));
+  }
+
+  @Test
+  public void moveToSameRoomKeepsPlayerOnce() {
+    occupancy.move(2, 1);
+    assertEquals(List.of(2), occupancy.move(2, 1));
+  }
+
+  @Test
+  public void resetForgetsRooms() {
+    occupancy.move(0, 1);
+    occupancy.move(2, 1);
+    occupancy.reset(3);
+    assertEquals(-1, occupancy.getRoom(0));
+    assertEquals(List.of(), occupancy.getOccupants(1));
+    assertEquals(List.of(1), occupancy.move(1, 1));
+  }
+
+  @Test
+  public void resetWithMorePlayers() {
+    occupancy.move(2, 0);
+    occupancy.reset(5);
+    assertEquals(List.of(), occupancy.getOccupants(0));
+    assertEquals(List.of(4), occupancy.move(4, 0));
+    assertEquals(List.of(2, 4), occupancy.move(2, 0));
+    String msg = "";
+    try {
+      occupancy.move(5, 0);
+    } catch (IllegalArgumentException iae) {
+      msg = iae.getMessage();
+    }
+    assertEquals("player index out of range", msg);
+  }
+
+  @Test
+  public void manyPlayersInOneRoom() {
+    int playerNumber = 200;
+    occupancy.reset(playerNumber);
+    //every odd player first, then every even one, in descending order
+    for (int i = playerNumber - 1; i >= 0; i -= 2) {
+      occupancy.move(i, 7);
+    }
+    for (int i = playerNumber - 2; i >= 0; i -= 2) {
+      occupancy.move(i, 7);
+    }
+    List<Integer> occupants = occupancy.getOccupants(7);
+    assertEquals(playerNumber, occupants.size());
+    for (int i = 0; i < playerNumber; ++i) {
+      assertEquals(i, (int) occupants.get(i));
+      assertEquals(7, occupancy.getRoom(i));
+    }
+    for (int i = 0; i < playerNumber; i += 3) {
+      occupancy.move(i, 8);
+    }
+    assertEquals(playerNumber - (playerNumber + 2) / 3, occupancy.getOccupants(7).size());
+    assertEquals((playerNumber + 2) / 3, occupancy.getOccupants(8).size());
+    assertEquals(false, occupancy.getOccupants(7).contains(0));
+    assertEquals(true, occupancy.getOccupants(8).contains(198));
+  }
+
+  @Test
+  public void invalidIndex() {
+    String msg = "";
+    try {
+      occupancy.move(-1, 0);
+    } catch (IllegalArgumentException iae) {
+      msg = iae.getMessage();
+    }
+    assertEquals("player index out of range", msg);
+    msg = "";
+    try {
+      occupancy.move(0, -1);
+    } catch (IllegalArgumentException iae) {
+      msg = iae.getMessage();
+    }
+    assertEquals("room index is negative", msg);
+    msg = "";
+    try {
+      occupancy.reset(-1);
+    } catch (IllegalArgumentException iae) {
+      msg = iae.getMessage();
+    }
+    assertEquals("player number is negative", msg);
+  }
+}